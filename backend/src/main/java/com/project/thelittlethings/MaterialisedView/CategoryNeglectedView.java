@@ -4,7 +4,7 @@ import java.time.Instant;
 
 public interface CategoryNeglectedView {
 
-    // Interface to map results from the CategoryNeglected materialized view
+    // Interface to map neglected-category rows (read from the category_activity summary table)
     Long getCategoryId();
     Long getUserId();
     String getName();
@@ -0,0 +1,16 @@
+package com.project.thelittlethings.View;
+
+import com.project.thelittlethings.entities.Friendship;
+
+import java.time.OffsetDateTime;
+
+// A friendship as seen from one user, with the other user's summary joined in
+public interface FriendshipView {
+  Long getId();
+  Long getFriendId();
+  String getFriendUsername();
+  Integer getFriendTrophies();
+  Friendship.Status getStatus();
+  Long getRequestedById();
+  OffsetDateTime getRequestedAt();
+}
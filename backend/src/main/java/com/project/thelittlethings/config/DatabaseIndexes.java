@@ -0,0 +1,55 @@
+package com.project.thelittlethings.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Postgres-only indexes that @Table(indexes = ...) can't express (expression, operator-class and
+// partial indexes), created on startup because the app runs with ddl-auto=update rather than schema.sql.
+// Each statement is idempotent; one that fails (e.g. no CREATE rights, or existing duplicate open
+// challenges) is logged with its SQL and skipped, and then has to be applied by hand.
+@Component
+public class DatabaseIndexes {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseIndexes.class);
+
+    static final List<String> STATEMENTS = List.of(
+            // username typeahead: UserRepository.searchByUsernamePrefix
+            "CREATE INDEX IF NOT EXISTS idx_users_username_upper ON users (upper(username) text_pattern_ops)",
+            // one open challenge per user, even when nightly and on-demand generation race
+            "CREATE UNIQUE INDEX IF NOT EXISTS uq_challenges_user_open ON challenges (user_id) " +
+            "WHERE status IN ('SUGGESTED', 'ACTIVE')");
+
+    private final JdbcTemplate jdbc;
+    private final boolean enabled;
+
+    public DatabaseIndexes(JdbcTemplate jdbc, @Value("${db.extra-indexes.enabled:true}") boolean enabled) {
+        this.jdbc = jdbc;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void create() {
+        if (!enabled || !isPostgres()) return;
+        for (String sql : STATEMENTS) {
+            try {
+                jdbc.execute(sql);
+            } catch (DataAccessException e) {
+                log.warn("Could not apply '{}', create it manually: {}", sql, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isPostgres() {
+        String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        return product != null && product.toLowerCase().contains("postgres");
+    }
+}
@@ -3,10 +3,8 @@ package com.project.thelittlethings.controller;
 import com.project.thelittlethings.dto.categories.CategoryResponse;
 import com.project.thelittlethings.dto.categories.CreateCategoryRequest;
 import com.project.thelittlethings.dto.categories.UpdateCategoryRequest;
-import com.project.thelittlethings.entities.User;
-import com.project.thelittlethings.security.HMACtokens;
+import com.project.thelittlethings.security.AuthPrincipal;
 import com.project.thelittlethings.services.CategoryService;
-import com.project.thelittlethings.services.UserService;
 
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -21,37 +19,21 @@ import java.util.List;
 public class CategoryController {
 
   private final CategoryService categoryService;
-  private final UserService userService;
 
-  public CategoryController(CategoryService categoryService, UserService userService) {
+  public CategoryController(CategoryService categoryService) {
     this.categoryService = categoryService;
-    this.userService = userService;
   }
 
-  // Extract userId from Authorization header
-  private Long userIdFromAuth(String authHeader) {
-    final String token = authHeader != null && authHeader.startsWith("Bearer ")
-        ? authHeader.substring(7)
-        : authHeader;
-
-    if (!HMACtokens.validateToken(token)) {
-      throw new IllegalArgumentException("Invalid or expired token");
-    }
-    final String username = HMACtokens.extractUsername(token);
-    if (username == null)
-      throw new IllegalArgumentException("Invalid token");
-
-    User u = userService.findByUsername(username);
-    if (u == null)
-      throw new IllegalArgumentException("User not found");
-    return u.getUserId();
+  // Authenticated user, resolved once per request by AuthFilter
+  private Long userIdFromAuth() {
+    return AuthPrincipal.current().userId();
   }
 
   // List all categories for the authenticated user
   @GetMapping
-  public ResponseEntity<?> list(@RequestHeader("Authorization") String auth) {
+  public ResponseEntity<?> list() {
     try {
-      Long userId = userIdFromAuth(auth);
+      Long userId = userIdFromAuth();
       List<CategoryResponse> categories = categoryService.listByUser(userId);
       return ResponseEntity.ok(categories);
     } catch (IllegalArgumentException ex) {
@@ -61,10 +43,9 @@ public class CategoryController {
 
   // Create a new category for the authenticated user
   @PostMapping
-  public ResponseEntity<?> create(@RequestHeader("Authorization") String auth,
-      @Valid @RequestBody CreateCategoryRequest req) {
+  public ResponseEntity<?> create(@Valid @RequestBody CreateCategoryRequest req) {
     try {
-      Long userId = userIdFromAuth(auth);
+      Long userId = userIdFromAuth();
       CategoryResponse created = categoryService.create(userId, req);
       return ResponseEntity
           .created(URI.create("/api/categories/" + created.getCategoryId()))
@@ -76,10 +57,9 @@ public class CategoryController {
 
   // Get details of a specific category owned by the authenticated user
   @GetMapping("/{id}")
-  public ResponseEntity<?> get(@RequestHeader("Authorization") String auth,
-      @PathVariable("id") Long id) {
+  public ResponseEntity<?> get(@PathVariable("id") Long id) {
     try {
-      Long userId = userIdFromAuth(auth);
+      Long userId = userIdFromAuth();
       CategoryResponse cat = categoryService.getOwned(id, userId);
       return ResponseEntity.ok(cat);
     } catch (IllegalArgumentException ex) {
@@ -89,11 +69,10 @@ public class CategoryController {
 
   // Update an existing category owned by the authenticated user
   @PutMapping("/{id}")
-  public ResponseEntity<?> update(@RequestHeader("Authorization") String auth,
-      @PathVariable("id") Long id,
+  public ResponseEntity<?> update(@PathVariable("id") Long id,
       @Valid @RequestBody UpdateCategoryRequest req) {
     try {
-      Long userId = userIdFromAuth(auth);
+      Long userId = userIdFromAuth();
       CategoryResponse updated = categoryService.update(id, userId, req);
       return ResponseEntity.ok(updated);
     } catch (IllegalArgumentException ex) {
@@ -103,10 +82,9 @@ public class CategoryController {
 
   // Delete a category owned by the authenticated user
   @DeleteMapping("/{id}")
-  public ResponseEntity<?> delete(@RequestHeader("Authorization") String auth,
-      @PathVariable("id") Long id) {
+  public ResponseEntity<?> delete(@PathVariable("id") Long id) {
     try {
-      Long userId = userIdFromAuth(auth);
+      Long userId = userIdFromAuth();
       categoryService.delete(id, userId);
       return ResponseEntity.noContent().build();
     } catch (IllegalArgumentException ex) {
@@ -114,12 +92,22 @@ public class CategoryController {
     }
   }
 
+  // Goal count, win count, trophies and last activity for each of the user's categories
+  @GetMapping("/stats")
+  public ResponseEntity<?> stats() {
+    try {
+      Long userId = userIdFromAuth();
+      return ResponseEntity.ok(categoryService.statsByUser(userId));
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+  }
+
   // Get neglected categories for the authenticated user
   @GetMapping("/neglected")
-  public ResponseEntity<?> neglected(@RequestHeader("Authorization") String auth,
-      @RequestParam(value = "days", required = false) Integer days) {
+  public ResponseEntity<?> neglected(@RequestParam(value = "days", required = false) Integer days) {
     try {
-      Long userId = userIdFromAuth(auth);
+      Long userId = userIdFromAuth();
       return ResponseEntity.ok(categoryService.getNeglectedCategories(userId, days));
     } catch (IllegalArgumentException ex) {
       return ResponseEntity.badRequest().body(ex.getMessage());
@@ -4,14 +4,19 @@ import com.project.thelittlethings.dto.friends.*;
 import com.project.thelittlethings.entities.FriendChallenge;
 import com.project.thelittlethings.entities.Friendship;
 import com.project.thelittlethings.entities.User;
-import com.project.thelittlethings.security.HMACtokens;
+import com.project.thelittlethings.View.FriendshipView;
+import com.project.thelittlethings.security.AuthPrincipal;
+import com.project.thelittlethings.security.StreamTickets;
+import com.project.thelittlethings.services.ActivityFeed;
 import com.project.thelittlethings.services.FriendService;
-import com.project.thelittlethings.services.UserService;
+import com.project.thelittlethings.services.NotificationHub;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/friends")
@@ -20,24 +25,20 @@ import java.util.List;
 public class FriendController {
 
     private final FriendService friendService;
-    private final UserService userService;
+    private final ActivityFeed activityFeed;
+    private final NotificationHub notificationHub;
 
-    private Long me(String auth) {
-        String token = auth.replaceFirst("Bearer ", "");
-        if (!HMACtokens.validateToken(token) || userService.isTokenBlacklisted(token))
-            throw new IllegalArgumentException("Unauthorized");
-        String username = HMACtokens.extractUsername(token);
-        User u = userService.findByUsername(username);
-        if (u == null) throw new IllegalArgumentException("User not found");
-        return u.getUserId();
+    // authenticated user, resolved once per request by AuthFilter
+    private Long me() {
+        return AuthPrincipal.current().userId();
     }
 
     /* -------- friendships -------- */
 
     @PostMapping("/requests")
-    public ResponseEntity<?> send(@RequestHeader("Authorization") String auth, @RequestBody FriendRequestDto dto) {
+    public ResponseEntity<?> send(@RequestBody FriendRequestDto dto) {
         try {
-            Long me = me(auth);
+            Long me = me();
             Friendship f = friendService.sendRequest(me, dto.getTargetUserId());
             return ResponseEntity.ok(toResponse(me, f));
         } catch (IllegalArgumentException e) {
@@ -46,9 +47,9 @@ public class FriendController {
     }
 
     @PostMapping("/requests/{otherUserId}/accept")
-    public ResponseEntity<?> accept(@RequestHeader("Authorization") String auth, @PathVariable Long otherUserId) {
+    public ResponseEntity<?> accept(@PathVariable Long otherUserId) {
         try {
-            Long me = me(auth);
+            Long me = me();
             Friendship f = friendService.accept(me, otherUserId);
             return ResponseEntity.ok(toResponse(me, f));
         } catch (IllegalArgumentException e) {
@@ -57,9 +58,9 @@ public class FriendController {
     }
 
     @PostMapping("/requests/{otherUserId}/decline")
-    public ResponseEntity<?> decline(@RequestHeader("Authorization") String auth, @PathVariable Long otherUserId) {
+    public ResponseEntity<?> decline(@PathVariable Long otherUserId) {
         try {
-            Long me = me(auth);
+            Long me = me();
             Friendship f = friendService.decline(me, otherUserId);
             return ResponseEntity.ok(toResponse(me, f));
         } catch (IllegalArgumentException e) {
@@ -68,9 +69,9 @@ public class FriendController {
     }
 
     @PostMapping("/requests/{otherUserId}/cancel")
-    public ResponseEntity<?> cancel(@RequestHeader("Authorization") String auth, @PathVariable Long otherUserId) {
+    public ResponseEntity<?> cancel(@PathVariable Long otherUserId) {
         try {
-            Long me = me(auth);
+            Long me = me();
             Friendship f = friendService.cancel(me, otherUserId);
             return ResponseEntity.ok(toResponse(me, f));
         } catch (IllegalArgumentException e) {
@@ -79,9 +80,9 @@ public class FriendController {
     }
 
     @DeleteMapping("/{friendUserId}")
-    public ResponseEntity<?> remove(@RequestHeader("Authorization") String auth, @PathVariable Long friendUserId) {
+    public ResponseEntity<?> remove(@PathVariable Long friendUserId) {
         try {
-            Long me = me(auth);
+            Long me = me();
             friendService.remove(me, friendUserId);
             return ResponseEntity.ok().build();
         } catch (IllegalArgumentException e) {
@@ -90,29 +91,85 @@ public class FriendController {
     }
 
     @GetMapping
-    public ResponseEntity<?> list(@RequestHeader("Authorization") String auth) {
+    public ResponseEntity<?> list(@RequestParam(defaultValue = "0") int page,
+                                  @RequestParam(defaultValue = "100") int size) {
         try {
-            Long me = me(auth);
-            List<FriendshipResponse> out = friendService.listAccepted(me).stream()
-                    .map(f -> toResponse(me, f)).toList();
+            Long me = me();
+            List<FriendshipResponse> out = friendService.listAccepted(me, page, size).stream()
+                    .map(r -> toResponse(me, r)).toList();
             return ResponseEntity.ok(out);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(401).body(e.getMessage());
         }
     }
 
+    // live friend request / challenge updates as server-sent events, replacing polling of the
+    // incoming, proposed and mine listings. EventSource can't send headers, so the stream is opened
+    // with ?ticket= from POST /stream/ticket instead of the bearer token.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> stream() {
+        try {
+            return ResponseEntity.ok(notificationHub.subscribe(me()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(401).body(e.getMessage());
+        }
+    }
+
+    // single-use ticket for opening /stream, valid for a few seconds
+    @PostMapping("/stream/ticket")
+    public ResponseEntity<?> streamTicket() {
+        try {
+            return ResponseEntity.ok(Map.of("ticket", StreamTickets.issue(AuthPrincipal.current().username())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(401).body(e.getMessage());
+        }
+    }
+
+    // friends' recent wins, newest first; pass the last winId back as `before` for the next page
+    @GetMapping("/feed")
+    public ResponseEntity<?> feed(@RequestParam(required = false) Long before,
+                                  @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(activityFeed.page(me(), before, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/suggestions")
+    public ResponseEntity<?> suggestions(@RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(friendService.suggestFriends(me(), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(401).body(e.getMessage());
+        }
+    }
+
     @GetMapping("/requests/incoming")
-    public ResponseEntity<?> incoming(@RequestHeader("Authorization") String auth) {
+    public ResponseEntity<?> incoming(@RequestParam(defaultValue = "0") int page,
+                                      @RequestParam(defaultValue = "100") int size) {
         try {
-            Long me = me(auth);
-            List<FriendshipResponse> out = friendService.pendingIncoming(me).stream()
-                    .map(f -> toResponse(me, f)).toList();
+            Long me = me();
+            List<FriendshipResponse> out = friendService.pendingIncoming(me, page, size).stream()
+                    .map(r -> toResponse(me, r)).toList();
             return ResponseEntity.ok(out);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(401).body(e.getMessage());
         }
     }
 
+    private FriendshipResponse toResponse(Long meId, FriendshipView r) {
+        return FriendshipResponse.builder()
+                .id(r.getId())
+                .friendId(r.getFriendId())
+                .friendUsername(r.getFriendUsername())
+                .friendTrophies(r.getFriendTrophies())
+                .status(r.getStatus().name().toLowerCase())
+                .outgoing(r.getRequestedById().equals(meId))
+                .requestedAt(r.getRequestedAt())
+                .build();
+    }
+
     private FriendshipResponse toResponse(Long meId, Friendship f) {
         User friend = f.getUserA().getUserId().equals(meId) ? f.getUserB() : f.getUserA();
         boolean outgoing = f.getRequestedBy().getUserId().equals(meId);
@@ -127,10 +184,9 @@ public class FriendController {
     }
 
     @PostMapping("/requests/by-username")
-    public ResponseEntity<?> sendByUsername(@RequestHeader("Authorization") String auth,
-                                            @RequestBody FriendRequestByUsernameDto dto) {
+    public ResponseEntity<?> sendByUsername(@RequestBody FriendRequestByUsernameDto dto) {
         try {
-            Long me = me(auth);
+            Long me = me();
             Friendship f = friendService.sendRequestByUsername(me, dto.getUsername());
             return ResponseEntity.ok(toResponse(me, f));
         } catch (IllegalArgumentException e) {
@@ -141,10 +197,9 @@ public class FriendController {
     /* -------- challenges -------- */
 
     @PostMapping("/challenges")
-    public ResponseEntity<?> createChallenge(@RequestHeader("Authorization") String auth,
-                                             @RequestBody ChallengeCreateDto dto) {
+    public ResponseEntity<?> createChallenge(@RequestBody ChallengeCreateDto dto) {
         try {
-            Long me = me(auth);
+            Long me = me();
             FriendChallenge fc = friendService.createChallenge(
                     me, dto.getOpponentId(), dto.getGoalList(), dto.getStartDate(), dto.getEndDate(), dto.getTrophiesStake());
             return ResponseEntity.ok(toChallenge(fc));
@@ -154,9 +209,9 @@ public class FriendController {
     }
 
     @PostMapping("/challenges/{id}/accept")
-    public ResponseEntity<?> acceptChallenge(@RequestHeader("Authorization") String auth, @PathVariable Long id) {
+    public ResponseEntity<?> acceptChallenge(@PathVariable Long id) {
         try {
-            Long me = me(auth);
+            Long me = me();
             FriendChallenge fc = friendService.acceptChallenge(me, id);
             return ResponseEntity.ok(toChallenge(fc));
         } catch (IllegalArgumentException e) {
@@ -165,9 +220,9 @@ public class FriendController {
     }
 
     @PostMapping("/challenges/{id}/decline")
-    public ResponseEntity<?> declineChallenge(@RequestHeader("Authorization") String auth, @PathVariable Long id) {
+    public ResponseEntity<?> declineChallenge(@PathVariable Long id) {
         try {
-            Long me = me(auth);
+            Long me = me();
             FriendChallenge fc = friendService.declineChallenge(me, id);
             return ResponseEntity.ok(toChallenge(fc));
         } catch (IllegalArgumentException e) {
@@ -176,11 +231,10 @@ public class FriendController {
     }
 
     @PostMapping("/challenges/{id}/complete")
-    public ResponseEntity<?> completeChallenge(@RequestHeader("Authorization") String auth,
-                                               @PathVariable Long id,
+    public ResponseEntity<?> completeChallenge(@PathVariable Long id,
                                                @RequestParam("winnerUserId") Long winnerUserId) {
         try {
-            Long me = me(auth); // validates token
+            Long me = me(); // validates token
             FriendChallenge fc = friendService.completeChallenge(winnerUserId, id);
             return ResponseEntity.ok(toChallenge(fc));
         } catch (IllegalArgumentException e) {
@@ -201,28 +255,37 @@ public class FriendController {
     }
 
     @GetMapping("/challenges/mine")
-    public ResponseEntity<?> myChallenges(@RequestHeader("Authorization") String auth) {
-        Long me = me(auth);
-        var list = friendService.myChallenges(me).stream()
-            .map(ChallengeResponse::fromEntity)
-            .toList();
-        return ResponseEntity.ok(list);
+    public ResponseEntity<?> myChallenges(@RequestParam(defaultValue = "0") int page,
+                                          @RequestParam(defaultValue = "100") int size) {
+        try {
+            Long me = me();
+            var list = friendService.myChallenges(me, page, size).stream()
+                .map(ChallengeResponse::fromEntity)
+                .toList();
+            return ResponseEntity.ok(list);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/challenges/proposed")
-    public ResponseEntity<?> proposedChallenges(@RequestHeader("Authorization") String auth) {
-        Long me = me(auth);
-        var list = friendService.proposedChallengesFor(me).stream()
-            .map(ChallengeResponse::fromEntity)
-            .toList();
-        return ResponseEntity.ok(list);
+    public ResponseEntity<?> proposedChallenges(@RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(defaultValue = "100") int size) {
+        try {
+            Long me = me();
+            var list = friendService.proposedChallengesFor(me, page, size).stream()
+                .map(ChallengeResponse::fromEntity)
+                .toList();
+            return ResponseEntity.ok(list);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PostMapping("/challenges/{id}/request-complete")
-    public ResponseEntity<?> requestComplete(@RequestHeader("Authorization") String auth,
-                                            @PathVariable Long id) {
+    public ResponseEntity<?> requestComplete(@PathVariable Long id) {
         try {
-            Long me = me(auth);
+            Long me = me();
             return ResponseEntity.ok(ChallengeResponse.fromEntity(friendService.requestCompletion(me, id)));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -230,10 +293,9 @@ public class FriendController {
     }
 
     @PostMapping("/challenges/{id}/confirm-complete")
-    public ResponseEntity<?> confirmComplete(@RequestHeader("Authorization") String auth,
-                                            @PathVariable Long id) {
+    public ResponseEntity<?> confirmComplete(@PathVariable Long id) {
         try {
-            Long me = me(auth);
+            Long me = me();
             return ResponseEntity.ok(ChallengeResponse.fromEntity(friendService.confirmCompletion(me, id)));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -241,10 +303,9 @@ public class FriendController {
     }
 
     @PostMapping("/challenges/{id}/reject-complete")
-    public ResponseEntity<?> rejectComplete(@RequestHeader("Authorization") String auth,
-                                            @PathVariable Long id) {
+    public ResponseEntity<?> rejectComplete(@PathVariable Long id) {
         try {
-            Long me = me(auth);
+            Long me = me();
             return ResponseEntity.ok(ChallengeResponse.fromEntity(friendService.rejectCompletion(me, id)));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
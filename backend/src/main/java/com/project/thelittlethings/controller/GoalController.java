@@ -1,12 +1,11 @@
 package com.project.thelittlethings.controller;
 
 import com.project.thelittlethings.dto.goals.CreateGoalRequest;
+import com.project.thelittlethings.dto.goals.GoalGroupPage;
 import com.project.thelittlethings.dto.goals.GoalResponse;
 import com.project.thelittlethings.dto.goals.UpdateGoalRequest;
-import com.project.thelittlethings.entities.User;
-import com.project.thelittlethings.security.HMACtokens;
+import com.project.thelittlethings.security.AuthPrincipal;
 import com.project.thelittlethings.services.GoalService;
-import com.project.thelittlethings.services.UserService;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
@@ -28,38 +27,22 @@ import java.util.Map;
 public class GoalController {
 
   private final GoalService goalService;
-  private final UserService userService;
 
-  public GoalController(GoalService goalService, UserService userService) {
+  public GoalController(GoalService goalService) {
     this.goalService = goalService;
-    this.userService = userService;
   }
 
-  // Extract and validate user ID from JWT token in Authorization header
-  private Long userIdFromAuth(String authHeader) {
-    final String token = (authHeader != null && authHeader.startsWith("Bearer "))
-        ? authHeader.substring(7)
-        : authHeader;
-
-    if (!HMACtokens.validateToken(token)) {
-      throw new IllegalArgumentException("Invalid or expired token");
-    }
-    final String username = HMACtokens.extractUsername(token);
-    if (username == null)
-      throw new IllegalArgumentException("Invalid token");
-    User u = userService.findByUsername(username);
-    if (u == null)
-      throw new IllegalArgumentException("User not found");
-    return u.getUserId();
+  // Authenticated user, resolved once per request by AuthFilter
+  private Long userIdFromAuth() {
+    return AuthPrincipal.current().userId();
   }
 
   // POST /api/goals - Create a new goal
   @PostMapping
-  public ResponseEntity<?> create(@RequestHeader("Authorization") String auth,
-      @Valid @RequestBody CreateGoalRequest req,
+  public ResponseEntity<?> create(@Valid @RequestBody CreateGoalRequest req,
       UriComponentsBuilder uri) {
     try {
-      Long userId = userIdFromAuth(auth);
+      Long userId = userIdFromAuth();
       GoalResponse created = goalService.create(userId, req);
       URI location = uri.path("/api/goals/{goalId}")
           .buildAndExpand(created.getGoalId())
@@ -72,10 +55,9 @@ public class GoalController {
 
   // GET /api/goals - List all goals or goals in a category
   @GetMapping
-  public ResponseEntity<?> list(@RequestHeader("Authorization") String auth,
-      @RequestParam(required = false) @Positive(message = "category must be valid") Long categoryId) {
+  public ResponseEntity<?> list(@RequestParam(required = false) @Positive(message = "category must be valid") Long categoryId) {
     try {
-      Long userId = userIdFromAuth(auth);
+      Long userId = userIdFromAuth();
       List<GoalResponse> out = (categoryId == null)
           ? goalService.listGoalsByUser(userId)
           : goalService.listGoalsByUserAndCategory(userId, categoryId);
@@ -87,11 +69,10 @@ public class GoalController {
 
   // GET /api/goals/grouped - List goals grouped by priority
   @GetMapping("/grouped")
-  public ResponseEntity<?> listGrouped(@RequestHeader("Authorization") String auth,
-      @RequestParam(required = false) @Positive(message = "category must be valid") Long categoryId,
+  public ResponseEntity<?> listGrouped(@RequestParam(required = false) @Positive(message = "category must be valid") Long categoryId,
       @RequestParam(required = false) @Pattern(regexp = "^(?i)(HIGH|MEDIUM|LOW)$", message = "priority must be HIGH, MEDIUM, or LOW") String priority) {
     try {
-      Long userId = userIdFromAuth(auth);
+      Long userId = userIdFromAuth();
       Map<String, List<GoalResponse>> grouped = goalService.listGrouped(userId, categoryId, priority);
       return ResponseEntity.ok(grouped);
     } catch (IllegalArgumentException ex) {
@@ -99,12 +80,26 @@ public class GoalController {
     }
   }
 
+  // GET /api/goals/grouped/page - Goals grouped by priority, each group paginated with its total count
+  @GetMapping("/grouped/page")
+  public ResponseEntity<?> listGroupedPage(@RequestParam(required = false) @Positive(message = "category must be valid") Long categoryId,
+      @RequestParam(required = false) @Pattern(regexp = "^(?i)(HIGH|MEDIUM|LOW)$", message = "priority must be HIGH, MEDIUM, or LOW") String priority,
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "20") int size) {
+    try {
+      Long userId = userIdFromAuth();
+      Map<String, GoalGroupPage> grouped = goalService.listGroupedPage(userId, categoryId, priority, page, size);
+      return ResponseEntity.ok(grouped);
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+  }
+
   // GET /api/goals/{goalId} - Get details of a specific goal
   @GetMapping("/{goalId}")
-  public ResponseEntity<?> getOne(@RequestHeader("Authorization") String auth,
-      @PathVariable @Positive(message = "goalId must be positive") Long goalId) {
+  public ResponseEntity<?> getOne(@PathVariable @Positive(message = "goalId must be positive") Long goalId) {
     try {
-      Long userId = userIdFromAuth(auth);
+      Long userId = userIdFromAuth();
       return ResponseEntity.ok(goalService.getOwnedGoal(goalId, userId));
     } catch (IllegalArgumentException ex) {
       return ResponseEntity.badRequest().body(ex.getMessage());
@@ -113,11 +108,10 @@ public class GoalController {
 
   // PUT /api/goals/{goalId} - Update an existing goal
   @PutMapping("/{goalId}")
-  public ResponseEntity<?> update(@RequestHeader("Authorization") String auth,
-      @PathVariable @Positive(message = "goalId must be positive") Long goalId,
+  public ResponseEntity<?> update(@PathVariable @Positive(message = "goalId must be positive") Long goalId,
       @Valid @RequestBody UpdateGoalRequest req) {
     try {
-      Long userId = userIdFromAuth(auth);
+      Long userId = userIdFromAuth();
       return ResponseEntity.ok(goalService.updateGoal(goalId, userId, req));
     } catch (IllegalArgumentException ex) {
       return ResponseEntity.badRequest().body(ex.getMessage());
@@ -126,10 +120,9 @@ public class GoalController {
 
   // DELETE /api/goals/{goalId} - Delete a specific goal
   @DeleteMapping("/{goalId}")
-  public ResponseEntity<?> delete(@RequestHeader("Authorization") String auth,
-      @PathVariable @Positive(message = "goalId must be positive") Long goalId) {
+  public ResponseEntity<?> delete(@PathVariable @Positive(message = "goalId must be positive") Long goalId) {
     try {
-      Long userId = userIdFromAuth(auth);
+      Long userId = userIdFromAuth();
       goalService.delete(goalId, userId);
       return ResponseEntity.noContent().build();
     } catch (IllegalArgumentException ex) {
@@ -139,10 +132,9 @@ public class GoalController {
 
   // POST /api/goals/{goalId}/complete - Mark a goal as complete
   @PostMapping("/{goalId}/complete")
-  public ResponseEntity<?> complete(@RequestHeader("Authorization") String auth,
-      @PathVariable @Positive(message = "goalId must be positive") Long goalId) {
+  public ResponseEntity<?> complete(@PathVariable @Positive(message = "goalId must be positive") Long goalId) {
     try {
-      Long userId = userIdFromAuth(auth);
+      Long userId = userIdFromAuth();
       goalService.getOwnedGoal(goalId, userId);
       goalService.completeGoal(goalId);
       return ResponseEntity.ok("Goal completed and Win recorded.");
@@ -5,8 +5,7 @@ import com.project.thelittlethings.dto.journals.UpdateJournalRequest;
 import com.project.thelittlethings.dto.journals.JournalResponse;
 import com.project.thelittlethings.entities.Win;
 import com.project.thelittlethings.services.JournalService;
-import com.project.thelittlethings.services.UserService;
-import com.project.thelittlethings.security.HMACtokens;
+import com.project.thelittlethings.security.AuthPrincipal;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,17 +19,14 @@ import java.util.List;
 public class JournalController {
 
     private final JournalService journalService;
-    private final UserService userService;
 
-    public JournalController(JournalService journalService, UserService userService) {
+    public JournalController(JournalService journalService) {
         this.journalService = journalService;
-        this.userService = userService;
     }
 
     //endpoint to create new journal entry
     @PostMapping
-    public ResponseEntity<?> createJournal(@RequestHeader("Authorization") String token,
-                                         @RequestBody CreateJournalRequest request) {
+    public ResponseEntity<?> createJournal(@RequestBody CreateJournalRequest request) {
         try {
             // validation
             if (request == null) {
@@ -43,7 +39,7 @@ public class JournalController {
                 return ResponseEntity.badRequest().body("Content is required");
             }
             
-            Long userId = getUserIdFromAuthToken(token);
+            Long userId = getUserIdFromAuthToken();
             JournalResponse journal = journalService.createJournal(userId, request);
             return ResponseEntity.ok(journal);
         } catch (Exception e) {
@@ -52,10 +48,9 @@ public class JournalController {
     }
 
     @GetMapping("/{journalId}")
-    public ResponseEntity<?> getJournal(@RequestHeader("Authorization") String token,
-                                       @PathVariable Long journalId) {
+    public ResponseEntity<?> getJournal(@PathVariable Long journalId) {
         try {
-            Long userId = getUserIdFromAuthToken(token);
+            Long userId = getUserIdFromAuthToken();
             JournalResponse journal = journalService.getJournal(journalId, userId);
             return ResponseEntity.ok(journal);
         } catch (Exception e) {
@@ -64,10 +59,9 @@ public class JournalController {
     }
 
     @GetMapping
-    public ResponseEntity<?> getAllJournals(@RequestHeader("Authorization") String token,
-                                          @RequestParam(value = "sort", defaultValue = "date") String sortBy) {
+    public ResponseEntity<?> getAllJournals(@RequestParam(value = "sort", defaultValue = "date") String sortBy) {
         try {
-            Long userId = getUserIdFromAuthToken(token);
+            Long userId = getUserIdFromAuthToken();
             List<JournalResponse> journals = journalService.getAllJournals(userId, sortBy);
             return ResponseEntity.ok(journals);
         } catch (Exception e) {
@@ -76,8 +70,7 @@ public class JournalController {
     }
 
     @PutMapping("/{journalId}")
-    public ResponseEntity<?> updateJournal(@RequestHeader("Authorization") String token,
-                                         @PathVariable Long journalId,
+    public ResponseEntity<?> updateJournal(@PathVariable Long journalId,
                                          @RequestBody UpdateJournalRequest request) {
         try {
             // check inputs to avoid crashes
@@ -91,7 +84,7 @@ public class JournalController {
                 return ResponseEntity.badRequest().body("Title is required");
             }
             
-            Long userId = getUserIdFromAuthToken(token);
+            Long userId = getUserIdFromAuthToken();
             JournalResponse journal = journalService.updateJournal(journalId, userId, request);
             return ResponseEntity.ok(journal);
         } catch (Exception e) {
@@ -100,14 +93,13 @@ public class JournalController {
     }
 
     @DeleteMapping("/{journalId}")
-    public ResponseEntity<?> deleteJournal(@RequestHeader("Authorization") String token,
-                                         @PathVariable Long journalId) {
+    public ResponseEntity<?> deleteJournal(@PathVariable Long journalId) {
         try {
             if (journalId == null || journalId <= 0) {
                 return ResponseEntity.badRequest().body("Invalid journal ID");
             }
             
-            Long userId = getUserIdFromAuthToken(token);
+            Long userId = getUserIdFromAuthToken();
             journalService.deleteJournal(journalId, userId);
             return ResponseEntity.ok("Deleted");
         } catch (Exception e) {
@@ -116,9 +108,9 @@ public class JournalController {
     }
 
     @GetMapping("/wins")
-    public ResponseEntity<?> getUserWins(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getUserWins() {
         try {
-            Long userId = getUserIdFromAuthToken(token);
+            Long userId = getUserIdFromAuthToken();
             List<Win> wins = journalService.getUserWins(userId);
             return ResponseEntity.ok(wins);
         } catch (Exception e) {
@@ -126,25 +118,8 @@ public class JournalController {
         }
     }
 
-    // helper method to extract user ID from HMAC token
-
-    private Long getUserIdFromAuthToken(String authHeader) {
-        String token = authHeader.startsWith("Bearer ") ? authHeader.substring(7) : authHeader;
-        
-        if (!HMACtokens.validateToken(token)) {
-            throw new IllegalArgumentException("Invalid or expired token");
-        }
-        
-        String username = HMACtokens.extractUsername(token);
-        if (username == null) {
-            throw new IllegalArgumentException("Invalid token");
-        }
-        
-        var user = userService.findByUsername(username);
-        if (user == null) {
-            throw new IllegalArgumentException("User not found");
-        }
-        
-        return user.getUserId();
+    // helper method returning the user resolved by AuthFilter for this request
+    private Long getUserIdFromAuthToken() {
+        return AuthPrincipal.current().userId();
     }
 }
@@ -1,6 +1,10 @@
 package com.project.thelittlethings.controller;
 
+import com.project.thelittlethings.dto.leaderboard.FriendsLeaderboardPage;
+import com.project.thelittlethings.dto.leaderboard.LeaderboardPage;
+import com.project.thelittlethings.dto.leaderboard.LeaderboardRankResponse;
 import com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO;
+import com.project.thelittlethings.security.AuthPrincipal;
 import com.project.thelittlethings.services.LeaderboardService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -24,4 +28,32 @@ public class LeaderboardController {
 
         return leaderboardService.getLeaderboard(region, page, size);
     }
-}
\ No newline at end of file
+
+    // Keyset pagination: pass back nextCursor from the previous page (omit it for the first page)
+    @GetMapping("/cursor")
+    public LeaderboardPage getLeaderboardPage(
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        return leaderboardService.getLeaderboardPage(region, cursor, size);
+    }
+
+    // A user's rank (global + regional) and the users just above and below them
+    @GetMapping("/rank/{userId}")
+    public LeaderboardRankResponse getRank(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "5") int radius) {
+
+        return leaderboardService.getRankAround(userId, radius);
+    }
+
+    // The caller's accepted friends (and the caller) ranked by trophies
+    @GetMapping("/friends")
+    public FriendsLeaderboardPage getFriendsLeaderboard(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        return leaderboardService.getFriendsLeaderboard(AuthPrincipal.current().userId(), page, size);
+    }
+}
@@ -2,6 +2,7 @@ package com.project.thelittlethings.controller;
 
 import com.project.thelittlethings.entities.User;
 import com.project.thelittlethings.dto.users.*;
+import com.project.thelittlethings.security.AuthPrincipal;
 import com.project.thelittlethings.services.UserService;
 import com.project.thelittlethings.security.HMACtokens;
 import org.springframework.http.ResponseEntity;
@@ -76,6 +77,17 @@ public class UserController {
         return ResponseEntity.ok().build();
     }
 
+    // username autocomplete for friend lookup
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam("q") String q, @RequestParam(defaultValue = "10") int limit) {
+        try {
+            Long me = AuthPrincipal.current().userId();
+            return ResponseEntity.ok(userService.searchUsernames(q, limit, me));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(401).build();
+        }
+    }
+
     // gets current user info from token
     @GetMapping("/me")
     public ResponseEntity<?> me(@RequestHeader("Authorization") String auth) {
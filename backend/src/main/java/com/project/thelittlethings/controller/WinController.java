@@ -1,11 +1,10 @@
 package com.project.thelittlethings.controller;
 
+import com.project.thelittlethings.dto.wins.BatchWinResponse;
 import com.project.thelittlethings.dto.wins.CreateWinRequest;
 import com.project.thelittlethings.dto.wins.UpdateWinRequest;
 import com.project.thelittlethings.dto.wins.WinResponse;
-import com.project.thelittlethings.entities.User;
-import com.project.thelittlethings.security.HMACtokens;
-import com.project.thelittlethings.services.UserService;
+import com.project.thelittlethings.security.AuthPrincipal;
 import com.project.thelittlethings.services.WinService;
 
 import org.springframework.web.util.UriComponentsBuilder;
@@ -21,40 +20,21 @@ import java.util.List;
 public class WinController {
 
     private final WinService service;
-    private final UserService userService;
 
-    public WinController(WinService service, UserService userService) {
+    public WinController(WinService service) {
         this.service = service;
-        this.userService = userService;
     }
 
-    // Shared private method to extract user ID from JWT
-    private Long userIdFromAuth(String authHeader) {
-        final String token = (authHeader != null && authHeader.startsWith("Bearer "))
-                ? authHeader.substring(7)
-                : authHeader;
-
-        if (!HMACtokens.validateToken(token)) {
-            throw new IllegalArgumentException("Invalid or expired token");
-        }
-
-        final String username = HMACtokens.extractUsername(token);
-        if (username == null)
-            throw new IllegalArgumentException("Invalid token");
-
-        User u = userService.findByUsername(username);
-        if (u == null)
-            throw new IllegalArgumentException("User not found");
-
-        return u.getUserId();
+    // Authenticated user, resolved once per request by AuthFilter
+    private Long userIdFromAuth() {
+        return AuthPrincipal.current().userId();
     }
 
     // Create Win
     @PostMapping
-    public ResponseEntity<WinResponse> create(@RequestHeader("Authorization") String auth,
-            @RequestBody CreateWinRequest req,
+    public ResponseEntity<WinResponse> create(@RequestBody CreateWinRequest req,
             UriComponentsBuilder uri) {
-        Long userId = userIdFromAuth(auth);
+        Long userId = userIdFromAuth();
 
         req.setUserId(userId);
 
@@ -67,35 +47,39 @@ public class WinController {
         return ResponseEntity.created(location).body(created);
     }
 
+    // Create many wins at once (offline sync); per-item results in request order
+    @PostMapping("/batch")
+    public ResponseEntity<BatchWinResponse> createBatch(@RequestBody List<CreateWinRequest> reqs) {
+        Long userId = userIdFromAuth();
+        return ResponseEntity.ok(service.createWins(userId, reqs));
+    }
+
     // List all wins
     @GetMapping
-    public ResponseEntity<List<WinResponse>> list(@RequestHeader("Authorization") String auth) {
-        Long userId = userIdFromAuth(auth);
+    public ResponseEntity<List<WinResponse>> list() {
+        Long userId = userIdFromAuth();
         return ResponseEntity.ok(service.listWinsByUser(userId));
     }
 
     // Get one win
     @GetMapping("/{id}")
-    public ResponseEntity<WinResponse> get(@RequestHeader("Authorization") String auth,
-            @PathVariable Long id) {
-        Long userId = userIdFromAuth(auth);
+    public ResponseEntity<WinResponse> get(@PathVariable Long id) {
+        Long userId = userIdFromAuth();
         return ResponseEntity.ok(service.getWinById(id, userId));
     }
 
     // Update win
     @PutMapping("/{id}")
-    public ResponseEntity<WinResponse> update(@RequestHeader("Authorization") String auth,
-            @PathVariable Long id,
+    public ResponseEntity<WinResponse> update(@PathVariable Long id,
             @RequestBody UpdateWinRequest req) {
-        Long userId = userIdFromAuth(auth);
+        Long userId = userIdFromAuth();
         return ResponseEntity.ok(service.updateWin(id, userId, req));
     }
 
     // Delete win
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@RequestHeader("Authorization") String auth,
-            @PathVariable Long id) {
-        Long userId = userIdFromAuth(auth);
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        Long userId = userIdFromAuth();
         service.deleteWin(id, userId);
         return ResponseEntity.noContent().build();
     }
@@ -0,0 +1,28 @@
+package com.project.thelittlethings.dto.categories;
+
+import lombok.*;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryStats {
+
+  // Per-category figures for the categories page, built by one grouped query
+
+  private Long categoryId;
+  private String name;
+  private long goalCount;
+  private long winCount;
+  private long trophies;
+  private Instant lastActivity; // latest win, or when the category was created if it has none
+
+  // projection constructor used by CategoryRepository.findStatsByUserId
+  public CategoryStats(Long categoryId, String name, long goalCount, long winCount, long trophies,
+      OffsetDateTime lastWinAt, Instant createdAt) {
+    this(categoryId, name, goalCount, winCount, trophies,
+        lastWinAt != null ? lastWinAt.toInstant() : createdAt);
+  }
+}
@@ -0,0 +1,16 @@
+package com.project.thelittlethings.dto.friends;
+
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+// One friend win in the activity feed; newest first, winId doubles as the paging cursor
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class FeedItem {
+    private Long winId;
+    private Long userId;
+    private String username;
+    private String title;
+    private Integer numTrophies;
+    private OffsetDateTime completionDate;
+}
@@ -0,0 +1,21 @@
+package com.project.thelittlethings.dto.friends;
+
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+// Pushed over /api/friends/stream; `type` is also the SSE event name, refId the friendship or challenge id
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class FriendNotification {
+    public static final String FRIEND_REQUEST = "friend_request";
+    public static final String FRIEND_ACCEPTED = "friend_accepted";
+    public static final String CHALLENGE_PROPOSED = "challenge_proposed";
+    public static final String CHALLENGE_ACCEPTED = "challenge_accepted";
+    public static final String CHALLENGE_COMPLETION_REQUESTED = "challenge_completion_requested";
+    public static final String CHALLENGE_COMPLETED = "challenge_completed";
+
+    private String type;
+    private Long refId;
+    private Long fromUserId;
+    private OffsetDateTime at;
+}
@@ -0,0 +1,14 @@
+package com.project.thelittlethings.dto.friends;
+
+import lombok.*;
+
+// "People you may know" entry: a friend of a friend, ranked by mutual friends then region
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class FriendSuggestion {
+    private Long userId;
+    private String username;
+    private String region;
+    private Integer trophies;
+    private int mutualFriends;
+    private boolean sameRegion;
+}
@@ -10,4 +10,5 @@ public class FriendshipResponse {
     private String status;
     private boolean outgoing;
     private OffsetDateTime requestedAt;
+    private Integer friendTrophies;
 }
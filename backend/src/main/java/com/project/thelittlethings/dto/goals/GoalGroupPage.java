@@ -0,0 +1,17 @@
+package com.project.thelittlethings.dto.goals;
+
+import lombok.*;
+
+import java.util.List;
+
+// One priority group of the paginated grouped listing; total counts the whole group, not just this page
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GoalGroupPage {
+    private String priority;
+    private long total;
+    private int page;
+    private int size;
+    private List<GoalResponse> goals;
+}
@@ -0,0 +1,17 @@
+package com.project.thelittlethings.dto.leaderboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// One page of the caller's friends leaderboard; `me` is the caller's own row wherever it falls
+@Data
+@AllArgsConstructor
+public class FriendsLeaderboardPage {
+    private RankedUserDTO me;
+    private Integer total;
+    private Integer page;
+    private Integer size;
+    private List<RankedUserDTO> users;
+}
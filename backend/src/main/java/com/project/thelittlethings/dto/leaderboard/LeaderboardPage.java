@@ -0,0 +1,14 @@
+package com.project.thelittlethings.dto.leaderboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// One keyset page of the leaderboard; nextCursor is null on the last page
+@Data
+@AllArgsConstructor
+public class LeaderboardPage {
+    private List<LeaderboardUserDTO> users;
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.project.thelittlethings.dto.leaderboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Where a user stands: global + regional rank and the users directly around them on the global board
+@Data
+@AllArgsConstructor
+public class LeaderboardRankResponse {
+    private Long userId;
+    private String username;
+    private String region;
+    private Integer trophies;
+    private Integer globalRank;
+    private Integer regionalRank;   // null when the user has no region
+    private List<RankedUserDTO> above; // both lists in leaderboard order (best first)
+    private List<RankedUserDTO> below;
+}
@@ -0,0 +1,15 @@
+package com.project.thelittlethings.dto.leaderboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Leaderboard row with its 1-based position
+@Data
+@AllArgsConstructor
+public class RankedUserDTO {
+    private Integer rank;
+    private Long userId;
+    private String username;
+    private String region;
+    private Integer trophies;
+}
@@ -0,0 +1,18 @@
+package com.project.thelittlethings.dto.users;
+
+// one username autocomplete hit
+public class UserSearchResult {
+    private Long userId;
+    private String username;
+
+    public UserSearchResult() {}
+    public UserSearchResult(Long userId, String username) {
+        this.userId = userId; this.username = username;
+    }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+}
@@ -0,0 +1,15 @@
+package com.project.thelittlethings.dto.wins;
+
+import java.util.List;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchWinResponse {
+    private List<BatchWinResult> results;
+    private Integer created;
+    private Integer trophiesAdded;
+    private Integer totalTrophies;
+}
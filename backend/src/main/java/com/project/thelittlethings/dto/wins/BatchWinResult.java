@@ -0,0 +1,13 @@
+package com.project.thelittlethings.dto.wins;
+
+import lombok.*;
+
+// Outcome of one item in a batch, matched to the request by its index
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchWinResult {
+    private Integer index;
+    private Long winId;       // null when the item failed
+    private String error;     // null when the item was created
+}
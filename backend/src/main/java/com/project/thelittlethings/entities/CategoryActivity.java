@@ -0,0 +1,45 @@
+package com.project.thelittlethings.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.OffsetDateTime;
+
+// Activity summary for one category, kept current as wins are recorded or deleted
+@Entity
+@Table(name = "category_activity", indexes = {
+    // neglected categories: a range scan over one user's last_activity
+    @Index(name = "idx_category_activity_user_last", columnList = "user_id, last_activity")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryActivity {
+
+  @Id
+  @Column(name = "category_id")
+  private Long categoryId;
+
+  @OneToOne(fetch = FetchType.LAZY, optional = false)
+  @MapsId
+  @JoinColumn(name = "category_id", foreignKey = @ForeignKey(name = "fk_category_activity_category"))
+  @OnDelete(action = OnDeleteAction.CASCADE)
+  private Category category;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  // latest win, or the category's creation time if it has none
+  @Column(name = "last_activity", nullable = false)
+  private OffsetDateTime lastActivity;
+
+  @Column(name = "win_count", nullable = false)
+  private long winCount;
+
+  // wins in the last CategoryActivityTracker.RECENT_DAYS days, as of the last daily roll-over
+  @Column(name = "recent_wins", nullable = false, columnDefinition = "integer default 0")
+  private int recentWins;
+}
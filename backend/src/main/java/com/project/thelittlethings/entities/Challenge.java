@@ -5,7 +5,12 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "challenges")
+@Table(name = "challenges", indexes = {
+    // "does this user already have an open challenge" checks (on-demand and nightly generation)
+    @Index(name = "idx_challenges_user_status", columnList = "user_id, status")
+})
+// at most one SUGGESTED/ACTIVE challenge per user: partial unique index uq_challenges_user_open,
+// created by config.DatabaseIndexes
 public class Challenge {
 
     @Id
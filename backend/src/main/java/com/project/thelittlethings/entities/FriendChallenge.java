@@ -6,7 +6,13 @@ import java.time.LocalDate;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "friend_challenges")
+@Table(name = "friend_challenges", indexes = {
+    // expiry sweep: open challenges past their end date, walked by id
+    @Index(name = "idx_fc_status_end_id", columnList = "status, end_date, id"),
+    // per-user challenge listings
+    @Index(name = "idx_fc_challenger_status", columnList = "challenger_id, status"),
+    @Index(name = "idx_fc_opponent_status", columnList = "opponent_id, status")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class FriendChallenge {
 
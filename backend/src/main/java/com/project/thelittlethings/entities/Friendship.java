@@ -7,7 +7,12 @@ import java.time.OffsetDateTime;
 @Entity
 @Table(
     name = "friendships",
-    uniqueConstraints = @UniqueConstraint(name = "uq_friend_pair", columnNames = {"userA_id","userB_id"})
+    uniqueConstraints = @UniqueConstraint(name = "uq_friend_pair", columnNames = {"userA_id","userB_id"}),
+    indexes = {
+        // "friends of X" / "pending for X" probe each side of the canonical pair
+        @Index(name = "idx_friendships_usera_status", columnList = "userA_id, status"),
+        @Index(name = "idx_friendships_userb_status", columnList = "userB_id, status")
+    }
 )
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Friendship {
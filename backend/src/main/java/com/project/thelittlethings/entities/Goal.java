@@ -8,7 +8,12 @@ import lombok.*;
 
 // Entity class representing a goal in the system
 @Entity
-@Table(name = "goals")
+@Table(name = "goals", indexes = {
+    // grouped listing: one priority of a user's goals, newest first
+    @Index(name = "idx_goals_user_priority_created", columnList = "user_id, priority, created_at DESC"),
+    // category activity refresh: the goals of one category
+    @Index(name = "idx_goals_category", columnList = "category_id")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
 public class Goal {
 
@@ -0,0 +1,18 @@
+package com.project.thelittlethings.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// A logged-out token, kept until its own expiry so restarts and other instances still reject it
+@Entity
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_expires", columnList = "expires_at"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class RevokedToken {
+  @Id
+  @Column(length = 512)
+  private String token;
+
+  // epoch seconds, same clock as the expiry embedded in the token
+  @Column(name = "expires_at", nullable = false)
+  private Long expiresAt;
+}
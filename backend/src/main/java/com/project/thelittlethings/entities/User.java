@@ -1,6 +1,7 @@
 package com.project.thelittlethings.entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
@@ -11,7 +12,13 @@ import java.time.OffsetDateTime;
 import java.time.Period;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    // keyset pagination for the leaderboard (global and per region)
+    @Index(name = "idx_users_trophies_user", columnList = "trophies DESC, user_id"),
+    @Index(name = "idx_users_region_trophies_user", columnList = "region, trophies DESC, user_id")
+})
+// only changed columns are written, so a profile save can't clobber trophies set by the ledger
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -46,7 +53,9 @@ public class User {
   private String gender;
   private Integer streaks;
   private String region;
-  private Integer trophies;
+  // never null: NULLs would sort first and break the leaderboard seek predicate
+  @Column(nullable = false)
+  private Integer trophies = 0;
 
   @Column(columnDefinition = "TEXT")
   private String avatarUrl;
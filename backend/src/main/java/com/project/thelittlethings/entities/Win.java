@@ -5,7 +5,12 @@ import lombok.*;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "wins")
+@Table(name = "wins", indexes = {
+    // per-user wins newest first (friend feed, listings)
+    @Index(name = "idx_wins_user_win", columnList = "user_id, win_id DESC"),
+    // latest win per goal (category activity refresh)
+    @Index(name = "idx_wins_goal_completion", columnList = "goal_id, completion_date")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
 public class Win {
   @Id
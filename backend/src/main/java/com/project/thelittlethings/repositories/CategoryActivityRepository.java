@@ -0,0 +1,91 @@
+package com.project.thelittlethings.repositories;
+
+import com.project.thelittlethings.entities.CategoryActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+
+public interface CategoryActivityRepository extends JpaRepository<CategoryActivity, Long> {
+
+    // Incremental path for new wins: bumps the goal's category in one upsert, no aggregate.
+    // `recent` is how many of the `wins` fall inside the recent window.
+    @Modifying
+    @Transactional
+    @Query(value = """
+      INSERT INTO category_activity (category_id, user_id, last_activity, win_count, recent_wins)
+      SELECT c.category_id, c.user_id, :at, :wins, :recent
+      FROM goals g JOIN categories c ON c.category_id = g.category_id AND c.user_id = g.user_id
+      WHERE g.goal_id = :goalId
+      ON CONFLICT (category_id) DO UPDATE SET
+        last_activity = GREATEST(category_activity.last_activity, EXCLUDED.last_activity),
+        win_count     = category_activity.win_count + EXCLUDED.win_count,
+        recent_wins   = category_activity.recent_wins + EXCLUDED.recent_wins
+      """, nativeQuery = true)
+    int recordWins(@Param("goalId") Long goalId, @Param("at") OffsetDateTime at, @Param("wins") int wins,
+                   @Param("recent") int recent);
+
+    // Recomputes the given categories from their wins (after a delete or a goal moving category).
+    // Uses the same rules the old neglected-categories aggregate did.
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = """
+      INSERT INTO category_activity (category_id, user_id, last_activity, win_count, recent_wins)
+      SELECT c.category_id, c.user_id, COALESCE(MAX(w.completion_date), c.created_at), COUNT(w.win_id),
+             COUNT(w.win_id) FILTER (WHERE w.completion_date >= NOW() - CAST(:recentDays || ' days' AS interval))
+      FROM categories c
+      LEFT JOIN goals g ON g.category_id = c.category_id AND g.user_id = c.user_id
+      LEFT JOIN wins  w ON w.goal_id     = g.goal_id     AND w.user_id = c.user_id AND w.completion_date IS NOT NULL
+      WHERE c.category_id IN (:categoryIds)
+      GROUP BY c.category_id, c.user_id, c.created_at
+      ON CONFLICT (category_id) DO UPDATE SET
+        last_activity = EXCLUDED.last_activity,
+        win_count     = EXCLUDED.win_count,
+        recent_wins   = EXCLUDED.recent_wins
+      """, nativeQuery = true)
+    int refresh(@Param("categoryIds") Collection<Long> categoryIds, @Param("recentDays") int recentDays);
+
+    // Daily roll-over of the recent window: recounts only the categories that still have recent wins,
+    // since those are the only ones whose count can drop as the window moves.
+    @Modifying
+    @Transactional
+    @Query(value = """
+      UPDATE category_activity a SET recent_wins = (
+        SELECT COUNT(w.win_id)
+        FROM goals g
+        JOIN wins w ON w.goal_id = g.goal_id AND w.user_id = a.user_id
+        WHERE g.category_id = a.category_id AND g.user_id = a.user_id
+          AND w.completion_date >= NOW() - CAST(:recentDays || ' days' AS interval))
+      WHERE a.recent_wins > 0
+      """, nativeQuery = true)
+    int rollRecentWins(@Param("recentDays") int recentDays);
+
+    // When the next still-active category of the user becomes neglected (epoch seconds), null if none.
+    // Lets cached neglected-category results expire exactly when they would change.
+    @Query(value = """
+      SELECT CAST(EXTRACT(EPOCH FROM MIN(last_activity) + CAST(:days || ' days' AS interval)) AS bigint)
+      FROM category_activity
+      WHERE user_id = :userId AND last_activity >= NOW() - CAST(:days || ' days' AS interval)
+      """, nativeQuery = true)
+    Long findNextNeglectEpoch(@Param("userId") Long userId, @Param("days") int days);
+
+    // One-off fill for categories that have no summary row yet (existing data, first start after deploy)
+    @Modifying
+    @Transactional
+    @Query(value = """
+      INSERT INTO category_activity (category_id, user_id, last_activity, win_count, recent_wins)
+      SELECT c.category_id, c.user_id, COALESCE(MAX(w.completion_date), c.created_at), COUNT(w.win_id),
+             COUNT(w.win_id) FILTER (WHERE w.completion_date >= NOW() - CAST(:recentDays || ' days' AS interval))
+      FROM categories c
+      LEFT JOIN goals g ON g.category_id = c.category_id AND g.user_id = c.user_id
+      LEFT JOIN wins  w ON w.goal_id     = g.goal_id     AND w.user_id = c.user_id AND w.completion_date IS NOT NULL
+      WHERE NOT EXISTS (SELECT 1 FROM category_activity a WHERE a.category_id = c.category_id)
+      GROUP BY c.category_id, c.user_id, c.created_at
+      ON CONFLICT (category_id) DO NOTHING
+      """, nativeQuery = true)
+    int backfillMissing(@Param("recentDays") int recentDays);
+}
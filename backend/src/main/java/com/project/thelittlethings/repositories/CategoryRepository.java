@@ -5,6 +5,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.project.thelittlethings.MaterialisedView.CategoryNeglectedView;
+import com.project.thelittlethings.dto.categories.CategoryResponse;
+import com.project.thelittlethings.dto.categories.CategoryStats;
 import com.project.thelittlethings.View.CategoryNeglectView;
 import com.project.thelittlethings.entities.Category;
 import com.project.thelittlethings.entities.User;
@@ -17,6 +19,20 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     // Returns all categories for a given user
     List<Category> findByUser_UserId(Long userId);
 
+    // Same listing as a DTO projection: one statement, only the returned columns
+    @Query("SELECT new com.project.thelittlethings.dto.categories.CategoryResponse(c.categoryId, c.user.userId, " +
+           "c.name, c.description, c.createdAt, c.updatedAt) FROM Category c WHERE c.user.userId = :userId")
+    List<CategoryResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    // Goal count, win count, trophies and last activity for every category of the user, in one grouped
+    // statement (instead of a goal count plus a walk over the wins per category)
+    @Query("SELECT new com.project.thelittlethings.dto.categories.CategoryStats(c.categoryId, c.name, " +
+           "COUNT(DISTINCT g.goalId), COUNT(w.winId), COALESCE(SUM(w.numTrophies), 0L), MAX(w.completionDate), c.createdAt) " +
+           "FROM Category c LEFT JOIN Goal g ON g.category = c LEFT JOIN Win w ON w.goal = g " +
+           "WHERE c.user.userId = :userId " +
+           "GROUP BY c.categoryId, c.name, c.createdAt ORDER BY c.name")
+    List<CategoryStats> findStatsByUserId(@Param("userId") Long userId);
+
     // Checks if a category with the given name exists for the specified user
     boolean existsByUser_UserIdAndName(Long userId, String name);
 
@@ -25,10 +41,10 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
 
     // Returns all categories for a user that are considered "neglected".
-    // A category is neglected if:
-    //   1) It has no wins within the last :days interval, AND
-    //   2) Its last activity (latest win OR creation date if no wins exist)
-    //      is older than :days.
+    // A category is neglected if its last activity (latest win OR creation date if no wins exist)
+    // is older than :days, which also means it has no wins within the window.
+    // Last activity comes from category_activity, so this is a range scan on
+    // idx_category_activity_user_last rather than an aggregate over goals and wins.
     // For each neglected category, we return:
     //   - Basic info (id, userId, name, description)
     //   - lastWinAt  → timestamp of last activity
@@ -40,24 +56,13 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
         c.user_id     AS userId,
         c.name        AS name,
         c.description AS description,
-        COALESCE(MAX(w.completion_date), c.created_at) AS lastWinAt,
-        CEIL(EXTRACT(EPOCH FROM (NOW() - COALESCE(MAX(w.completion_date), c.created_at))) / 86400.0)::bigint AS neglectDays
-      FROM categories c
-      LEFT JOIN goals g ON g.category_id = c.category_id AND g.user_id = c.user_id
-      LEFT JOIN wins  w ON w.goal_id     = g.goal_id     AND w.user_id = c.user_id AND w.completion_date IS NOT NULL
-      WHERE c.user_id = :userId
-      GROUP BY c.category_id, c.user_id, c.name, c.description, c.created_at
-      HAVING
-        -- 1) no wins in the lookback window
-        SUM(
-          CASE WHEN w.completion_date IS NOT NULL
-                AND w.completion_date >= NOW() - CAST(:days || ' days' AS interval)
-              THEN 1 ELSE 0
-          END
-        ) = 0
-        -- 2) and the last activity (win or created_at) is older than the window
-        AND COALESCE(MAX(w.completion_date), c.created_at) < NOW() - CAST(:days || ' days' AS interval)
-      ORDER BY COALESCE(MAX(w.completion_date), c.created_at) ASC
+        a.last_activity AS lastWinAt,
+        CEIL(EXTRACT(EPOCH FROM (NOW() - a.last_activity)) / 86400.0)::bigint AS neglectDays
+      FROM category_activity a
+      JOIN categories c ON c.category_id = a.category_id
+      WHERE a.user_id = :userId
+        AND a.last_activity < NOW() - CAST(:days || ' days' AS interval)
+      ORDER BY a.last_activity ASC
       """, nativeQuery = true)
     List<CategoryNeglectedView> findNeglectedCategories(@Param("userId") Long userId,
                                                         @Param("days") int days);
@@ -0,0 +1,94 @@
+package com.project.thelittlethings.repositories;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+// Plain JDBC for the nightly challenge generation: one grouped read and batched inserts
+@Repository
+public class ChallengeBatchRepository {
+
+    // user without an open (SUGGESTED/ACTIVE) challenge, with their recent win count
+    public record Candidate(long userId, long recentWins) {}
+
+    // one challenge row to create for a candidate
+    public record Suggestion(long userId, String title, String description, int reward, int target, String source) {}
+
+    // Every user still missing an open challenge, with wins since `since`, in one pass:
+    // anti-join on challenges, left join + group on wins (served by idx_wins_user_win).
+    private static final String CANDIDATES =
+            "SELECT u.user_id, COUNT(w.win_id) AS recent_wins FROM users u " +
+            "LEFT JOIN wins w ON w.user_id = u.user_id AND w.completion_date > ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM challenges c WHERE c.user_id = u.user_id " +
+            "  AND c.status IN ('SUGGESTED', 'ACTIVE')) " +
+            "GROUP BY u.user_id ORDER BY u.user_id";
+
+    // the NOT EXISTS guard re-checks at insert time, so a user who generated on demand meanwhile is skipped;
+    // on Postgres a truly concurrent insert hits uq_challenges_user_open and ON CONFLICT DO NOTHING skips
+    // that row instead of aborting the whole batch's transaction
+    private static final String INSERT_SUGGESTED =
+            "INSERT INTO challenges (user_id, title, description, reward, progress_current, progress_total, " +
+            "status, source, created_at, updated_at) " +
+            "SELECT ?, ?, ?, ?, 0, ?, 'SUGGESTED', ?, ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM challenges c WHERE c.user_id = ? AND c.status IN ('SUGGESTED', 'ACTIVE'))";
+
+    private static final String ON_CONFLICT_SKIP = " ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbc;
+    private volatile String insertSql; // resolved against the database on first use
+
+    public ChallengeBatchRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public List<Candidate> findCandidates(OffsetDateTime since) {
+        return jdbc.query(CANDIDATES, (rs, i) -> new Candidate(rs.getLong(1), rs.getLong(2)), since);
+    }
+
+    // inserts all rows in one JDBC batch; returns how many were actually created
+    public int insertSuggested(List<Suggestion> rows, Instant now) {
+        if (rows.isEmpty()) return 0;
+        Timestamp at = Timestamp.from(now);
+        return jdbc.execute((ConnectionCallback<Integer>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(insertSql(con))) {
+                for (Suggestion s : rows) {
+                    ps.setLong(1, s.userId());
+                    ps.setString(2, s.title());
+                    ps.setString(3, s.description());
+                    ps.setInt(4, s.reward());
+                    ps.setInt(5, s.target());
+                    ps.setString(6, s.source());
+                    ps.setTimestamp(7, at);
+                    ps.setTimestamp(8, at);
+                    ps.setLong(9, s.userId());
+                    ps.addBatch();
+                }
+                int created = 0;
+                for (int n : ps.executeBatch()) {
+                    if (n > 0) created += n;
+                    else if (n == Statement.SUCCESS_NO_INFO) created++; // driver didn't count, assume inserted
+                }
+                return created;
+            }
+        });
+    }
+
+    private String insertSql(Connection con) throws SQLException {
+        String sql = insertSql;
+        if (sql == null) {
+            boolean postgres = con.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+            sql = postgres ? INSERT_SUGGESTED + ON_CONFLICT_SKIP : INSERT_SUGGESTED;
+            insertSql = sql;
+        }
+        return sql;
+    }
+}
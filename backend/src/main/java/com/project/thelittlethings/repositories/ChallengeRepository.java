@@ -3,6 +3,9 @@ package com.project.thelittlethings.repositories;
 import com.project.thelittlethings.dto.challenges.ChallengeStatus;
 import com.project.thelittlethings.entities.Challenge;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,4 +20,58 @@ public interface ChallengeRepository extends JpaRepository<Challenge, Long> {
     Optional<Challenge> findByIdAndUser_UserId(Long id, Long userId);
 
     boolean existsByUser_UserIdAndStatusIn(Long userId, List<ChallengeStatus> statuses);
+
+    // One statement for all of the user's ACTIVE challenges: moves progress by `wins` (capped at the total),
+    // completes the ones that reach it and credits the summed reward. The ACTIVE guard means a challenge
+    // is completed, and so paid, by exactly one statement. Returns the new trophy total, empty when nothing paid.
+    @Transactional
+    @Query(value =
+        "WITH progressed AS (" +
+        "  UPDATE challenges c SET " +
+        "    progress_current = LEAST(c.progress_current + :wins, c.progress_total), " +
+        "    status = CASE WHEN c.progress_current + :wins >= c.progress_total THEN 'COMPLETED' ELSE c.status END, " +
+        "    updated_at = NOW() " +
+        "  WHERE c.user_id = :userId AND c.status = 'ACTIVE' " +
+        "  RETURNING c.status, c.reward" +
+        "), paid AS (" +
+        "  SELECT COALESCE(SUM(reward), 0) AS amount FROM progressed WHERE status = 'COMPLETED'" +
+        ") " +
+        "UPDATE users u SET trophies = u.trophies + paid.amount FROM paid " +
+        "WHERE u.user_id = :userId AND paid.amount > 0 " +
+        "RETURNING u.trophies",
+        nativeQuery = true)
+    Optional<Integer> advanceActiveAndPay(@Param("userId") Long userId, @Param("wins") int wins);
+
+    // Buffered client progress for one challenge: same rules as advanceActiveAndPay, but the delta may be
+    // negative (floored at zero). Returns the new trophy total, empty when nothing was paid.
+    @Transactional
+    @Query(value =
+        "WITH progressed AS (" +
+        "  UPDATE challenges c SET " +
+        "    progress_current = GREATEST(0, LEAST(c.progress_current + :delta, c.progress_total)), " +
+        "    status = CASE WHEN c.progress_current + :delta >= c.progress_total THEN 'COMPLETED' ELSE c.status END, " +
+        "    updated_at = NOW() " +
+        "  WHERE c.id = :id AND c.user_id = :userId AND c.status = 'ACTIVE' " +
+        "  RETURNING c.status, c.reward" +
+        ") " +
+        "UPDATE users u SET trophies = u.trophies + p.reward FROM progressed p " +
+        "WHERE u.user_id = :userId AND p.status = 'COMPLETED' AND p.reward > 0 " +
+        "RETURNING u.trophies",
+        nativeQuery = true)
+    Optional<Integer> applyProgressDelta(@Param("id") Long id, @Param("userId") Long userId, @Param("delta") int delta);
+
+    // Manual completion of a SUGGESTED or ACTIVE challenge. Guarded the same way, so a challenge already
+    // completed by another path is not paid twice. Returns the new trophy total, empty when nothing was paid.
+    @Transactional
+    @Query(value =
+        "WITH completed AS (" +
+        "  UPDATE challenges c SET progress_current = c.progress_total, status = 'COMPLETED', updated_at = NOW() " +
+        "  WHERE c.id = :id AND c.user_id = :userId AND c.status IN ('SUGGESTED','ACTIVE') " +
+        "  RETURNING c.reward" +
+        ") " +
+        "UPDATE users u SET trophies = u.trophies + c.reward FROM completed c " +
+        "WHERE u.user_id = :userId AND c.reward > 0 " +
+        "RETURNING u.trophies",
+        nativeQuery = true)
+    Optional<Integer> completeAndPay(@Param("id") Long id, @Param("userId") Long userId);
 }
@@ -2,13 +2,93 @@ package com.project.thelittlethings.repositories;
 
 import com.project.thelittlethings.entities.FriendChallenge;
 import com.project.thelittlethings.entities.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface FriendChallengeRepository extends JpaRepository<FriendChallenge, Long> {
     List<FriendChallenge> findByChallengerOrOpponent(User c, User o);
-    List<FriendChallenge> findByOpponentAndStatus(User opponent, FriendChallenge.Status status);
-    List<FriendChallenge> findByChallengerOrOpponentAndStatusIn(User challenger, User opponent, List<FriendChallenge.Status> statuses);
-    List<FriendChallenge> findByChallengerOrOpponentAndStatusNotIn(User challenger, User opponent, List<FriendChallenge.Status> statuses);
+
+    // Row-locked read for state transitions: a concurrent accept, confirm or expiry sweep waits for the
+    // lock and then sees the committed status and escrow flag, so stakes are moved at most once.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM FriendChallenge c WHERE c.id = :id")
+    Optional<FriendChallenge> findByIdForUpdate(@Param("id") Long id);
+
+    // ---- Listings ----
+    // One statement per page: participants, winner and completion requester are fetch-joined so
+    // ChallengeResponse.fromEntity never triggers a lazy load. The parenthesised OR lets Postgres
+    // combine idx_fc_challenger_status and idx_fc_opponent_status; newest activity first.
+
+    @Query("SELECT c FROM FriendChallenge c " +
+           "JOIN FETCH c.challenger JOIN FETCH c.opponent " +
+           "LEFT JOIN FETCH c.winner LEFT JOIN FETCH c.completionRequestedBy " +
+           "WHERE (c.challenger.userId = :me OR c.opponent.userId = :me) AND c.status IN :statuses " +
+           "ORDER BY c.updatedAt DESC, c.id DESC")
+    List<FriendChallenge> findPageForParticipant(@Param("me") Long me,
+                                                 @Param("statuses") Collection<FriendChallenge.Status> statuses,
+                                                 Pageable pageable);
+
+    @Query("SELECT c FROM FriendChallenge c " +
+           "JOIN FETCH c.challenger JOIN FETCH c.opponent " +
+           "LEFT JOIN FETCH c.winner LEFT JOIN FETCH c.completionRequestedBy " +
+           "WHERE c.opponent.userId = :me AND c.status = :status " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<FriendChallenge> findPageForOpponent(@Param("me") Long me,
+                                              @Param("status") FriendChallenge.Status status,
+                                              Pageable pageable);
+
+    // ---- Expiry sweep ----
+
+    // user whose balance changed, with the new total
+    interface RefundedBalance {
+        Long getUserId();
+        Integer getTrophies();
+    }
+
+    // ids of challenges past their end date, keyset-paged by id (idx_fc_status_end_id);
+    // pass PageRequest.of(0, chunk) so only a LIMIT is applied
+    @Query("SELECT c.id FROM FriendChallenge c WHERE c.status IN :statuses AND c.endDate < :today " +
+           "AND c.id > :afterId ORDER BY c.id")
+    List<Long> findExpiredIds(@Param("statuses") Collection<FriendChallenge.Status> statuses,
+                              @Param("today") LocalDate today,
+                              @Param("afterId") long afterId,
+                              Pageable pageable);
+
+    // One statement per chunk: flips the still-open challenges to EXPIRED, hands each escrowed stake
+    // back to both sides with one UPDATE per user, and returns the new totals. The rows are locked
+    // (FOR UPDATE) before escrow is read, so an accept committing meanwhile is waited for and its
+    // escrowed stakes are refunded rather than read from a stale snapshot. The status guard makes a
+    // retried chunk, or one that loses to a completion, a no-op.
+    @Transactional
+    @Query(value =
+        "WITH locked AS (" +
+        "  SELECT id, challenger_id, opponent_id, COALESCE(trophies_stake, 0) AS stake, escrowed " +
+        "  FROM friend_challenges " +
+        "  WHERE id IN (:ids) AND end_date < :today AND status IN ('PROPOSED', 'ACCEPTED', 'ACTIVE') " +
+        "  FOR UPDATE" +
+        "), expired AS (" +
+        "  UPDATE friend_challenges fc SET status = 'EXPIRED', escrowed = false, updated_at = NOW() " +
+        "  FROM locked l WHERE fc.id = l.id " +
+        "  RETURNING l.challenger_id, l.opponent_id, l.stake, l.escrowed AS was_escrowed" +
+        "), refunds AS (" +
+        "  SELECT user_id, SUM(stake) AS amount FROM (" +
+        "    SELECT challenger_id AS user_id, stake FROM expired WHERE was_escrowed AND stake > 0 " +
+        "    UNION ALL " +
+        "    SELECT opponent_id AS user_id, stake FROM expired WHERE was_escrowed AND stake > 0" +
+        "  ) r GROUP BY user_id" +
+        ") " +
+        "UPDATE users u SET trophies = u.trophies + r.amount FROM refunds r WHERE u.user_id = r.user_id " +
+        "RETURNING u.user_id AS \"userId\", u.trophies AS \"trophies\"",
+        nativeQuery = true)
+    List<RefundedBalance> expireAndRefund(@Param("ids") Collection<Long> ids, @Param("today") LocalDate today);
 }
@@ -1,8 +1,12 @@
 package com.project.thelittlethings.repositories;
 
+import com.project.thelittlethings.View.FriendshipView;
 import com.project.thelittlethings.entities.Friendship;
 import com.project.thelittlethings.entities.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,9 +15,36 @@ public interface FriendshipRepository extends JpaRepository<Friendship, Long> {
     // canonical pair search
     Optional<Friendship> findByUserAAndUserB(User userA, User userB);
 
-    List<Friendship> findByUserAOrUserBAndStatus(User a, User b, Friendship.Status status);
+    // friendships of :me in one status (e.g. accepted friends); the two sides of the OR are
+    // served by idx_friendships_usera_status / idx_friendships_userb_status
+    @Query("SELECT f.id AS id, u.userId AS friendId, u.username AS friendUsername, u.trophies AS friendTrophies, " +
+           "f.status AS status, f.requestedBy.userId AS requestedById, f.requestedAt AS requestedAt " +
+           "FROM Friendship f JOIN User u ON u.userId = CASE WHEN f.userA.userId = :me THEN f.userB.userId ELSE f.userA.userId END " +
+           "WHERE (f.userA.userId = :me OR f.userB.userId = :me) AND f.status = :status " +
+           "ORDER BY f.requestedAt DESC, f.id DESC")
+    List<FriendshipView> findRowsByStatus(@Param("me") Long me, @Param("status") Friendship.Status status, Pageable pageable);
 
-    // pending for me (incoming)
-    List<Friendship> findByStatusAndRequestedByNotAndUserAOrUserB(
-            Friendship.Status status, User requestedByNot, User a, User b);
+    // pending requests sent to :me by someone else
+    @Query("SELECT f.id AS id, u.userId AS friendId, u.username AS friendUsername, u.trophies AS friendTrophies, " +
+           "f.status AS status, f.requestedBy.userId AS requestedById, f.requestedAt AS requestedAt " +
+           "FROM Friendship f JOIN User u ON u.userId = CASE WHEN f.userA.userId = :me THEN f.userB.userId ELSE f.userA.userId END " +
+           "WHERE (f.userA.userId = :me OR f.userB.userId = :me) " +
+           "AND f.status = com.project.thelittlethings.entities.Friendship.Status.PENDING AND f.requestedBy.userId <> :me " +
+           "ORDER BY f.requestedAt DESC, f.id DESC")
+    List<FriendshipView> findIncomingRows(@Param("me") Long me, Pageable pageable);
+
+    interface FriendPair {
+        Long getUserAId();
+        Long getUserBId();
+    }
+
+    // just the id pairs, for loading the in-memory friend graph
+    @Query("SELECT f.userA.userId AS userAId, f.userB.userId AS userBId FROM Friendship f WHERE f.status = :status")
+    List<FriendPair> findPairsByStatus(@Param("status") Friendship.Status status);
+
+    // the other side of every pending request involving :me, sent or received
+    @Query("SELECT CASE WHEN f.userA.userId = :me THEN f.userB.userId ELSE f.userA.userId END FROM Friendship f " +
+           "WHERE (f.userA.userId = :me OR f.userB.userId = :me) " +
+           "AND f.status = com.project.thelittlethings.entities.Friendship.Status.PENDING")
+    List<Long> findPendingPartnerIds(@Param("me") Long me);
 }
@@ -1,8 +1,13 @@
 package com.project.thelittlethings.repositories;
 
+import com.project.thelittlethings.dto.goals.GoalResponse;
 import com.project.thelittlethings.entities.Goal;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,9 +21,47 @@ public interface GoalRepository extends JpaRepository<Goal, Long> {
     // Find all goals belonging to a specific user and category
     List<Goal> findByUser_UserIdAndCategory_CategoryId(Long userId, Long categoryId);
 
+    // Listing projections: only the GoalResponse columns, in one statement (no user/category rows)
+    @Query("SELECT new com.project.thelittlethings.dto.goals.GoalResponse(g.goalId, g.user.userId, g.category.categoryId, " +
+           "g.title, g.description, g.priority, g.createdAt, g.updatedAt) FROM Goal g WHERE g.user.userId = :userId")
+    List<GoalResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.project.thelittlethings.dto.goals.GoalResponse(g.goalId, g.user.userId, g.category.categoryId, " +
+           "g.title, g.description, g.priority, g.createdAt, g.updatedAt) " +
+           "FROM Goal g WHERE g.user.userId = :userId AND g.category.categoryId = :categoryId")
+    List<GoalResponse> findResponsesByUserIdAndCategoryId(@Param("userId") Long userId, @Param("categoryId") Long categoryId);
+
+    // Grouped listing, every goal (optionally one category) newest first, read in a single pass
+    @Query("SELECT new com.project.thelittlethings.dto.goals.GoalResponse(g.goalId, g.user.userId, g.category.categoryId, " +
+           "g.title, g.description, g.priority, g.createdAt, g.updatedAt) FROM Goal g WHERE g.user.userId = :userId " +
+           "AND (:categoryId IS NULL OR g.category.categoryId = :categoryId) ORDER BY g.createdAt DESC, g.goalId DESC")
+    List<GoalResponse> findResponsesForGrouping(@Param("userId") Long userId, @Param("categoryId") Long categoryId);
+
+    // Projection form of findByUser_UserIdAndPriorityOrderByCreatedAtDesc, paged; backed by idx_goals_user_priority_created
+    @Query("SELECT new com.project.thelittlethings.dto.goals.GoalResponse(g.goalId, g.user.userId, g.category.categoryId, " +
+           "g.title, g.description, g.priority, g.createdAt, g.updatedAt) FROM Goal g WHERE g.user.userId = :userId " +
+           "AND g.priority = :priority AND (:categoryId IS NULL OR g.category.categoryId = :categoryId) " +
+           "ORDER BY g.createdAt DESC, g.goalId DESC")
+    List<GoalResponse> findResponsesByPriority(@Param("userId") Long userId, @Param("categoryId") Long categoryId,
+                                               @Param("priority") String priority, Pageable pageable);
+
+    interface PriorityCount {
+        String getPriority();
+        long getTotal();
+    }
+
+    // Group sizes for the paginated grouped listing, one statement for all priorities
+    @Query("SELECT g.priority AS priority, COUNT(g) AS total FROM Goal g WHERE g.user.userId = :userId " +
+           "AND (:categoryId IS NULL OR g.category.categoryId = :categoryId) GROUP BY g.priority")
+    List<PriorityCount> countByPriority(@Param("userId") Long userId, @Param("categoryId") Long categoryId);
+
     // Find a specific goal by its ID and owner user ID
     Optional<Goal> findByGoalIdAndUser_UserId(Long goalId, Long userId);
 
+    // Of the given goal ids, the ones owned by the user (one query for a whole batch)
+    @Query("SELECT g.goalId FROM Goal g WHERE g.user.userId = :userId AND g.goalId IN :goalIds")
+    List<Long> findOwnedGoalIds(@Param("userId") Long userId, @Param("goalIds") Collection<Long> goalIds);
+
     // Check if a goal exists for a specific user
     boolean existsByGoalIdAndUser_UserId(Long goalId, Long userId);
     // Check if a user has any goals
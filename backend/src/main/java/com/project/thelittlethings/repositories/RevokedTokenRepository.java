@@ -0,0 +1,20 @@
+package com.project.thelittlethings.repositories;
+
+import com.project.thelittlethings.entities.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+  List<RevokedToken> findByExpiresAtGreaterThan(Long now);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+  int deleteExpired(@Param("now") Long now);
+}
@@ -4,7 +4,13 @@ import org.springframework.data.domain.PageRequest;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO;
+import com.project.thelittlethings.dto.users.UserSearchResult;
 import com.project.thelittlethings.entities.User;
+import com.project.thelittlethings.security.AuthPrincipal;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,6 +18,11 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
 
   Optional<User> findByUsername(String username);
+
+  // auth hot path: just the id/name/region, not the whole users row
+  @Query("SELECT new com.project.thelittlethings.security.AuthPrincipal(u.userId, u.username, u.region) FROM User u WHERE u.username = :username")
+  Optional<AuthPrincipal> findPrincipalByUsername(@Param("username") String username);
+
   Optional<User> findByEmail(String email);
   Optional<User> findByUserId(long userId);
   boolean existsByUsername(String username);
@@ -24,8 +35,95 @@ public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByUsernameIgnoreCase(String username);
   
   boolean existsByUsernameIgnoreCase(String username);
+
+  // Username search index warm-up: id + name only
+  @Query("SELECT new com.project.thelittlethings.dto.users.UserSearchResult(u.userId, u.username) FROM User u")
+  List<UserSearchResult> findAllUsernames();
+
+  // Prefix search fallback. upper() matches what the IgnoreCase finders generate, so both are served
+  // by idx_users_username_upper (text_pattern_ops, created on startup by DatabaseIndexes). Pass the prefix
+  // upper-cased with % and _ escaped by '!'.
+  @Query("SELECT new com.project.thelittlethings.dto.users.UserSearchResult(u.userId, u.username) FROM User u " +
+         "WHERE upper(u.username) LIKE CONCAT(:prefix, '%') ESCAPE '!' " +
+         "ORDER BY upper(u.username), u.userId")
+  List<UserSearchResult> searchByUsernamePrefix(@Param("prefix") String prefix, Pageable pageable);
   
   // Leaderboard methods for Ilkash
   List<User> findByRegionOrderByTrophiesDesc(String region, PageRequest pageRequest);
   List<User> findAllByOrderByTrophiesDesc(PageRequest pageRequest);
-}
\ No newline at end of file
+
+  // Leaderboard index warm-up: only the columns the leaderboard returns
+  @Query("SELECT new com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO(u.userId, u.username, u.region, u.trophies) FROM User u")
+  List<LeaderboardUserDTO> findAllLeaderboardEntries();
+
+  // Keyset (seek) pagination: continue strictly after (trophies, userId) instead of
+  // skipping OFFSET rows. Backed by idx_users_trophies_user / idx_users_region_trophies_user;
+  // the redundant leading "trophies <= :trophies" gives the planner a range to seek to (a row-value
+  // comparison can't express the mixed DESC/ASC order). Pass PageRequest.of(0, size) so only a LIMIT is applied.
+  @Query("SELECT new com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO(u.userId, u.username, u.region, u.trophies) " +
+         "FROM User u WHERE u.trophies <= :trophies " +
+         "AND (u.trophies < :trophies OR (u.trophies = :trophies AND u.userId > :userId)) " +
+         "ORDER BY u.trophies DESC, u.userId ASC")
+  List<LeaderboardUserDTO> findLeaderboardAfter(@Param("trophies") int trophies,
+                                                @Param("userId") long userId,
+                                                Pageable pageable);
+
+  @Query("SELECT new com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO(u.userId, u.username, u.region, u.trophies) " +
+         "FROM User u WHERE u.region = :region AND u.trophies <= :trophies " +
+         "AND (u.trophies < :trophies OR (u.trophies = :trophies AND u.userId > :userId)) " +
+         "ORDER BY u.trophies DESC, u.userId ASC")
+  List<LeaderboardUserDTO> findRegionLeaderboardAfter(@Param("region") String region,
+                                                      @Param("trophies") int trophies,
+                                                      @Param("userId") long userId,
+                                                      Pageable pageable);
+
+  // Rank lookups: same (trophies DESC, userId) order as above, walked from a single user
+  @Query("SELECT new com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO(u.userId, u.username, u.region, u.trophies) " +
+         "FROM User u WHERE u.userId = :userId")
+  Optional<LeaderboardUserDTO> findLeaderboardEntry(@Param("userId") Long userId);
+
+  // users ranked immediately above (trophies, userId), nearest first
+  @Query("SELECT new com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO(u.userId, u.username, u.region, u.trophies) " +
+         "FROM User u WHERE u.trophies > :trophies OR (u.trophies = :trophies AND u.userId < :userId) " +
+         "ORDER BY u.trophies ASC, u.userId DESC")
+  List<LeaderboardUserDTO> findLeaderboardBefore(@Param("trophies") int trophies,
+                                                 @Param("userId") long userId,
+                                                 Pageable pageable);
+
+  @Query("SELECT COUNT(u) FROM User u WHERE u.trophies > :trophies OR (u.trophies = :trophies AND u.userId < :userId)")
+  long countRankedAbove(@Param("trophies") int trophies, @Param("userId") long userId);
+
+  @Query("SELECT COUNT(u) FROM User u WHERE u.region = :region " +
+         "AND (u.trophies > :trophies OR (u.trophies = :trophies AND u.userId < :userId))")
+  long countRegionRankedAbove(@Param("region") String region,
+                              @Param("trophies") int trophies,
+                              @Param("userId") long userId);
+
+  // Friends leaderboard fallback: the caller plus everyone with an ACCEPTED friendship to them,
+  // in leaderboard order. Each IN branch is served by idx_friendships_usera_status / _userb_status.
+  @Query("SELECT new com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO(u.userId, u.username, u.region, u.trophies) " +
+         "FROM User u WHERE u.userId = :me " +
+         "OR u.userId IN (SELECT f.userB.userId FROM Friendship f WHERE f.userA.userId = :me " +
+         "  AND f.status = com.project.thelittlethings.entities.Friendship.Status.ACCEPTED) " +
+         "OR u.userId IN (SELECT f.userA.userId FROM Friendship f WHERE f.userB.userId = :me " +
+         "  AND f.status = com.project.thelittlethings.entities.Friendship.Status.ACCEPTED) " +
+         "ORDER BY u.trophies DESC, u.userId ASC")
+  List<LeaderboardUserDTO> findFriendsLeaderboard(@Param("me") Long me);
+
+  // ---- Trophy ledger ----
+  // Every trophy change is a single UPDATE ... RETURNING on the row, so concurrent wins and
+  // challenge payouts can't overwrite each other and nobody reads the user entity first.
+  // Empty result = no such user.
+
+  // adds delta (may be negative), clamping the total at zero like the old entity code did
+  @Transactional
+  @Query(value = "UPDATE users SET trophies = GREATEST(trophies + :delta, 0) WHERE user_id = :userId RETURNING trophies",
+         nativeQuery = true)
+  Optional<Integer> addTrophies(@Param("userId") Long userId, @Param("delta") int delta);
+
+  // escrow: takes amount only if the user still holds at least that much; empty = insufficient (or no user)
+  @Transactional
+  @Query(value = "UPDATE users SET trophies = trophies - :amount WHERE user_id = :userId AND trophies >= :amount RETURNING trophies",
+         nativeQuery = true)
+  Optional<Integer> withdrawTrophies(@Param("userId") Long userId, @Param("amount") int amount);
+}
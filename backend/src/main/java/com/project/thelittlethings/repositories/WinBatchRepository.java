@@ -0,0 +1,52 @@
+package com.project.thelittlethings.repositories;
+
+import com.project.thelittlethings.entities.Win;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+// Plain JDBC for bulk win writes: one batched round trip instead of a persist per win
+@Repository
+public class WinBatchRepository {
+
+    private static final String INSERT_WIN =
+            "INSERT INTO wins (user_id, goal_id, journal_id, title, description, num_trophies, completion_date) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+
+    public WinBatchRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    // inserts all rows in one JDBC batch and returns the generated win ids in input order
+    public List<Long> insertAll(Long userId, List<Win> wins) {
+        if (wins.isEmpty()) return List.of();
+        return jdbc.execute((ConnectionCallback<List<Long>>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(INSERT_WIN, new String[] {"win_id"})) {
+                for (Win w : wins) {
+                    ps.setLong(1, userId);
+                    ps.setLong(2, w.getGoal().getGoalId());
+                    if (w.getJournalId() == null) ps.setNull(3, Types.INTEGER); else ps.setLong(3, w.getJournalId());
+                    ps.setString(4, w.getTitle());
+                    ps.setString(5, w.getDescription());
+                    ps.setInt(6, w.getNumTrophies() == null ? 0 : w.getNumTrophies());
+                    ps.setObject(7, w.getCompletionDate());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                List<Long> ids = new ArrayList<>(wins.size());
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next()) ids.add(keys.getLong(1));
+                }
+                return ids;
+            }
+        });
+    }
+}
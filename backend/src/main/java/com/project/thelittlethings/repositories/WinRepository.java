@@ -1,7 +1,10 @@
 package com.project.thelittlethings.repositories;
 
 
+import com.project.thelittlethings.dto.friends.FeedItem;
+import com.project.thelittlethings.dto.wins.WinResponse;
 import com.project.thelittlethings.entities.Win;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,6 +18,26 @@ public interface WinRepository extends JpaRepository<Win, Long> {
     List<Win> findByUser_UserId(Long userId);          // all wins for a user
     List<Win> findByGoal_GoalId(Long goalId);          // all wins tied to a goal
 
+    @Query("SELECT w.winId FROM Win w WHERE w.goal.goalId = :goalId")
+    List<Long> findIdsByGoalId(@Param("goalId") Long goalId);
+
+    // Listing projection: just the WinResponse columns, one statement, no user/goal rows hydrated
+    @Query("SELECT new com.project.thelittlethings.dto.wins.WinResponse(w.winId, w.user.userId, w.goal.goalId, " +
+           "w.title, w.description, w.numTrophies, w.completionDate, w.journalId) FROM Win w WHERE w.user.userId = :userId")
+    List<WinResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    // Friend feed, one statement: wins by anyone with an ACCEPTED friendship to :me, newest first,
+    // strictly below the winId cursor. Seeds ActivityFeed inboxes and serves pages past them.
+    @Query("SELECT new com.project.thelittlethings.dto.friends.FeedItem(w.winId, u.userId, u.username, " +
+           "w.title, w.numTrophies, w.completionDate) FROM Win w JOIN w.user u " +
+           "WHERE w.winId < :before AND (" +
+           "u.userId IN (SELECT f.userB.userId FROM Friendship f WHERE f.userA.userId = :me " +
+           "  AND f.status = com.project.thelittlethings.entities.Friendship.Status.ACCEPTED) " +
+           "OR u.userId IN (SELECT f.userA.userId FROM Friendship f WHERE f.userB.userId = :me " +
+           "  AND f.status = com.project.thelittlethings.entities.Friendship.Status.ACCEPTED)) " +
+           "ORDER BY w.winId DESC")
+    List<FeedItem> findFriendFeed(@Param("me") Long me, @Param("before") long before, Pageable pageable);
+
     //  Safe ownership fetch
     Optional<Win> findByWinIdAndUser_UserId(Long winId, Long userId);
 
@@ -0,0 +1,52 @@
+package com.project.thelittlethings.security;
+
+import com.project.thelittlethings.services.UserService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Resolves the bearer token to an AuthPrincipal once per API request.
+// It never rejects a request itself: public endpoints simply see no principal,
+// protected ones fail through AuthPrincipal.current().
+@Component
+public class AuthFilter extends OncePerRequestFilter {
+
+    // the only endpoint that authenticates from the query string (browser EventSource), and only with
+    // a single-use StreamTickets ticket, never the bearer token itself, so access logs hold nothing reusable
+    static final String STREAM_PATH = "/api/friends/stream";
+
+    private final UserService userService;
+
+    public AuthFilter(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader("Authorization");
+        if ((header == null || header.isBlank()) && STREAM_PATH.equals(request.getRequestURI())) {
+            String username = StreamTickets.redeem(request.getParameter("ticket"));
+            AuthPrincipal principal = userService.resolvePrincipal(username);
+            if (principal != null) request.setAttribute(AuthPrincipal.ATTRIBUTE, principal);
+        } else if (header != null && !header.isBlank()) {
+            String token = header.startsWith("Bearer ") ? header.substring(7) : header;
+            VerifiedToken verified = HMACtokens.verify(token);
+            if (verified != null && !userService.isTokenBlacklisted(token)) {
+                AuthPrincipal principal = userService.resolvePrincipal(verified.username());
+                if (principal != null) request.setAttribute(AuthPrincipal.ATTRIBUTE, principal);
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
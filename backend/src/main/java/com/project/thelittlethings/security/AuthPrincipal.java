@@ -0,0 +1,19 @@
+package com.project.thelittlethings.security;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+// Lightweight view of the authenticated user, resolved once per request by AuthFilter
+public record AuthPrincipal(Long userId, String username, String region) {
+
+    public static final String ATTRIBUTE = AuthPrincipal.class.getName();
+
+    // principal of the current request, or IllegalArgumentException when the caller is not authenticated
+    public static AuthPrincipal current() {
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        Object p = attrs == null ? null : attrs.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (!(p instanceof AuthPrincipal principal))
+            throw new IllegalArgumentException("Invalid or expired token");
+        return principal;
+    }
+}
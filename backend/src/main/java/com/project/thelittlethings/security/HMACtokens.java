@@ -2,7 +2,11 @@ package com.project.thelittlethings.security;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
+import java.security.MessageDigest;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 
@@ -13,59 +17,103 @@ public class HMACtokens {
 
     private static final String SECRET = "thelittlethingsASD";
 
+    private static final SecretKeySpec KEY = new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), HMAC);
+
+    // Mac is not thread-safe, so each thread keeps one instead of Mac.getInstance + init per call
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(KEY);
+            return mac;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    // tokens that already passed verification; entries are dropped once their own expiry passes,
+    // and the least recently used one goes first when the cache is full
+    static final int MAX_CACHED = 10_000;
+    private static final Map<String, VerifiedToken> VERIFIED = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                    return size() > MAX_CACHED;
+                }
+            });
+
     // creates new auth token with expiration
     public static String issueToken(String username, long ttlSeconds) {
         long expiry = Instant.now().getEpochSecond() + ttlSeconds;
         String payload = username + ":" + expiry;
         String b64 = Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
-        String sig = hmac(b64);
+        String sig = Base64.getUrlEncoder().withoutPadding().encodeToString(sign(b64));
         return b64 + ":" + sig;
     }
 
+    // checks signature and expiry once, then serves repeat calls for the same token from the cache.
+    // returns null for anything invalid or expired
+    public static VerifiedToken verify(String token) {
+        if (token == null) return null;
+        long now = Instant.now().getEpochSecond();
+
+        VerifiedToken cached = VERIFIED.get(token);
+        if (cached != null) {
+            if (!cached.isExpired(now)) return cached;
+            VERIFIED.remove(token);
+            return null;
+        }
+
+        VerifiedToken parsed = parse(token);
+        if (parsed == null || parsed.isExpired(now)) return null;
+        VERIFIED.put(token, parsed);
+        return parsed;
+    }
+
     // validates token signature and expiry
     public static boolean validateToken(String token) {
-        try {
-            String[] parts = token.split(":");
-            if (parts.length != 2)
-                return false;
-            String b64 = parts[0];
-            String sig = parts[1];
-            
-            if (!hmac(b64).equals(sig))
-                return false;
-                
-            String payload = new String(Base64.getUrlDecoder().decode(b64), StandardCharsets.UTF_8);
-            String[] p = payload.split(":");
-            if (p.length != 2)
-                return false;
-                
-            long expiry = Long.parseLong(p[1]);
-            return Instant.now().getEpochSecond() <= expiry;
-        } catch (Exception e) {
-            return false; 
-        }
+        return verify(token) != null;
     }
 
     // gets username from token
     public static String extractUsername(String token) {
+        VerifiedToken verified = verify(token);
+        if (verified != null) return verified.username();
+        // unverified tokens still yield their claimed username, as before
         try {
-            String b64 = token.split(":")[0]; 
+            String b64 = token.split(":")[0];
             String payload = new String(Base64.getUrlDecoder().decode(b64), StandardCharsets.UTF_8);
-            return payload.split(":")[0]; 
+            return payload.split(":")[0];
         } catch (Exception e) {
             return null;
         }
     }
 
-    // creates HMAC signature
-    private static String hmac(String data) {
+    private static VerifiedToken parse(String token) {
         try {
-            Mac mac = Mac.getInstance(HMAC);
-            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), HMAC));
-            byte[] sig = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            return Base64.getUrlEncoder().withoutPadding().encodeToString(sig);
+            int sep = token.indexOf(':');
+            if (sep <= 0 || sep != token.lastIndexOf(':'))
+                return null;
+            String b64 = token.substring(0, sep);
+            byte[] sig = Base64.getUrlDecoder().decode(token.substring(sep + 1));
+
+            // constant-time compare so the signature can't be guessed byte by byte
+            if (!MessageDigest.isEqual(sign(b64), sig))
+                return null;
+
+            String payload = new String(Base64.getUrlDecoder().decode(b64), StandardCharsets.UTF_8);
+            int p = payload.indexOf(':');
+            if (p < 0 || p != payload.lastIndexOf(':'))
+                return null;
+
+            return new VerifiedToken(payload.substring(0, p), Long.parseLong(payload.substring(p + 1)));
         } catch (Exception e) {
-            throw new RuntimeException(e); 
+            return null;
         }
     }
+
+    // creates HMAC signature
+    private static byte[] sign(String data) {
+        Mac mac = MAC.get();
+        return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+    }
 }
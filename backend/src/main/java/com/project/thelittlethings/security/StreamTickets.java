@@ -0,0 +1,51 @@
+package com.project.thelittlethings.security;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Single-use, short-lived tickets for opening GET /api/friends/stream.
+// EventSource can't send an Authorization header, so the client trades its bearer token for a ticket
+// and puts that in the query string instead; the URL that reaches access logs then holds nothing
+// that still works once the stream is open or the ticket has expired.
+public final class StreamTickets {
+
+    static final long TTL_MILLIS = 30_000;
+    static final int MAX_TICKETS = 10_000;
+
+    private record Ticket(String username, long expiresAtMillis) {}
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // insertion-ordered: when full, the oldest ticket (the next to expire) is dropped
+    private static final Map<String, Ticket> TICKETS = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Ticket> eldest) {
+            return size() > MAX_TICKETS;
+        }
+    };
+
+    private StreamTickets() {}
+
+    public static String issue(String username) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        synchronized (TICKETS) {
+            TICKETS.put(ticket, new Ticket(username, System.currentTimeMillis() + TTL_MILLIS));
+        }
+        return ticket;
+    }
+
+    // the username the ticket was issued to, or null if it is unknown, already used or expired
+    public static String redeem(String ticket) {
+        if (ticket == null) return null;
+        Ticket t;
+        synchronized (TICKETS) {
+            t = TICKETS.remove(ticket);
+        }
+        if (t == null || System.currentTimeMillis() > t.expiresAtMillis()) return null;
+        return t.username();
+    }
+}
@@ -0,0 +1,91 @@
+package com.project.thelittlethings.security;
+
+import com.project.thelittlethings.entities.RevokedToken;
+import com.project.thelittlethings.repositories.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Logged-out tokens, each held only until the expiry embedded in the token itself.
+// Lookups are a plain ConcurrentHashMap get, so the per-request check takes no lock.
+// With auth.revocation.persistent=true revocations are also written to revoked_tokens,
+// loaded back on startup and re-synced on every sweep so other instances pick them up.
+@Component
+public class TokenRevocationStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationStore.class);
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final RevokedTokenRepository repository;
+    private final boolean persistent;
+
+    public TokenRevocationStore(RevokedTokenRepository repository,
+                                @Value("${auth.revocation.persistent:false}") boolean persistent) {
+        this.repository = repository;
+        this.persistent = persistent;
+    }
+
+    public void revoke(String token) {
+        VerifiedToken verified = HMACtokens.verify(token);
+        if (verified == null) return; // invalid or already expired, nothing to revoke
+        revoked.put(token, verified.expiresAt());
+        if (persistent) {
+            try {
+                repository.save(new RevokedToken(token, verified.expiresAt()));
+            } catch (RuntimeException e) {
+                log.warn("Could not persist token revocation: {}", e.getMessage());
+            }
+        }
+    }
+
+    public boolean isRevoked(String token) {
+        if (token == null) return false;
+        Long expiresAt = revoked.get(token);
+        if (expiresAt == null) return false;
+        if (expiresAt < Instant.now().getEpochSecond()) {
+            revoked.remove(token, expiresAt);
+            return false; // expired tokens are rejected by HMACtokens anyway
+        }
+        return true;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (persistent) pullFromRepository();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.sweep-ms:60000}")
+    public void sweep() {
+        long now = Instant.now().getEpochSecond();
+        revoked.values().removeIf(expiresAt -> expiresAt < now);
+        if (!persistent) return;
+        try {
+            repository.deleteExpired(now);
+        } catch (RuntimeException e) {
+            log.warn("Could not purge expired revocations: {}", e.getMessage());
+        }
+        pullFromRepository();
+    }
+
+    private void pullFromRepository() {
+        try {
+            for (RevokedToken r : repository.findByExpiresAtGreaterThan(Instant.now().getEpochSecond())) {
+                revoked.putIfAbsent(r.getToken(), r.getExpiresAt());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not load persisted revocations: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.project.thelittlethings.security;
+
+// A token whose signature and expiry have already been checked, with its payload decoded once
+public record VerifiedToken(String username, long expiresAt) {
+
+    public boolean isExpired(long nowEpochSeconds) {
+        return nowEpochSeconds > expiresAt;
+    }
+}
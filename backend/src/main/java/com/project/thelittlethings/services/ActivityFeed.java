@@ -0,0 +1,211 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.dto.friends.FeedItem;
+import com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO;
+import com.project.thelittlethings.repositories.WinRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Friends' recent wins, fanned out on write: each committed win is appended to a bounded
+// per-user inbox for every friend, so reading a feed page is one map lookup.
+// Inboxes are built lazily (one DB query on a user's first read) and only receive fan-out
+// once they exist, so memory follows active readers rather than the whole user base; past
+// MAX_INBOXES the least recently used one is dropped and rebuilt on its owner's next read.
+// Authors with more friends than the fan-out limit only write to their own outbox; their
+// friends pull from it at read time instead.
+@Component
+public class ActivityFeed {
+
+    static final int MAX_PAGE = 50;
+    static final int MAX_INBOXES = 50_000;
+    private static final Comparator<FeedItem> NEWEST_FIRST = Comparator.comparing(FeedItem::getWinId).reversed();
+
+    private final WinRepository winRepository;
+    private final FriendGraph friendGraph;
+    private final LeaderboardIndex leaderboardIndex;
+    private final boolean enabled;
+    private final int capacity;
+    private final int maxFanout;
+
+    // access-ordered, so a full map drops the least recently used inbox
+    private final Map<Long, Ring> inboxes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Ring> eldest) {
+            return size() > MAX_INBOXES;
+        }
+    });
+    // outboxes of high-fanout authors, read by their friends on pull
+    private final Map<Long, Ring> outboxes = new ConcurrentHashMap<>();
+
+    public ActivityFeed(WinRepository winRepository, FriendGraph friendGraph, LeaderboardIndex leaderboardIndex,
+                        @Value("${feed.enabled:true}") boolean enabled,
+                        @Value("${feed.buffer.size:200}") int capacity,
+                        @Value("${feed.fanout.max-friends:1000}") int maxFanout) {
+        this.winRepository = winRepository;
+        this.friendGraph = friendGraph;
+        this.leaderboardIndex = leaderboardIndex;
+        this.enabled = enabled;
+        this.capacity = Math.max(1, capacity);
+        this.maxFanout = maxFanout;
+    }
+
+    // ---------- Writes ----------
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWinRecorded(WinRecordedEvent e) {
+        if (!enabled || !friendGraph.isReady() || e.winId() == null) return;
+        LeaderboardUserDTO author = leaderboardIndex.entryOf(e.userId());
+        FeedItem item = new FeedItem(e.winId(), e.userId(), author == null ? null : author.getUsername(),
+                e.title(), e.numTrophies(), e.completionDate());
+
+        if (friendGraph.friendCount(e.userId()) > maxFanout) {
+            outboxes.computeIfAbsent(e.userId(), id -> new Ring(capacity)).addNewest(item);
+            return;
+        }
+        for (long friendId : friendGraph.friendsOf(e.userId())) {
+            Ring inbox = inboxes.get(friendId);
+            if (inbox != null) inbox.addNewest(item);
+        }
+    }
+
+    // deleted wins leave every ring they were fanned out to; deletes are rare, so a full scan is fine
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWinsDeleted(WinsDeletedEvent e) {
+        if (e.winIds() == null || e.winIds().isEmpty()) return;
+        Set<Long> ids = Set.copyOf(e.winIds());
+        Ring outbox = outboxes.get(e.userId());
+        if (outbox != null) outbox.removeAll(ids);
+        List<Ring> rings;
+        synchronized (inboxes) {
+            rings = new ArrayList<>(inboxes.values());
+        }
+        for (Ring inbox : rings) inbox.removeAll(ids);
+    }
+
+    // a friendship was accepted or removed: both inboxes are rebuilt on their next read, so a new
+    // friend's earlier wins show up and a removed friend's stop taking up ring slots
+    public void friendshipChanged(Long a, Long b) {
+        AfterCommit.run(() -> {
+            inboxes.remove(a);
+            inboxes.remove(b);
+        });
+    }
+
+    // ---------- Reads ----------
+
+    // up to `limit` friend wins older than `beforeWinId` (null = from the newest), newest first
+    public List<FeedItem> page(Long userId, Long beforeWinId, int limit) {
+        int n = Math.max(1, Math.min(limit, MAX_PAGE));
+        long before = beforeWinId == null ? Long.MAX_VALUE : beforeWinId;
+        if (!enabled || !friendGraph.isReady()) return fromDatabase(userId, before, n);
+
+        Ring inbox = inboxes.get(userId);
+        if (inbox == null) inbox = warm(userId);
+
+        List<FeedItem> out = new ArrayList<>(inbox.page(before, n));
+        boolean merged = false;
+        for (Map.Entry<Long, Ring> outbox : outboxes.entrySet()) {
+            if (!friendGraph.areFriends(userId, outbox.getKey())) continue;
+            out.addAll(outbox.getValue().page(before, n));
+            merged = true;
+        }
+        // entries fanned out before an unfriend are dropped here rather than chased on write
+        out.removeIf(item -> !friendGraph.areFriends(userId, item.getUserId()));
+        if (merged) {
+            // a pulled win may also be in the inbox if it was seeded from the table
+            out.sort(NEWEST_FIRST);
+            for (int i = out.size() - 1; i > 0; i--) {
+                if (out.get(i).getWinId().equals(out.get(i - 1).getWinId())) out.remove(i);
+            }
+        }
+        if (out.size() > n) out = new ArrayList<>(out.subList(0, n));
+
+        // the ring only remembers the newest `capacity` wins; older pages come from the table
+        if (out.size() < n && inbox.isFull()) {
+            long from = out.isEmpty() ? Math.min(before, inbox.oldestWinId()) : out.get(out.size() - 1).getWinId();
+            out.addAll(fromDatabase(userId, from, n - out.size()));
+        }
+        return out;
+    }
+
+    // first read since startup: seed the inbox with one query, then let fan-out keep it current
+    private Ring warm(Long userId) {
+        Ring fresh = new Ring(capacity);
+        Ring existing = inboxes.putIfAbsent(userId, fresh);
+        if (existing != null) return existing;
+        // registered before the query, so a win committed meanwhile is caught by one or the other
+        fresh.seed(fromDatabase(userId, Long.MAX_VALUE, capacity));
+        return fresh;
+    }
+
+    private List<FeedItem> fromDatabase(Long userId, long beforeWinId, int limit) {
+        return winRepository.findFriendFeed(userId, beforeWinId, PageRequest.of(0, limit));
+    }
+
+    // ---------- Ring buffer ----------
+
+    // Fixed-capacity, newest-first buffer of feed items; the oldest item drops off when full.
+    static final class Ring {
+        private final ArrayDeque<FeedItem> items;
+        private final int capacity;
+        private boolean truncated; // was full before a delete, so older rows may still be in the table
+
+        Ring(int capacity) {
+            this.capacity = capacity;
+            this.items = new ArrayDeque<>(capacity);
+        }
+
+        synchronized void addNewest(FeedItem item) {
+            items.addFirst(item);
+            if (items.size() > capacity) items.removeLast();
+        }
+
+        // appends older rows (newest first) behind what fan-out has already added, skipping duplicates
+        synchronized void seed(List<FeedItem> older) {
+            Long oldest = items.isEmpty() ? null : items.peekLast().getWinId();
+            for (FeedItem item : older) {
+                if (items.size() >= capacity) break;
+                if (oldest != null && item.getWinId() >= oldest) continue;
+                items.addLast(item);
+            }
+        }
+
+        synchronized List<FeedItem> page(long beforeWinId, int limit) {
+            List<FeedItem> out = new ArrayList<>(limit);
+            Iterator<FeedItem> it = items.iterator();
+            while (it.hasNext() && out.size() < limit) {
+                FeedItem item = it.next();
+                if (item.getWinId() < beforeWinId) out.add(item);
+            }
+            return out;
+        }
+
+        synchronized void removeAll(Set<Long> winIds) {
+            boolean full = items.size() >= capacity;
+            if (items.removeIf(item -> winIds.contains(item.getWinId())) && full) truncated = true;
+        }
+
+        // true when older wins may exist beyond what the ring holds
+        synchronized boolean isFull() {
+            return truncated || items.size() >= capacity;
+        }
+
+        synchronized long oldestWinId() {
+            return items.isEmpty() ? Long.MAX_VALUE : items.peekLast().getWinId();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.project.thelittlethings.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Per-transaction accumulators for derived writes: listeners collect into one while the transaction
+// runs, and it is flushed once just before commit, inside the same transaction, so the derived rows
+// commit or roll back with the change that caused them.
+final class BeforeCommit {
+
+    private BeforeCommit() {}
+
+    // the transaction's accumulator for `key`, created (and its flush registered) on first use;
+    // null outside a transaction, in which case the caller applies its change directly
+    @SuppressWarnings("unchecked")
+    static <T> T accumulator(Object key, Supplier<T> create, Consumer<T> flush) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+        T existing = (T) TransactionSynchronizationManager.getResource(key);
+        if (existing != null) return existing;
+        T fresh = create.get();
+        TransactionSynchronizationManager.bindResource(key, fresh);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                flush.accept(fresh);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key); // rolled back
+            }
+        });
+        return fresh;
+    }
+}
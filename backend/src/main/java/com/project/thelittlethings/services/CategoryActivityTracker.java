@@ -0,0 +1,122 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.repositories.CategoryActivityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Keeps category_activity current as wins are recorded. Wins of one transaction are grouped by goal
+// and written just before commit (one upsert per goal), so a batch of wins costs a handful of
+// statements and the summary never disagrees with a rolled back insert. Deletes and goal moves
+// go through refresh(). Every change also invalidates the user's cached neglected categories and stats.
+// recent_wins counts wins inside the last RECENT_DAYS days; new wins add to it, and a nightly roll-over
+// recounts the categories whose older wins may have left the window.
+@Component
+public class CategoryActivityTracker {
+
+    static final int RECENT_DAYS = 30;
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryActivityTracker.class);
+    private static final Object PENDING_KEY = CategoryActivityTracker.class.getName() + ".pending";
+
+    private final CategoryActivityRepository activityRepo;
+    private final NeglectedCategoryCache neglectedCache;
+    private final CategoryStatsCache statsCache;
+    private final boolean backfill;
+
+    public CategoryActivityTracker(CategoryActivityRepository activityRepo, NeglectedCategoryCache neglectedCache,
+                                   CategoryStatsCache statsCache,
+                                   @Value("${categories.activity.backfill:true}") boolean backfill) {
+        this.activityRepo = activityRepo;
+        this.neglectedCache = neglectedCache;
+        this.statsCache = statsCache;
+        this.backfill = backfill;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!backfill) return;
+        int filled = activityRepo.backfillMissing(RECENT_DAYS);
+        if (filled > 0) log.info("Backfilled activity for {} categories", filled);
+    }
+
+    @Scheduled(cron = "${categories.activity.roll-cron:0 15 3 * * *}")
+    public void rollRecentWins() {
+        int rolled = activityRepo.rollRecentWins(RECENT_DAYS);
+        log.info("Recounted recent wins for {} categories", rolled);
+    }
+
+    @EventListener
+    public void onWinRecorded(WinRecordedEvent e) {
+        Pending pending = BeforeCommit.accumulator(PENDING_KEY, Pending::new, this::apply);
+        if (pending == null) {
+            Pending single = new Pending();
+            single.add(e);
+            apply(single);
+            return;
+        }
+        pending.add(e);
+    }
+
+    // recomputes the user's categories from their wins (win deleted, goal moved or deleted, category created)
+    public void refresh(Long userId, Collection<Long> categoryIds) {
+        activityRepo.refresh(categoryIds, RECENT_DAYS);
+        invalidate(userId);
+    }
+
+    // a category was renamed or removed, or gained a goal: the summary is unaffected (or follows via FK),
+    // only cached results go stale
+    public void categoryChanged(Long userId) {
+        invalidate(userId);
+    }
+
+    // a win's trophies changed: only the per-category totals move
+    public void statsChanged(Long userId) {
+        statsCache.invalidate(userId);
+    }
+
+    private void invalidate(Long userId) {
+        neglectedCache.invalidate(userId);
+        statsCache.invalidate(userId);
+    }
+
+    private void apply(Pending pending) {
+        pending.byGoal.forEach((goalId, t) -> activityRepo.recordWins(goalId, t.latest, t.wins, t.recent));
+        pending.users.forEach(this::invalidate);
+    }
+
+    // wins recorded by one transaction
+    private static final class Pending {
+        private final Map<Long, Tally> byGoal = new LinkedHashMap<>();
+        private final Set<Long> users = new HashSet<>();
+
+        void add(WinRecordedEvent e) {
+            if (e.userId() != null) users.add(e.userId());
+            if (e.goalId() == null || e.completionDate() == null) return; // undated wins never counted
+            byGoal.computeIfAbsent(e.goalId(), id -> new Tally()).add(e.completionDate());
+        }
+    }
+
+    private static final class Tally {
+        private OffsetDateTime latest;
+        private int wins;
+        private int recent;
+
+        void add(OffsetDateTime at) {
+            if (latest == null || at.isAfter(latest)) latest = at;
+            wins++;
+            if (!at.isBefore(OffsetDateTime.now().minusDays(RECENT_DAYS))) recent++;
+        }
+    }
+}
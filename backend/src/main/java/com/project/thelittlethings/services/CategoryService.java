@@ -2,16 +2,20 @@ package com.project.thelittlethings.services;
 
 import com.project.thelittlethings.MaterialisedView.CategoryNeglectedView;
 import com.project.thelittlethings.dto.categories.CategoryResponse;
+import com.project.thelittlethings.dto.categories.CategoryStats;
 import com.project.thelittlethings.dto.categories.CreateCategoryRequest;
 import com.project.thelittlethings.dto.categories.UpdateCategoryRequest;
 import com.project.thelittlethings.entities.Category;
 import com.project.thelittlethings.entities.User;
+import com.project.thelittlethings.repositories.CategoryActivityRepository;
 import com.project.thelittlethings.repositories.CategoryRepository;
 import com.project.thelittlethings.repositories.UserRepository;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
 @Service
@@ -19,10 +23,23 @@ public class CategoryService {
 
   private final CategoryRepository categoryRepo;
   private final UserRepository userRepo;
+  private final CategoryActivityRepository activityRepo;
+  private final CategoryActivityTracker categoryActivity;
+  private final NeglectedCategoryCache neglectedCache;
+  private final CategoryStatsCache statsCache;
 
-  public CategoryService(CategoryRepository categoryRepo, UserRepository userRepo) {
+  // cached results are re-checked at least this often, whatever the computed expiry
+  private static final Duration MAX_NEGLECTED_TTL = Duration.ofHours(1);
+
+  public CategoryService(CategoryRepository categoryRepo, UserRepository userRepo,
+      CategoryActivityRepository activityRepo, CategoryActivityTracker categoryActivity,
+      NeglectedCategoryCache neglectedCache, CategoryStatsCache statsCache) {
     this.categoryRepo = categoryRepo;
     this.userRepo = userRepo;
+    this.activityRepo = activityRepo;
+    this.categoryActivity = categoryActivity;
+    this.neglectedCache = neglectedCache;
+    this.statsCache = statsCache;
   }
 
   // Create a new category for a user
@@ -57,6 +74,7 @@ public class CategoryService {
 
     try {
       Category saved = categoryRepo.save(c);
+      categoryActivity.refresh(userId, List.of(saved.getCategoryId())); // starts its activity clock at creation
       return toResponse(saved);
     } catch (DataIntegrityViolationException e) {
       throw new IllegalArgumentException("category name already exists for this user");
@@ -68,8 +86,15 @@ public class CategoryService {
     if (!userRepo.existsById(userId))
       throw new IllegalArgumentException("user not found");
 
-    return categoryRepo.findByUser_UserId(userId)
-        .stream().map(this::toResponse).toList();
+    return categoryRepo.findResponsesByUserId(userId);
+  }
+
+  // Goal/win/trophy figures and last activity for all of a user's categories, one statement
+  @Transactional(readOnly = true)
+  public List<CategoryStats> statsByUser(Long userId) {
+    if (userId == null)
+      throw new IllegalArgumentException("userId is required");
+    return statsCache.get(userId, () -> categoryRepo.findStatsByUserId(userId));
   }
 
   // Get details of a specific category owned by a user
@@ -107,6 +132,7 @@ public class CategoryService {
     }
 
     try {
+      categoryActivity.categoryChanged(userId);
       return toResponse(categoryRepo.save(c));
     } catch (DataIntegrityViolationException e) {
       throw new IllegalArgumentException("category name already exists for this user");
@@ -119,12 +145,30 @@ public class CategoryService {
     Category c = categoryRepo.findByCategoryIdAndUser_UserId(categoryId, userId)
         .orElseThrow(() -> new IllegalArgumentException("category not found"));
     categoryRepo.delete(c);
+    categoryActivity.categoryChanged(userId);
   }
 
   // Get neglected categories for a user
   public List<CategoryNeglectedView> getNeglectedCategories(Long userId, Integer days) {
     int lookback = (days == null || days < 1) ? 14 : days;
-    return categoryRepo.findNeglectedCategories(userId, lookback);
+    return neglectedCache.get(userId, lookback, () -> {
+      List<CategoryNeglectedView> rows = categoryRepo.findNeglectedCategories(userId, lookback);
+      return new NeglectedCategoryCache.Loaded(rows, nextNeglectChange(userId, lookback, rows));
+    });
+  }
+
+  // The earliest instant the result can change without a mutation: a listed category's neglectDays
+  // ticks over, or a category that is still active crosses the lookback window.
+  private Instant nextNeglectChange(Long userId, int lookback, List<CategoryNeglectedView> rows) {
+    Instant next = Instant.now().plus(MAX_NEGLECTED_TTL);
+    for (CategoryNeglectedView row : rows) {
+      if (row.getLastWinAt() == null || row.getNeglectDays() == null) continue;
+      Instant tick = row.getLastWinAt().plus(Duration.ofDays(row.getNeglectDays()));
+      if (tick.isBefore(next)) next = tick;
+    }
+    Long crossing = activityRepo.findNextNeglectEpoch(userId, lookback);
+    if (crossing != null && Instant.ofEpochSecond(crossing).isBefore(next)) next = Instant.ofEpochSecond(crossing);
+    return next;
   }
 
   // Helper to convert Category entity to CategoryResponse DTO
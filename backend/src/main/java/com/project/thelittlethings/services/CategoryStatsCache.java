@@ -0,0 +1,75 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.dto.categories.CategoryStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Short-lived per-user cache for /api/categories/stats, so repeated loads of the categories page
+// within the TTL skip the aggregate. Whenever the user's categories, goals or wins change, the user's
+// slot is dropped after commit and marked dead (as in NeglectedCategoryCache), so a load that raced
+// the change is never stored. Bounded LRU over users; a TTL of 0 turns it off.
+@Component
+public class CategoryStatsCache {
+
+    static final int MAX_USERS = 10_000;
+
+    // one user's cached stats, guarded by `slots`
+    private static final class Slot {
+        private List<CategoryStats> stats;
+        private long expiresAtNanos;
+        private boolean invalidated;
+    }
+
+    private final Map<Long, Slot> slots = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Slot> eldest) {
+            return size() > MAX_USERS;
+        }
+    };
+    private final long ttlNanos;
+
+    public CategoryStatsCache(@Value("${categories.stats.cache-ttl-ms:5000}") long ttlMs) {
+        this.ttlNanos = Math.max(0, ttlMs) * 1_000_000L;
+    }
+
+    public List<CategoryStats> get(Long userId, Supplier<List<CategoryStats>> loader) {
+        if (ttlNanos == 0) return loader.get();
+        // taken before loading: an invalidation that lands during the load kills it, and the result is dropped
+        Slot slot;
+        synchronized (slots) {
+            slot = slots.computeIfAbsent(userId, id -> new Slot());
+            if (slot.stats != null && System.nanoTime() - slot.expiresAtNanos < 0) return slot.stats;
+        }
+
+        List<CategoryStats> stats = List.copyOf(loader.get());
+        synchronized (slots) {
+            if (!slot.invalidated) {
+                slot.stats = stats;
+                slot.expiresAtNanos = System.nanoTime() + ttlNanos;
+            }
+        }
+        return stats;
+    }
+
+    // drops the user's cached stats once the surrounding transaction commits
+    public void invalidate(Long userId) {
+        if (userId == null) return;
+        AfterCommit.run(() -> {
+            synchronized (slots) {
+                Slot slot = slots.remove(userId);
+                if (slot != null) slot.invalidated = true;
+            }
+        });
+    }
+
+    int size() {
+        synchronized (slots) {
+            return slots.size();
+        }
+    }
+}
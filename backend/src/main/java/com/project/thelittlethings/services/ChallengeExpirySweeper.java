@@ -0,0 +1,102 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.entities.FriendChallenge;
+import com.project.thelittlethings.repositories.FriendChallengeRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Expires friend challenges whose end date has passed and hands escrowed stakes back.
+// Ids are read in keyset chunks off idx_fc_status_end_id; each chunk is expired and refunded
+// by a single statement in its own short transaction, and chunks run in parallel.
+// A chunk that fails (e.g. a lock conflict on a busy user row) is simply picked up next sweep.
+@Component
+public class ChallengeExpirySweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(ChallengeExpirySweeper.class);
+
+    static final List<FriendChallenge.Status> OPEN = List.of(
+            FriendChallenge.Status.PROPOSED, FriendChallenge.Status.ACCEPTED, FriendChallenge.Status.ACTIVE);
+
+    private final FriendChallengeRepository challengeRepo;
+    private final LeaderboardIndex leaderboardIndex;
+    private final TransactionTemplate tx;
+    private final ExecutorService workers;
+    private final boolean enabled;
+    private final int chunkSize;
+
+    public ChallengeExpirySweeper(FriendChallengeRepository challengeRepo, LeaderboardIndex leaderboardIndex,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${challenges.expiry.enabled:true}") boolean enabled,
+                                  @Value("${challenges.expiry.chunk-size:500}") int chunkSize,
+                                  @Value("${challenges.expiry.threads:4}") int threads) {
+        this.challengeRepo = challengeRepo;
+        this.leaderboardIndex = leaderboardIndex;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads));
+        this.enabled = enabled;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Scheduled(fixedDelayString = "${challenges.expiry.sweep-ms:300000}")
+    public void sweep() {
+        if (enabled) expire(LocalDate.now());
+    }
+
+    // expires everything that ended before `today`; returns how many users were refunded
+    public int expire(LocalDate today) {
+        List<Future<Integer>> chunks = new ArrayList<>();
+        long afterId = 0L;
+        while (true) {
+            List<Long> ids = challengeRepo.findExpiredIds(OPEN, today, afterId, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) break;
+            chunks.add(workers.submit(() -> expireChunk(ids, today)));
+            afterId = ids.get(ids.size() - 1);
+            if (ids.size() < chunkSize) break;
+        }
+
+        int refunded = 0;
+        for (Future<Integer> chunk : chunks) {
+            try {
+                refunded += chunk.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return refunded;
+            } catch (Exception e) {
+                log.warn("Challenge expiry chunk failed, will retry next sweep: {}", e.getMessage());
+            }
+        }
+        if (!chunks.isEmpty()) log.info("Expired challenges in {} chunk(s), refunded {} user balance(s)", chunks.size(), refunded);
+        return refunded;
+    }
+
+    private int expireChunk(List<Long> ids, LocalDate today) {
+        AtomicInteger refunded = new AtomicInteger();
+        tx.executeWithoutResult(status -> {
+            for (FriendChallengeRepository.RefundedBalance b : challengeRepo.expireAndRefund(ids, today)) {
+                leaderboardIndex.updateTrophies(b.getUserId(), b.getTrophies()); // applied after commit
+                refunded.incrementAndGet();
+            }
+        });
+        return refunded.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
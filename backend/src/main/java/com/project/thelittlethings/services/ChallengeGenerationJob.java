@@ -0,0 +1,110 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.repositories.ChallengeBatchRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Nightly SUGGESTED challenges for every user without an open one, using the same sizing as
+// ChallengeService.generateFromWins. Instead of a count + exists + insert per user, one grouped
+// query finds all candidates with their 30-day win counts, and the rows are written as JDBC
+// batches, one chunk per short transaction, chunks in parallel. A failed chunk is picked up
+// by the next run; the insert guard keeps a rerun from doubling up.
+@Component
+public class ChallengeGenerationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ChallengeGenerationJob.class);
+
+    // outcome of one run, also kept for inspection via lastReport()
+    public record Report(int usersScanned, int created, int chunks, int failedChunks, long elapsedMs) {
+        public double usersPerSecond() {
+            return elapsedMs == 0 ? usersScanned : usersScanned * 1000.0 / elapsedMs;
+        }
+    }
+
+    private final ChallengeBatchRepository batchRepo;
+    private final TransactionTemplate tx;
+    private final ExecutorService workers;
+    private final boolean enabled;
+    private final int chunkSize;
+    private volatile Report lastReport;
+
+    public ChallengeGenerationJob(ChallengeBatchRepository batchRepo,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${challenges.generate.enabled:true}") boolean enabled,
+                                  @Value("${challenges.generate.chunk-size:1000}") int chunkSize,
+                                  @Value("${challenges.generate.threads:4}") int threads) {
+        this.batchRepo = batchRepo;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads));
+        this.enabled = enabled;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Scheduled(cron = "${challenges.generate.cron:0 30 3 * * *}")
+    public void nightly() {
+        if (enabled) generate(Instant.now());
+    }
+
+    public Report generate(Instant now) {
+        long started = System.nanoTime();
+        OffsetDateTime since = now.atOffset(ZoneOffset.UTC).minusDays(ChallengeService.RECENT_WINDOW_DAYS);
+        List<ChallengeBatchRepository.Candidate> candidates = batchRepo.findCandidates(since);
+
+        List<Future<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < candidates.size(); from += chunkSize) {
+            List<ChallengeBatchRepository.Suggestion> rows = candidates
+                    .subList(from, Math.min(from + chunkSize, candidates.size()))
+                    .stream().map(ChallengeGenerationJob::suggestionFor).toList();
+            chunks.add(workers.submit(() -> tx.execute(status -> batchRepo.insertSuggested(rows, now))));
+        }
+
+        int created = 0, failed = 0;
+        for (Future<Integer> chunk : chunks) {
+            try {
+                created += chunk.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                failed++;
+                log.warn("Challenge generation chunk failed, will retry next run: {}", e.getMessage());
+            }
+        }
+
+        Report report = new Report(candidates.size(), created, chunks.size(), failed,
+                (System.nanoTime() - started) / 1_000_000);
+        lastReport = report;
+        log.info("Generated {} challenge(s) for {} candidate user(s) in {} chunk(s) ({} failed), {} ms, {} users/s",
+                report.created(), report.usersScanned(), report.chunks(), report.failedChunks(),
+                report.elapsedMs(), String.format("%.1f", report.usersPerSecond()));
+        return report;
+    }
+
+    public Report lastReport() {
+        return lastReport;
+    }
+
+    static ChallengeBatchRepository.Suggestion suggestionFor(ChallengeBatchRepository.Candidate c) {
+        return ChallengeService.suggestionFor(c.userId(), c.recentWins());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,221 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.dto.challenges.ChallengeResponse;
+import com.project.thelittlethings.dto.challenges.ChallengeStatus;
+import com.project.thelittlethings.repositories.ChallengeRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Write-behind buffer for delta progress updates. The first delta loads the challenge once; later
+// ones only add to an in-memory running sum, and the raw sum is written by one guarded UPDATE on the
+// flush interval, after `threshold` updates, as soon as the projection reaches progressTotal, or on
+// shutdown. The loaded row can go stale (wins advance the same challenge), so clamping and completion
+// are left to the database statement, which also pays the reward once; until then callers see the
+// projected progress on a still ACTIVE challenge. Each flush runs in its own
+// transaction; one that fails is put back and retried by the next flush.
+@Component
+public class ChallengeProgressBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ChallengeProgressBuffer.class);
+    static final int MAX_ATTEMPTS = 5;
+
+    private final ChallengeRepository challengeRepo;
+    private final LeaderboardIndex leaderboardIndex;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final int threshold;
+
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    public ChallengeProgressBuffer(ChallengeRepository challengeRepo, LeaderboardIndex leaderboardIndex,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${challenges.progress.buffer.enabled:true}") boolean enabled,
+                                   @Value("${challenges.progress.buffer.threshold:20}") int threshold) {
+        this.challengeRepo = challengeRepo;
+        this.leaderboardIndex = leaderboardIndex;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.threshold = Math.max(1, threshold);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Buffers one delta and returns the challenge with the projected progress, still ACTIVE.
+    // `loader` fetches the owned challenge (and throws if it isn't) when nothing is buffered for it yet.
+    public ChallengeResponse add(Long challengeId, Long userId, int delta, Supplier<ChallengeResponse> loader) {
+        while (true) {
+            Pending p = pending.get(challengeId);
+            if (p == null || !p.userId.equals(userId)) {
+                ChallengeResponse loaded = loader.get();
+                if (loaded.getStatus() != ChallengeStatus.ACTIVE) {
+                    throw new IllegalStateException("Only active challenges can be progressed");
+                }
+                p = pending.computeIfAbsent(challengeId, id -> new Pending(userId, loaded));
+                if (!p.userId.equals(userId)) continue;
+            }
+            ChallengeResponse view;
+            boolean flushNow;
+            synchronized (p) {
+                if (p.flushed) continue; // lost a race with flush, start a fresh entry
+                p.step(delta);
+                view = p.view();
+                flushNow = p.reachesTotal() || p.updates >= threshold;
+            }
+            if (flushNow) {
+                try {
+                    flush(challengeId);
+                } catch (RuntimeException e) {
+                    log.warn("Buffered progress for challenge {} not written yet, will retry: {}", challengeId, e.getMessage());
+                }
+            }
+            return view;
+        }
+    }
+
+    // shows buffered progress on a freshly read challenge
+    public ChallengeResponse overlay(ChallengeResponse dto) {
+        Pending p = pending.get(dto.getId());
+        if (p == null || dto.getStatus() != ChallengeStatus.ACTIVE) return dto;
+        synchronized (p) {
+            if (!p.flushed) dto.setProgressCurrent(p.projected);
+        }
+        return dto;
+    }
+
+    // writes whatever is buffered for the challenge in its own transaction; on failure the delta is
+    // put back for the next flush and the exception rethrown
+    public void flush(Long challengeId) {
+        Pending p = pending.remove(challengeId);
+        if (p == null) return;
+        int delta;
+        synchronized (p) {
+            p.flushed = true;
+            delta = p.delta;
+        }
+        if (delta == 0) return;
+        try {
+            tx.executeWithoutResult(status -> challengeRepo.applyProgressDelta(challengeId, p.userId, delta)
+                    .ifPresent(total -> leaderboardIndex.updateTrophies(p.userId, total))); // applied after commit
+        } catch (RuntimeException e) {
+            requeue(challengeId, p);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${challenges.progress.buffer.flush-ms:1000}")
+    public void flushAll() {
+        for (Long id : pending.keySet()) {
+            try {
+                flush(id);
+            } catch (RuntimeException e) {
+                log.warn("Flushing progress for challenge {} failed, will retry: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    // puts an unwritten delta back, merging it into anything buffered since
+    private void requeue(Long challengeId, Pending failed) {
+        if (failed.attempts + 1 >= MAX_ATTEMPTS) {
+            log.error("Giving up on {} buffered progress for challenge {} after {} attempts",
+                    failed.delta, challengeId, MAX_ATTEMPTS);
+            return;
+        }
+        pending.compute(challengeId, (id, current) -> {
+            Pending retry = failed.retry();
+            if (current == null) return retry;
+            synchronized (current) {
+                if (current.flushed) return retry;
+                current.absorb(retry);
+                return current;
+            }
+        });
+    }
+
+    @PreDestroy
+    public void drain() {
+        flushAll();
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    // Buffered progress for one challenge; `projected` is only for display, from the row as first loaded.
+    private static final class Pending {
+        private final Long userId;
+        private final ChallengeResponse loaded;
+        private int projected;
+        private int delta;   // raw sum of the buffered deltas, clamped by the UPDATE that writes it
+        private int updates;
+        private int attempts;  // failed flushes so far
+        private boolean flushed;
+
+        Pending(Long userId, ChallengeResponse loaded) {
+            this.userId = userId;
+            this.loaded = loaded;
+            this.projected = loaded.getProgressCurrent();
+        }
+
+        // an unflushed copy carrying the same change, for another attempt
+        Pending retry() {
+            Pending p = new Pending(userId, loaded);
+            p.delta = delta;
+            p.updates = updates;
+            p.attempts = attempts + 1;
+            p.project();
+            return p;
+        }
+
+        // folds in a failed earlier delta; this entry was loaded after it, so it isn't counted yet
+        void absorb(Pending earlier) {
+            delta += earlier.delta;
+            attempts = Math.max(attempts, earlier.attempts);
+            project();
+        }
+
+        void step(int d) {
+            delta += d;
+            updates++;
+            project();
+        }
+
+        private void project() {
+            projected = Math.max(0, Math.min(loaded.getProgressCurrent() + delta, loaded.getProgressTotal()));
+        }
+
+        boolean reachesTotal() {
+            return projected >= loaded.getProgressTotal();
+        }
+
+        // stays ACTIVE: only the flushing UPDATE decides completion
+        ChallengeResponse view() {
+            ChallengeResponse v = new ChallengeResponse();
+            v.setId(loaded.getId());
+            v.setTitle(loaded.getTitle());
+            v.setDescription(loaded.getDescription());
+            v.setReward(loaded.getReward());
+            v.setProgressCurrent(projected);
+            v.setProgressTotal(loaded.getProgressTotal());
+            v.setStatus(ChallengeStatus.ACTIVE);
+            v.setSource(loaded.getSource());
+            v.setCreatedAt(loaded.getCreatedAt());
+            v.setUpdatedAt(Instant.now());
+            return v;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.repositories.ChallengeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Advances solo challenges from recorded wins, so clients no longer call updateProgress after each win.
+// Wins are tallied per user for the life of the transaction that records them (a batch of wins is one
+// tally) and applied just before it commits, one set-based update per user. Progress and any reward
+// therefore commit or roll back together with the wins themselves.
+@Component
+public class ChallengeProgressTracker {
+
+    private static final Object PENDING_KEY = ChallengeProgressTracker.class.getName() + ".pending";
+
+    private final ChallengeRepository challengeRepo;
+    private final LeaderboardIndex leaderboardIndex;
+    private final boolean enabled;
+
+    public ChallengeProgressTracker(ChallengeRepository challengeRepo, LeaderboardIndex leaderboardIndex,
+                                    @Value("${challenges.progress.from-wins:true}") boolean enabled) {
+        this.challengeRepo = challengeRepo;
+        this.leaderboardIndex = leaderboardIndex;
+        this.enabled = enabled;
+    }
+
+    @EventListener
+    public void onWinRecorded(WinRecordedEvent e) {
+        if (!enabled || e.userId() == null) return;
+        Map<Long, Integer> pending = BeforeCommit.accumulator(PENDING_KEY, LinkedHashMap::new, this::apply);
+        if (pending == null) {
+            apply(Map.of(e.userId(), 1));
+            return;
+        }
+        pending.merge(e.userId(), 1, Integer::sum);
+    }
+
+    private void apply(Map<Long, Integer> winsByUser) {
+        winsByUser.forEach((userId, wins) -> challengeRepo.advanceActiveAndPay(userId, wins)
+                .ifPresent(total -> leaderboardIndex.updateTrophies(userId, total))); // applied after commit
+    }
+}
@@ -4,7 +4,7 @@ import com.project.thelittlethings.dto.challenges.ChallengeResponse;
 import com.project.thelittlethings.dto.challenges.ChallengeStatus;
 import com.project.thelittlethings.dto.challenges.UpdateChallengeRequest;
 import com.project.thelittlethings.entities.Challenge;
-import com.project.thelittlethings.entities.User;
+import com.project.thelittlethings.repositories.ChallengeBatchRepository;
 import com.project.thelittlethings.repositories.ChallengeRepository;
 import com.project.thelittlethings.repositories.UserRepository;
 import com.project.thelittlethings.repositories.WinRepository;
@@ -18,6 +18,7 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +27,30 @@ public class ChallengeService {
     private final ChallengeRepository challengeRepo;
     private final UserRepository userRepo;
     private final WinRepository winRepo; // used for generation from past wins
+    private final ChallengeProgressBuffer progressBuffer;
+    private final LeaderboardIndex leaderboardIndex;
+    private final ChallengeBatchRepository batchRepo;
+
+    // shared with ChallengeGenerationJob so on-demand and nightly suggestions look the same
+    static final String GENERATED_TITLE = "Keep the streak going";
+    static final String GENERATED_DESCRIPTION = "Complete small wins inspired by your recent activity.";
+    static final String GENERATED_SOURCE = "SYSTEM_FROM_WINS";
+    static final int RECENT_WINDOW_DAYS = 30;
+
+    // nudge slightly above recent behaviour
+    static int targetFor(long recentWins) {
+        return Math.max(3, Math.min(10, (int) recentWins + 2));
+    }
+
+    static int rewardFor(int target) {
+        return Math.max(5, target); // simple reward baseline
+    }
+
+    static ChallengeBatchRepository.Suggestion suggestionFor(long userId, long recentWins) {
+        int target = targetFor(recentWins);
+        return new ChallengeBatchRepository.Suggestion(userId, GENERATED_TITLE, GENERATED_DESCRIPTION,
+                rewardFor(target), target, GENERATED_SOURCE);
+    }
 
     // ---------- Queries ----------
 
@@ -34,6 +59,7 @@ public class ChallengeService {
         ChallengeStatus status = parseStatus(statusStr, ChallengeStatus.ACTIVE);
         return challengeRepo.findAllByUser_UserIdAndStatus(userId, status).stream()
                 .map(this::toDto)
+                .map(progressBuffer::overlay)
                 .toList();
     }
 
@@ -41,7 +67,7 @@ public class ChallengeService {
     public ChallengeResponse getAssigned(Long id, Long userId) {
         Challenge ch = challengeRepo.findByIdAndUser_UserId(id, userId)
                 .orElseThrow(() -> new EntityNotFoundException("Challenge not found"));
-        return toDto(ch);
+        return progressBuffer.overlay(toDto(ch));
     }
 
     // ---------- Commands ----------
@@ -69,29 +95,28 @@ public class ChallengeService {
 
     @Transactional
     public ChallengeResponse updateProgress(Long id, Long userId, UpdateChallengeRequest req) {
+        // plain deltas are coalesced in memory and written behind
+        if (req.getCurrent() == null && req.getDelta() != null && progressBuffer.isEnabled()) {
+            return progressBuffer.add(id, userId, req.getDelta(), () -> toDto(requireOwned(id, userId)));
+        }
+        progressBuffer.flush(id); // an absolute value applies on top of anything still buffered
+
         Challenge ch = requireOwned(id, userId);
         if (ch.getStatus() != ChallengeStatus.ACTIVE) {
             throw new IllegalStateException("Only active challenges can be progressed");
         }
 
+        int next = ch.getProgressCurrent();
         if (req.getCurrent() != null) {
-            ch.setProgressCurrent(Math.max(0, Math.min(req.getCurrent(), ch.getProgressTotal())));
+            next = Math.max(0, Math.min(req.getCurrent(), ch.getProgressTotal()));
         }
         if (req.getDelta() != null) {
-            int next = ch.getProgressCurrent() + req.getDelta();
-            ch.setProgressCurrent(Math.max(0, Math.min(next, ch.getProgressTotal())));
-        }
-
-        // auto-complete if reached total
-        if (ch.getProgressCurrent() >= ch.getProgressTotal()) {
-            ch.setStatus(ChallengeStatus.COMPLETED);
-            // give trophies to user
-            // user.addTrophies(ch.getReward());
+            next = Math.max(0, Math.min(next + req.getDelta(), ch.getProgressTotal()));
         }
 
-        ch.setUpdatedAt(Instant.now());
-        challengeRepo.save(ch);
-        return toDto(ch);
+        // written as a delta through the guarded statement, which completes the challenge and pays once
+        paid(userId, challengeRepo.applyProgressDelta(id, userId, next - ch.getProgressCurrent()));
+        return withProgress(ch, next);
     }
 
     @Transactional
@@ -100,12 +125,9 @@ public class ChallengeService {
         if (ch.getStatus() != ChallengeStatus.ACTIVE && ch.getStatus() != ChallengeStatus.SUGGESTED) {
             return toDto(ch);
         }
-        ch.setProgressCurrent(ch.getProgressTotal());
-        ch.setStatus(ChallengeStatus.COMPLETED);
-        ch.setUpdatedAt(Instant.now());
-        // give trophies to user if not done yet
-        challengeRepo.save(ch);
-        return toDto(ch);
+        progressBuffer.flush(id);
+        paid(userId, challengeRepo.completeAndPay(id, userId));
+        return withProgress(ch, ch.getProgressTotal());
     }
 
     @Transactional
@@ -123,35 +145,21 @@ public class ChallengeService {
      */
     @Transactional
     public List<ChallengeResponse> generateFromWins(Long userId) {
-        User user = userRepo.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        if (!userRepo.existsById(userId)) throw new EntityNotFoundException("User not found");
 
         // Very basic heuristic: use count of wins to propose a challenge.
         // Replace with your real logic (e.g., top category in last 30 days).
-        OffsetDateTime since = OffsetDateTime.now(ZoneOffset.UTC).minusDays(30);
+        OffsetDateTime since = OffsetDateTime.now(ZoneOffset.UTC).minusDays(RECENT_WINDOW_DAYS);
         long recentWins = winRepo.countByUser_UserIdAndCompletionDateAfter(userId, since);
         
-        int goal = Math.max(3, Math.min(10, (int) recentWins + 2)); // nudge slightly above recent behaviour
-
-
-        // Upsert a suggested challenge if none active/suggested
+        // Upsert a suggested challenge if none active/suggested. Same guarded insert as the nightly job,
+        // so racing it (or another request) just creates nothing instead of failing on uq_challenges_user_open
         boolean exists = challengeRepo.existsByUser_UserIdAndStatusIn(
                 userId,
                 List.of(ChallengeStatus.SUGGESTED, ChallengeStatus.ACTIVE)
         );
         if (!exists) {
-            Challenge ch = new Challenge();
-            ch.setUser(user);
-            ch.setTitle("Keep the streak going");
-            ch.setDescription("Complete small wins inspired by your recent activity.");
-            ch.setReward(Math.max(5, goal)); // simple reward baseline
-            ch.setProgressCurrent(0);
-            ch.setProgressTotal(goal);
-            ch.setStatus(ChallengeStatus.SUGGESTED);
-            ch.setSource("SYSTEM_FROM_WINS");
-            ch.setCreatedAt(Instant.now());
-            ch.setUpdatedAt(Instant.now());
-            challengeRepo.save(ch);
+            batchRepo.insertSuggested(List.of(suggestionFor(userId, recentWins)), Instant.now());
         }
 
         return challengeRepo.findAllByUser_UserIdAndStatusIn(
@@ -169,6 +177,19 @@ public class ChallengeService {
                 .orElseThrow(() -> new EntityNotFoundException("Challenge not found"));
     }
 
+    private void paid(Long userId, Optional<Integer> trophies) {
+        trophies.ifPresent(total -> leaderboardIndex.updateTrophies(userId, total)); // applied after commit
+    }
+
+    // the row was changed by a native statement, so the response is built from the loaded copy
+    private ChallengeResponse withProgress(Challenge ch, int current) {
+        ChallengeResponse dto = toDto(ch);
+        dto.setProgressCurrent(current);
+        if (current >= ch.getProgressTotal()) dto.setStatus(ChallengeStatus.COMPLETED);
+        dto.setUpdatedAt(Instant.now());
+        return dto;
+    }
+
     private ChallengeStatus parseStatus(String raw, ChallengeStatus fallback) {
         try {
             return ChallengeStatus.valueOf(raw.toUpperCase());
@@ -0,0 +1,234 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.entities.Friendship;
+import com.project.thelittlethings.repositories.FriendshipRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-process copy of the accepted friendships: user id -> sorted array of friend ids.
+// Loaded once at startup and kept current by FriendService after each commit, so
+// friendship checks, counts and friend lists never go to the database.
+// Edge changes that land while a reload is reading its snapshot are replayed on top of it
+// (adding or removing an edge twice is a no-op), so the swap never loses them.
+@Component
+public class FriendGraph {
+
+    private static final long[] NONE = new long[0];
+
+    private final FriendshipRepository friendshipRepository;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, long[]> adjacency = new HashMap<>();
+    private volatile boolean ready;
+    private List<Runnable> replay; // writes seen since the current reload started, guarded by lock
+
+    public FriendGraph(FriendshipRepository friendshipRepository,
+                       @Value("${friends.graph.enabled:true}") boolean enabled) {
+        this.friendshipRepository = friendshipRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) return;
+        startRecording();
+        try {
+            load(friendshipRepository.findPairsByStatus(Friendship.Status.ACCEPTED));
+        } finally {
+            stopRecording(); // no-op after a successful load, which already replayed
+        }
+    }
+
+    // replaces the whole graph with the given accepted pairs
+    public void load(List<FriendshipRepository.FriendPair> pairs) {
+        // count degrees first so every array is allocated once at its final size
+        Map<Long, Integer> degree = new HashMap<>();
+        for (FriendshipRepository.FriendPair p : pairs) {
+            degree.merge(p.getUserAId(), 1, Integer::sum);
+            degree.merge(p.getUserBId(), 1, Integer::sum);
+        }
+        Map<Long, long[]> built = new HashMap<>(degree.size() * 2);
+        Map<Long, Integer> fill = new HashMap<>(degree.size() * 2);
+        for (FriendshipRepository.FriendPair p : pairs) {
+            append(built, fill, degree, p.getUserAId(), p.getUserBId());
+            append(built, fill, degree, p.getUserBId(), p.getUserAId());
+        }
+        built.values().forEach(Arrays::sort);
+
+        lock.writeLock().lock();
+        try {
+            adjacency.clear();
+            adjacency.putAll(built);
+            if (replay != null) {
+                replay.forEach(Runnable::run);
+                replay = null;
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    // ---------- Reads ----------
+
+    public boolean areFriends(Long a, Long b) {
+        if (a == null || b == null) return false;
+        lock.readLock().lock();
+        try {
+            long[] friends = adjacency.get(a);
+            return friends != null && Arrays.binarySearch(friends, b) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int friendCount(Long userId) {
+        lock.readLock().lock();
+        try {
+            long[] friends = adjacency.get(userId);
+            return friends == null ? 0 : friends.length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ascending friend ids (a copy, safe to keep)
+    public long[] friendsOf(Long userId) {
+        lock.readLock().lock();
+        try {
+            long[] friends = adjacency.get(userId);
+            return friends == null ? NONE : friends.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // friends-of-friends of userId (excluding the user and existing friends) -> number of mutual friends.
+    // Stops after maxEdges adjacency entries so very connected users still get a bounded answer.
+    public Map<Long, Integer> mutualCounts(Long userId, int maxEdges) {
+        lock.readLock().lock();
+        try {
+            long[] mine = adjacency.getOrDefault(userId, NONE);
+            Map<Long, Integer> counts = new HashMap<>();
+            int scanned = 0;
+            for (long friend : mine) {
+                for (long candidate : adjacency.getOrDefault(friend, NONE)) {
+                    if (++scanned > maxEdges) return counts;
+                    if (candidate == userId || Arrays.binarySearch(mine, candidate) >= 0) continue;
+                    counts.merge(candidate, 1, Integer::sum);
+                }
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------- Writes (applied after the surrounding transaction commits) ----------
+
+    public void addFriendship(Long a, Long b) {
+        if (a == null || b == null) return;
+        AfterCommit.run(() -> write(() -> {
+            insert(a, b);
+            insert(b, a);
+        }));
+    }
+
+    public void removeFriendship(Long a, Long b) {
+        if (a == null || b == null) return;
+        AfterCommit.run(() -> write(() -> {
+            delete(a, b);
+            delete(b, a);
+        }));
+    }
+
+    // drops a deleted user and every edge pointing at them
+    public void removeUser(Long userId) {
+        if (userId == null) return;
+        AfterCommit.run(() -> write(() -> {
+            long[] friends = adjacency.remove(userId);
+            if (friends != null) {
+                for (long f : friends) delete(f, userId);
+            }
+        }));
+    }
+
+    // ---------- Helpers ----------
+
+    // applies a write under the lock, and keeps it for replay if a reload is in progress
+    private void write(Runnable op) {
+        lock.writeLock().lock();
+        try {
+            op.run();
+            if (replay != null) replay.add(op);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void startRecording() {
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void stopRecording() {
+        lock.writeLock().lock();
+        try {
+            replay = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void append(Map<Long, long[]> built, Map<Long, Integer> fill, Map<Long, Integer> degree,
+                               Long from, Long to) {
+        long[] arr = built.computeIfAbsent(from, k -> new long[degree.get(k)]);
+        int at = fill.merge(from, 1, Integer::sum) - 1;
+        arr[at] = to;
+    }
+
+    private void insert(long from, long to) {
+        long[] friends = adjacency.getOrDefault(from, NONE);
+        int i = Arrays.binarySearch(friends, to);
+        if (i >= 0) return;
+        int at = -(i + 1);
+        long[] next = new long[friends.length + 1];
+        System.arraycopy(friends, 0, next, 0, at);
+        next[at] = to;
+        System.arraycopy(friends, at, next, at + 1, friends.length - at);
+        adjacency.put(from, next);
+    }
+
+    private void delete(long from, long to) {
+        long[] friends = adjacency.get(from);
+        if (friends == null) return;
+        int at = Arrays.binarySearch(friends, to);
+        if (at < 0) return;
+        if (friends.length == 1) {
+            adjacency.remove(from);
+            return;
+        }
+        long[] next = new long[friends.length - 1];
+        System.arraycopy(friends, 0, next, 0, at);
+        System.arraycopy(friends, at + 1, next, at, friends.length - at - 1);
+        adjacency.put(from, next);
+    }
+}
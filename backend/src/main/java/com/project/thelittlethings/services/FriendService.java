@@ -1,5 +1,9 @@
 package com.project.thelittlethings.services;
 
+import com.project.thelittlethings.View.FriendshipView;
+import com.project.thelittlethings.dto.friends.FriendNotification;
+import com.project.thelittlethings.dto.friends.FriendSuggestion;
+import com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO;
 import com.project.thelittlethings.entities.*;
 import com.project.thelittlethings.repositories.*;
 import com.project.thelittlethings.repositories.FriendChallengeRepository;
@@ -7,6 +11,7 @@ import com.project.thelittlethings.repositories.FriendshipRepository;
 import com.project.thelittlethings.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +26,10 @@ public class FriendService {
     private final FriendshipRepository friendshipRepo;
     private final UserRepository userRepo;
     private final FriendChallengeRepository challengeRepo;
+    private final LeaderboardIndex leaderboardIndex;
+    private final FriendGraph friendGraph;
+    private final NotificationHub notifications;
+    private final ActivityFeed activityFeed;
 
     // utility: canonical order (userA < userB)
     private User[] order(User u1, User u2) {
@@ -53,7 +62,7 @@ public class FriendService {
             f.setRequestedAt(OffsetDateTime.now());  // FIX: set timestamps
             // updatedAt will be set by @PreUpdate if you have it, but set explicitly too:
             f.setUpdatedAt(OffsetDateTime.now());
-            return friendshipRepo.save(f);
+            return requestSent(friendshipRepo.save(f), targetId);
         }
 
         try {
@@ -64,7 +73,7 @@ public class FriendService {
                     .requestedAt(OffsetDateTime.now())  // FIX: set timestamps
                     .updatedAt(OffsetDateTime.now())
                     .build();
-            return friendshipRepo.save(f);
+            return requestSent(friendshipRepo.save(f), targetId);
         } catch (DataIntegrityViolationException ex) {
             // Race: another request inserted the same row first
             Friendship f = friendshipRepo.findByUserAAndUserB(pair[0], pair[1])
@@ -78,7 +87,7 @@ public class FriendService {
             f.setRespondedAt(null);
             f.setRequestedAt(OffsetDateTime.now());
             f.setUpdatedAt(OffsetDateTime.now());
-            return friendshipRepo.save(f);
+            return requestSent(friendshipRepo.save(f), targetId);
         }
     }
 
@@ -98,7 +107,11 @@ public class FriendService {
         f.setRespondedBy(me);
         f.setRespondedAt(OffsetDateTime.now());
         f.setUpdatedAt(OffsetDateTime.now());
-        return friendshipRepo.save(f);
+        Friendship saved = friendshipRepo.save(f);
+        friendGraph.addFriendship(meId, otherId);
+        activityFeed.friendshipChanged(meId, otherId);
+        push(otherId, FriendNotification.FRIEND_ACCEPTED, saved.getId(), meId);
+        return saved;
     }
 
     @Transactional
@@ -149,17 +162,83 @@ public class FriendService {
                 .orElseThrow(() -> new IllegalArgumentException("Friendship not found"));
         if (f.getStatus() != Friendship.Status.ACCEPTED) throw new IllegalArgumentException("Not friends");
         friendshipRepo.delete(f);
+        friendGraph.removeFriendship(meId, friendId);
+        activityFeed.friendshipChanged(meId, friendId);
     }
 
-    public List<Friendship> listAccepted(Long meId) {
-        User me = userRepo.findById(meId).orElseThrow(() -> new IllegalArgumentException("User not found"));
-        return friendshipRepo.findByUserAOrUserBAndStatus(me, me, Friendship.Status.ACCEPTED);
+    static final int MAX_FRIEND_PAGE = 200;
+
+    // accepted friends with their summaries, one statement per page
+    public List<FriendshipView> listAccepted(Long meId, int page, int size) {
+        if (!userRepo.existsById(meId)) throw new IllegalArgumentException("User not found");
+        return friendshipRepo.findRowsByStatus(meId, Friendship.Status.ACCEPTED, friendPage(page, size));
     }
 
-    public List<Friendship> pendingIncoming(Long meId) {
-        User me = userRepo.findById(meId).orElseThrow(() -> new IllegalArgumentException("User not found"));
-        return friendshipRepo.findByStatusAndRequestedByNotAndUserAOrUserB(
-                Friendship.Status.PENDING, me, me, me);
+    public List<FriendshipView> pendingIncoming(Long meId, int page, int size) {
+        if (!userRepo.existsById(meId)) throw new IllegalArgumentException("User not found");
+        return friendshipRepo.findIncomingRows(meId, friendPage(page, size));
+    }
+
+    static final int MAX_SUGGESTIONS = 50;
+    // adjacency entries scanned per suggestion request, keeps latency flat for very connected users
+    static final int SUGGESTION_SCAN_LIMIT = 50_000;
+
+    // "people you may know": friends of friends ranked by mutual friends, then same region, then trophies.
+    // Counting runs on the in-memory FriendGraph; only pending requests come from the database.
+    public List<FriendSuggestion> suggestFriends(Long meId, int limit) {
+        int n = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        if (!friendGraph.isReady()) return List.of();
+
+        Map<Long, Integer> mutual = friendGraph.mutualCounts(meId, SUGGESTION_SCAN_LIMIT);
+        if (mutual.isEmpty()) return List.of();
+        friendshipRepo.findPendingPartnerIds(meId).forEach(mutual::remove);
+
+        Map<Long, LeaderboardUserDTO> info = lookupUsers(meId, mutual.keySet());
+        LeaderboardUserDTO me = info.get(meId);
+        String myRegion = me == null ? null : me.getRegion();
+
+        List<FriendSuggestion> out = new ArrayList<>();
+        for (Map.Entry<Long, Integer> e : mutual.entrySet()) {
+            LeaderboardUserDTO u = info.get(e.getKey());
+            if (u == null) continue; // deleted since the graph was updated
+            out.add(FriendSuggestion.builder()
+                    .userId(u.getUserId())
+                    .username(u.getUsername())
+                    .region(u.getRegion())
+                    .trophies(u.getTrophies())
+                    .mutualFriends(e.getValue())
+                    .sameRegion(myRegion != null && myRegion.equals(u.getRegion()))
+                    .build());
+        }
+        out.sort(Comparator.comparingInt(FriendSuggestion::getMutualFriends).reversed()
+                .thenComparing(FriendSuggestion::isSameRegion, Comparator.reverseOrder())
+                .thenComparing(FriendSuggestion::getTrophies, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(FriendSuggestion::getUserId));
+        return out.size() > n ? out.subList(0, n) : out;
+    }
+
+    // username/region/trophies for me + candidates, from the leaderboard index when it is loaded
+    private Map<Long, LeaderboardUserDTO> lookupUsers(Long meId, Collection<Long> ids) {
+        Map<Long, LeaderboardUserDTO> out = new HashMap<>();
+        if (leaderboardIndex.isReady()) {
+            LeaderboardUserDTO me = leaderboardIndex.entryOf(meId);
+            if (me != null) out.put(meId, me);
+            for (Long id : ids) {
+                LeaderboardUserDTO u = leaderboardIndex.entryOf(id);
+                if (u != null) out.put(id, u);
+            }
+            return out;
+        }
+        List<Long> all = new ArrayList<>(ids);
+        all.add(meId);
+        for (User u : userRepo.findAllById(all))
+            out.put(u.getUserId(), new LeaderboardUserDTO(u.getUserId(), u.getUsername(), u.getRegion(), u.getTrophies()));
+        return out;
+    }
+
+    private static PageRequest friendPage(int page, int size) {
+        if (page < 0) throw new IllegalArgumentException("page must be >= 0");
+        return PageRequest.of(page, Math.min(Math.max(size, 1), MAX_FRIEND_PAGE));
     }
 
     @Transactional
@@ -190,7 +269,7 @@ public class FriendService {
             f.setRespondedAt(null);
             f.setRequestedAt(OffsetDateTime.now());  // FIX: set timestamps
             f.setUpdatedAt(OffsetDateTime.now());
-            return friendshipRepo.save(f);
+            return requestSent(friendshipRepo.save(f), target.getUserId());
         }
 
         try {
@@ -201,7 +280,7 @@ public class FriendService {
                 .requestedAt(OffsetDateTime.now())  // FIX: set timestamps
                 .updatedAt(OffsetDateTime.now())
                 .build();
-            return friendshipRepo.save(f);
+            return requestSent(friendshipRepo.save(f), target.getUserId());
         } catch (DataIntegrityViolationException ex) {
             Friendship f = friendshipRepo.findByUserAAndUserB(pair[0], pair[1])
                 .orElseThrow(() -> ex);
@@ -213,13 +292,21 @@ public class FriendService {
             f.setRespondedAt(null);
             f.setRequestedAt(OffsetDateTime.now());
             f.setUpdatedAt(OffsetDateTime.now());
-            return friendshipRepo.save(f);
+            return requestSent(friendshipRepo.save(f), target.getUserId());
         }
     }
 
     /* ---------------- Challenges ---------------- */
 
+    private static final List<FriendChallenge.Status> OPEN_CHALLENGES = List.of(
+        FriendChallenge.Status.PROPOSED,
+        FriendChallenge.Status.ACCEPTED,
+        FriendChallenge.Status.ACTIVE,
+        FriendChallenge.Status.COMPLETION_REQUESTED
+    );
+
     private boolean areFriends(User u1, User u2) {
+        if (friendGraph.isReady()) return friendGraph.areFriends(u1.getUserId(), u2.getUserId());
         User[] pair = order(u1, u2);
         return friendshipRepo.findByUserAAndUserB(pair[0], pair[1])
                 .filter(f -> f.getStatus() == Friendship.Status.ACCEPTED)
@@ -252,13 +339,15 @@ public class FriendService {
                 .escrowed(false)
                 .build();
 
-        return challengeRepo.save(fc);
+        FriendChallenge saved = challengeRepo.save(fc);
+        push(opponentId, FriendNotification.CHALLENGE_PROPOSED, saved.getId(), challengerId);
+        return saved;
     }
 
 
     @Transactional
     public FriendChallenge acceptChallenge(Long meId, Long challengeId) {
-        FriendChallenge fc = challengeRepo.findById(challengeId)
+        FriendChallenge fc = challengeRepo.findByIdForUpdate(challengeId)
                 .orElseThrow(() -> new IllegalArgumentException("Challenge not found"));
         if (!fc.getOpponent().getUserId().equals(meId))
             throw new IllegalArgumentException("Only opponent can accept");
@@ -269,25 +358,23 @@ public class FriendService {
         User o = fc.getOpponent();
         int s = java.util.Optional.ofNullable(fc.getTrophiesStake()).orElse(0);
 
-        // both must be able to pay the stake now
-        if (trophiesOf(c) < s) throw new IllegalArgumentException("Challenger has insufficient trophies now");
-        if (trophiesOf(o) < s) throw new IllegalArgumentException("You have insufficient trophies to accept");
-
-        // escrow: deduct from both
-        addTrophies(c, -s);
-        addTrophies(o, -s);
-        userRepo.save(c);
-        userRepo.save(o);
+        // escrow: deduct from both, each guarded so nobody can go below the stake;
+        // if the second one fails the whole transaction (and the first deduction) rolls back
+        if (s > 0) {
+            escrow(c.getUserId(), s, "Challenger has insufficient trophies now");
+            escrow(o.getUserId(), s, "You have insufficient trophies to accept");
+        }
 
         fc.setStatus(FriendChallenge.Status.ACCEPTED);
         fc.setEscrowed(true);
         fc.setUpdatedAt(java.time.OffsetDateTime.now());
+        push(c.getUserId(), FriendNotification.CHALLENGE_ACCEPTED, fc.getId(), meId);
         return challengeRepo.save(fc);
     }
 
     @Transactional
     public FriendChallenge declineChallenge(Long meId, Long challengeId) {
-        FriendChallenge fc = challengeRepo.findById(challengeId)
+        FriendChallenge fc = challengeRepo.findByIdForUpdate(challengeId)
                 .orElseThrow(() -> new IllegalArgumentException("Challenge not found"));
         if (!fc.getOpponent().getUserId().equals(meId))
             throw new IllegalArgumentException("Only opponent can decline");
@@ -301,7 +388,8 @@ public class FriendService {
 
     @Transactional
     public FriendChallenge completeChallenge(Long winnerId, Long challengeId) {
-        FriendChallenge fc = challengeRepo.findById(challengeId)
+        // locked so two concurrent completions can't both see an open challenge and both move stakes
+        FriendChallenge fc = challengeRepo.findByIdForUpdate(challengeId)
                 .orElseThrow(() -> new IllegalArgumentException("Challenge not found"));
         if (fc.getStatus() != FriendChallenge.Status.ACCEPTED && fc.getStatus() != FriendChallenge.Status.ACTIVE)
             throw new IllegalArgumentException("Challenge not active");
@@ -318,35 +406,27 @@ public class FriendService {
         if (fc.getTrophiesStake() != null && fc.getTrophiesStake() > 0) {
             int stake = fc.getTrophiesStake();
             User loser = winner.getUserId().equals(fc.getChallenger().getUserId()) ? fc.getOpponent() : fc.getChallenger();
-            winner.setTrophies(Optional.ofNullable(winner.getTrophies()).orElse(0) + stake);
-            loser.setTrophies(Math.max(0, Optional.ofNullable(loser.getTrophies()).orElse(0) - stake));
-            userRepo.save(winner);
-            userRepo.save(loser);
+            addTrophies(winner.getUserId(), stake);
+            addTrophies(loser.getUserId(), -stake);
         }
 
         return challengeRepo.save(fc);
     }
 
-    public List<FriendChallenge> proposedChallengesFor(Long meId) {
-        User me = userRepo.findById(meId).orElseThrow(() -> new IllegalArgumentException("User not found"));
-        return challengeRepo.findByOpponentAndStatus(me, FriendChallenge.Status.PROPOSED);
+    // challenges waiting on my answer, newest first, one page per statement
+    public List<FriendChallenge> proposedChallengesFor(Long meId, int page, int size) {
+        return challengeRepo.findPageForOpponent(meId, FriendChallenge.Status.PROPOSED, friendPage(page, size));
     }
 
-    public List<FriendChallenge> myChallenges(Long meId) {
-        User me = userRepo.findById(meId).orElseThrow(() -> new IllegalArgumentException("User not found"));
-        var statuses = List.of(
-            FriendChallenge.Status.PROPOSED,
-            FriendChallenge.Status.ACCEPTED,
-            FriendChallenge.Status.ACTIVE,
-            FriendChallenge.Status.COMPLETION_REQUESTED
-        );
-        return challengeRepo.findByChallengerOrOpponentAndStatusIn(me, me, statuses);
+    // open challenges I'm part of (either side), most recently updated first
+    public List<FriendChallenge> myChallenges(Long meId, int page, int size) {
+        return challengeRepo.findPageForParticipant(meId, OPEN_CHALLENGES, friendPage(page, size));
     }
 
     
     @Transactional
     public FriendChallenge requestCompletion(Long meId, Long challengeId) {
-        FriendChallenge fc = challengeRepo.findById(challengeId)
+        FriendChallenge fc = challengeRepo.findByIdForUpdate(challengeId)
             .orElseThrow(() -> new IllegalArgumentException("Challenge not found"));
         if (!Objects.equals(fc.getChallenger().getUserId(), meId) &&
             !Objects.equals(fc.getOpponent().getUserId(), meId))
@@ -361,13 +441,14 @@ public class FriendService {
         fc.setCompletionRequestedBy(me);
         fc.setCompletionRequestedAt(java.time.OffsetDateTime.now());
         fc.setUpdatedAt(java.time.OffsetDateTime.now());
+        push(otherParticipant(fc, meId), FriendNotification.CHALLENGE_COMPLETION_REQUESTED, fc.getId(), meId);
         return challengeRepo.save(fc);
     }
 
 
     @Transactional
     public FriendChallenge confirmCompletion(Long meId, Long challengeId) {
-        FriendChallenge fc = challengeRepo.findById(challengeId)
+        FriendChallenge fc = challengeRepo.findByIdForUpdate(challengeId)
             .orElseThrow(() -> new IllegalArgumentException("Challenge not found"));
 
         if (fc.getStatus() != FriendChallenge.Status.COMPLETION_REQUESTED)
@@ -385,12 +466,13 @@ public class FriendService {
         // Winner = confirmer (you can invert if you prefer)
         User winner = userRepo.findById(meId).orElseThrow(() -> new IllegalArgumentException("User not found"));
 
+        // the row is locked, so a second confirm waits here and then fails the status check above:
+        // the ledger increments below run once per challenge
         int stake = java.util.Optional.ofNullable(fc.getTrophiesStake()).orElse(0);
         int pool  = fc.isEscrowed() ? stake * 2 : 0; // if escrow didn’t happen, don’t double pay
 
         if (pool > 0) {
-            addTrophies(winner, pool);
-            userRepo.save(winner);
+            addTrophies(winner.getUserId(), pool);
             fc.setEscrowed(false); // consumed
         }
 
@@ -399,6 +481,7 @@ public class FriendService {
         fc.setCompletionConfirmedBy(winner);
         fc.setCompletionConfirmedAt(java.time.OffsetDateTime.now());
         fc.setUpdatedAt(java.time.OffsetDateTime.now());
+        push(requesterId, FriendNotification.CHALLENGE_COMPLETED, fc.getId(), meId);
         return challengeRepo.save(fc);
     }
 
@@ -423,11 +506,35 @@ public class FriendService {
     }
 
 
+    // live push to the other side's open streams (sent after commit)
+    private void push(Long toUserId, String type, Long refId, Long fromUserId) {
+        notifications.publish(toUserId, new FriendNotification(type, refId, fromUserId, OffsetDateTime.now()));
+    }
+
+    private Friendship requestSent(Friendship f, Long targetId) {
+        push(targetId, FriendNotification.FRIEND_REQUEST, f.getId(), f.getRequestedBy().getUserId());
+        return f;
+    }
+
+    private static Long otherParticipant(FriendChallenge fc, Long meId) {
+        return Objects.equals(fc.getChallenger().getUserId(), meId) ? fc.getOpponent().getUserId() : fc.getChallenger().getUserId();
+    }
+
     private int trophiesOf(User u) {
         return java.util.Optional.ofNullable(u.getTrophies()).orElse(0);
     }
     
-    private void addTrophies(User u, int delta) {
-        u.setTrophies(Math.max(0, trophiesOf(u) + delta));
+    // trophy changes go through the ledger (one atomic UPDATE ... RETURNING each);
+    // the leaderboard index follows the returned totals
+    private void addTrophies(Long userId, int delta) {
+        int total = userRepo.addTrophies(userId, delta)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        leaderboardIndex.updateTrophies(userId, total);
+    }
+
+    private void escrow(Long userId, int amount, String insufficientMessage) {
+        int total = userRepo.withdrawTrophies(userId, amount)
+                .orElseThrow(() -> new IllegalArgumentException(insufficientMessage));
+        leaderboardIndex.updateTrophies(userId, total);
     }
 }
@@ -1,15 +1,21 @@
 package com.project.thelittlethings.services;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.project.thelittlethings.dto.goals.CreateGoalRequest;
+import com.project.thelittlethings.dto.goals.GoalGroupPage;
 import com.project.thelittlethings.dto.goals.GoalResponse;
 import com.project.thelittlethings.dto.goals.UpdateGoalRequest;
 import com.project.thelittlethings.entities.Category;
@@ -30,15 +36,23 @@ public class GoalService {
   private final UserRepository userRepo;
   private final CategoryRepository categoryRepo;
   private final WinRepository winRepo;
+  private final ApplicationEventPublisher events;
+  private final CategoryActivityTracker categoryActivity;
+
+  private static final List<String> PRIORITIES = List.of("HIGH", "MEDIUM", "LOW");
+  static final int MAX_GROUP_PAGE_SIZE = 100;
 
   // Feature flag to control whether users can have goals with the same title
   private static final boolean ENFORCE_UNIQUE_TITLES_PER_USER = false;
 
-  public GoalService(GoalRepository g, UserRepository u, CategoryRepository c, WinRepository w) {
+  public GoalService(GoalRepository g, UserRepository u, CategoryRepository c, WinRepository w,
+      ApplicationEventPublisher events, CategoryActivityTracker categoryActivity) {
     this.goalRepo = g;
     this.userRepo = u;
     this.categoryRepo = c;
     this.winRepo = w;
+    this.events = events;
+    this.categoryActivity = categoryActivity;
   }
 
   // Utility method to trim a string or return null if input is null
@@ -66,6 +80,12 @@ public class GoalService {
         .orElseThrow(() -> new IllegalArgumentException("user not found"));
   }
 
+  // Existence check only, for read paths that never touch the user row
+  private void mustUserExist(Long userId) {
+    if (!userRepo.existsById(userId))
+      throw new IllegalArgumentException("user not found");
+  }
+
   // Verify category exists and belongs to the specified user
   private Category mustCategoryOwned(Long userId, Long categoryId) {
     if (categoryId == null)
@@ -134,51 +154,82 @@ public class GoalService {
     g.setPriority(priority);
 
     Goal saved = goalRepo.save(g);
+    categoryActivity.categoryChanged(userId); // goal count per category
     return toResponse(saved);
   }
 
   // List all goals for a specific user
   @Transactional(readOnly = true)
   public List<GoalResponse> listGoalsByUser(long userId) {
-    mustUser(userId);
-    return goalRepo.findByUser_UserId(userId).stream().map(this::toResponse).toList();
+    mustUserExist(userId);
+    return goalRepo.findResponsesByUserId(userId);
   }
 
   // List all goals for a specific user in a specific category
   @Transactional(readOnly = true)
   public List<GoalResponse> listGoalsByUserAndCategory(long userId, long categoryId) {
-    mustUser(userId);
+    mustUserExist(userId);
     mustCategoryOwned(userId, categoryId);
-    return goalRepo.findByUser_UserIdAndCategory_CategoryId(userId, categoryId)
-        .stream().map(this::toResponse).toList();
+    return goalRepo.findResponsesByUserIdAndCategoryId(userId, categoryId);
   }
 
   // List goals grouped by priority level (HIGH, MEDIUM, LOW)
   @Transactional(readOnly = true)
   public Map<String, List<GoalResponse>> listGrouped(Long userId, Long categoryId, String priority) {
-    mustUser(userId);
+    mustUserExist(userId);
     if (categoryId != null)
       mustCategoryOwned(userId, categoryId);
 
-    // Get all goals, either for all categories or a specific one
-    List<Goal> all = (categoryId == null)
-        ? goalRepo.findByUser_UserId(userId)
-        : goalRepo.findByUser_UserIdAndCategory_CategoryId(userId, categoryId);
+    // A single priority is filtered in the query instead of building all three groups
+    if (priority != null) {
+      String p = normPriority(priority);
+      requirePriority(p);
+      return Map.of(p, goalRepo.findResponsesByPriority(userId, categoryId, p, Pageable.unpaged()));
+    }
 
+    // One ordered read, split into groups in a single pass
     Map<String, List<GoalResponse>> grouped = new HashMap<>();
-    grouped.put("HIGH", all.stream().filter(g -> "HIGH".equalsIgnoreCase(g.getPriority()))
-        .map(this::toResponse).toList());
-    grouped.put("MEDIUM", all.stream().filter(g -> "MEDIUM".equalsIgnoreCase(g.getPriority()))
-        .map(this::toResponse).toList());
-    grouped.put("LOW", all.stream().filter(g -> "LOW".equalsIgnoreCase(g.getPriority()))
-        .map(this::toResponse).toList());
+    for (String p : PRIORITIES)
+      grouped.put(p, new ArrayList<>());
+    for (GoalResponse g : goalRepo.findResponsesForGrouping(userId, categoryId)) {
+      List<GoalResponse> group = grouped.get(normPriority(g.getPriority()));
+      if (group != null)
+        group.add(g);
+    }
+    return grouped;
+  }
 
+  // Grouped listing with per-group pagination and counts: one count query plus one bounded page per group
+  @Transactional(readOnly = true)
+  public Map<String, GoalGroupPage> listGroupedPage(Long userId, Long categoryId, String priority, int page, int size) {
+    mustUserExist(userId);
+    if (categoryId != null)
+      mustCategoryOwned(userId, categoryId);
+    if (page < 0)
+      throw new IllegalArgumentException("page must be >= 0");
+    int limit = Math.min(Math.max(size, 1), MAX_GROUP_PAGE_SIZE);
+
+    List<String> wanted = PRIORITIES;
     if (priority != null) {
       String p = normPriority(priority);
       requirePriority(p);
-      return Map.of(p, grouped.get(p));
+      wanted = List.of(p);
     }
-    return grouped;
+
+    Map<String, Long> totals = new HashMap<>();
+    for (GoalRepository.PriorityCount c : goalRepo.countByPriority(userId, categoryId))
+      totals.merge(normPriority(c.getPriority()), c.getTotal(), Long::sum);
+
+    Map<String, GoalGroupPage> out = new LinkedHashMap<>();
+    for (String p : wanted) {
+      long total = totals.getOrDefault(p, 0L);
+      // skip the query when the page is past the end of the group
+      List<GoalResponse> goals = (long) page * limit >= total
+          ? List.of()
+          : goalRepo.findResponsesByPriority(userId, categoryId, p, PageRequest.of(page, limit));
+      out.put(p, new GoalGroupPage(p, total, page, limit, goals));
+    }
+    return out;
   }
 
   @Transactional(readOnly = true)
@@ -200,7 +251,9 @@ public class GoalService {
     win.setDescription(goal.getDescription());
     win.setCompletionDate(OffsetDateTime.now());
     win.setNumTrophies(1);
-    winRepo.save(win);
+    Win saved = winRepo.save(win);
+    events.publishEvent(new WinRecordedEvent(saved.getWinId(), goal.getUser().getUserId(), goal.getGoalId(),
+        saved.getTitle(), saved.getNumTrophies(), saved.getCompletionDate()));
   }
 
   // Update an existing goal's properties
@@ -235,16 +288,28 @@ public class GoalService {
       g.setPriority(p);
     }
 
+    List<Long> touched = List.of();
     if (r.getCategoryId() != null) {
       Category cat = mustCategoryOwned(userId, r.getCategoryId());
+      Long from = g.getCategory().getCategoryId();
+      if (!cat.getCategoryId().equals(from)) touched = List.of(from, cat.getCategoryId());
       g.setCategory(cat);
     }
 
-    return toResponse(goalRepo.save(g));
+    Goal saved = goalRepo.save(g);
+    // the goal's wins now count towards the new category (and no longer towards the old one)
+    if (!touched.isEmpty())
+      categoryActivity.refresh(userId, touched);
+    return toResponse(saved);
   }
 
   public void delete(Long goalId, Long userId) {
     Goal g = mustGoalOwned(goalId, userId);
+    List<Long> winIds = winRepo.findIdsByGoalId(goalId);
     goalRepo.delete(g);
+    // its wins go with it
+    if (!winIds.isEmpty())
+      events.publishEvent(new WinsDeletedEvent(userId, winIds));
+    categoryActivity.refresh(userId, List.of(g.getCategory().getCategoryId()));
   }
 }
@@ -0,0 +1,290 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.dto.leaderboard.LeaderboardRankResponse;
+import com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO;
+import com.project.thelittlethings.dto.leaderboard.RankedUserDTO;
+import com.project.thelittlethings.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-process ranked copy of the leaderboard (global + per region).
+// Loaded once at startup, then kept current by the services that change trophies,
+// so leaderboard pages and rank lookups never have to sort the users table.
+// Writes that land while a reload is reading its snapshot are recorded and replayed on top of it,
+// so the swap never loses them (every write sets absolute values, so replaying is safe).
+@Component
+public class LeaderboardIndex {
+
+    // seq: ticket of the trophy write that set `trophies` (0 = from a load or upsert)
+    private record Entry(String username, String region, int trophies, long seq) {}
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final RankedIds global = new RankedIds();
+    private final Map<String, RankedIds> byRegion = new HashMap<>();
+    private volatile boolean ready;
+    private final AtomicLong trophySeq = new AtomicLong();
+    private List<Runnable> replay; // writes seen since the current reload started, guarded by lock
+
+    public LeaderboardIndex(UserRepository userRepository,
+                            @Value("${leaderboard.index.enabled:true}") boolean enabled) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) return;
+        startRecording();
+        try {
+            load(userRepository.findAllLeaderboardEntries());
+        } finally {
+            stopRecording(); // no-op after a successful load, which already replayed
+        }
+    }
+
+    // replaces the whole index with the given rows
+    public void load(List<LeaderboardUserDTO> rows) {
+        long[] globalKeys = new long[rows.size()];
+        Map<String, List<Long>> regionKeys = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            byRegion.clear();
+            int n = 0;
+            for (LeaderboardUserDTO row : rows) {
+                int trophies = row.getTrophies() == null ? 0 : row.getTrophies();
+                entries.put(row.getUserId(), new Entry(row.getUsername(), row.getRegion(), trophies, 0));
+                long key = RankedIds.key(trophies, row.getUserId());
+                globalKeys[n++] = key;
+                if (row.getRegion() != null) {
+                    regionKeys.computeIfAbsent(row.getRegion(), r -> new ArrayList<>()).add(key);
+                }
+            }
+            global.load(globalKeys, n);
+            regionKeys.forEach((region, keys) -> {
+                long[] arr = keys.stream().mapToLong(Long::longValue).toArray();
+                RankedIds ids = new RankedIds();
+                ids.load(arr, arr.length);
+                byRegion.put(region, ids);
+            });
+            if (replay != null) {
+                replay.forEach(Runnable::run);
+                replay = null;
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    // ---------- Reads ----------
+
+    public List<LeaderboardUserDTO> page(String region, int page, int size) {
+        lock.readLock().lock();
+        try {
+            RankedIds ids = scope(region);
+            List<LeaderboardUserDTO> out = new ArrayList<>();
+            if (ids == null || page < 0 || size <= 0) return out;
+            long from = (long) page * size;
+            for (long i = from; i < ids.size() && i < from + size; i++) {
+                out.add(toDto(ids.get((int) i)));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // keyset page: the next `size` users strictly after (trophies, userId), or from the top when afterUserId is null
+    public List<LeaderboardUserDTO> pageAfter(String region, Integer afterTrophies, Long afterUserId, int size) {
+        lock.readLock().lock();
+        try {
+            RankedIds ids = scope(region);
+            List<LeaderboardUserDTO> out = new ArrayList<>();
+            if (ids == null || size <= 0) return out;
+            int from = afterUserId == null ? 0 : ids.indexAfter(RankedIds.key(afterTrophies, afterUserId));
+            for (int i = from; i < ids.size() && out.size() < size; i++) {
+                out.add(toDto(ids.get(i)));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // the user's current leaderboard row, or null if unknown
+    public LeaderboardUserDTO entryOf(Long userId) {
+        lock.readLock().lock();
+        try {
+            Entry e = entries.get(userId);
+            return e == null ? null : new LeaderboardUserDTO(userId, e.username(), e.region(), e.trophies());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 1-based global rank, or -1 if the user is unknown
+    public int rankOf(Long userId) {
+        lock.readLock().lock();
+        try {
+            Entry e = entries.get(userId);
+            return e == null ? -1 : global.indexOf(RankedIds.key(e.trophies(), userId)) + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 1-based rank within the user's own region, or -1 if unknown / no region
+    public int regionalRankOf(Long userId) {
+        lock.readLock().lock();
+        try {
+            Entry e = entries.get(userId);
+            if (e == null || e.region() == null) return -1;
+            RankedIds ids = byRegion.get(e.region());
+            return ids == null ? -1 : ids.indexOf(RankedIds.key(e.trophies(), userId)) + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // rank + neighbours taken under one read lock, so the numbers are consistent with each other
+    public Optional<LeaderboardRankResponse> rankAround(Long userId, int radius) {
+        lock.readLock().lock();
+        try {
+            Entry e = entries.get(userId);
+            if (e == null) return Optional.empty();
+            long key = RankedIds.key(e.trophies(), userId);
+            int at = global.indexOf(key);
+
+            List<RankedUserDTO> above = new ArrayList<>();
+            for (int i = Math.max(0, at - radius); i < at; i++) above.add(toRanked(global.get(i), i + 1));
+            List<RankedUserDTO> below = new ArrayList<>();
+            for (int i = at + 1; i < global.size() && i <= at + radius; i++) below.add(toRanked(global.get(i), i + 1));
+
+            Integer regional = null;
+            if (e.region() != null) {
+                RankedIds ids = byRegion.get(e.region());
+                if (ids != null) regional = ids.indexOf(key) + 1;
+            }
+            return Optional.of(new LeaderboardRankResponse(userId, e.username(), e.region(), e.trophies(),
+                    at + 1, regional, above, below));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------- Writes (applied after the surrounding transaction commits) ----------
+
+    // name/region changes and new users; an existing user's trophies stay as the ledger last set them
+    public void upsert(Long userId, String username, String region, Integer trophies) {
+        if (userId == null) return;
+        AfterCommit.run(() -> write(() -> {
+            Entry old = entries.get(userId);
+            removeLocked(userId);
+            int t = old != null ? old.trophies() : trophies == null ? 0 : Math.max(0, trophies);
+            entries.put(userId, new Entry(username, region, t, old == null ? 0 : old.seq()));
+            long key = RankedIds.key(t, userId);
+            global.add(key);
+            if (region != null) byRegion.computeIfAbsent(region, r -> new RankedIds()).add(key);
+        }));
+    }
+
+    // `trophies` is the total returned by the caller's ledger UPDATE. Call it in the same transaction,
+    // right after that statement: the ticket is then taken while the user's row lock is held, so tickets
+    // follow commit order and a total whose after-commit callback runs late is recognised as stale.
+    public void updateTrophies(Long userId, Integer trophies) {
+        if (userId == null) return;
+        long seq = trophySeq.incrementAndGet();
+        AfterCommit.run(() -> write(() -> {
+            Entry e = entries.get(userId);
+            if (e == null) return; // unknown user, picked up on next load
+            if (seq < e.seq()) return; // a later write already landed
+            removeLocked(userId);
+            int t = trophies == null ? 0 : Math.max(0, trophies);
+            entries.put(userId, new Entry(e.username(), e.region(), t, seq));
+            long key = RankedIds.key(t, userId);
+            global.add(key);
+            if (e.region() != null) byRegion.computeIfAbsent(e.region(), r -> new RankedIds()).add(key);
+        }));
+    }
+
+    public void remove(Long userId) {
+        if (userId == null) return;
+        AfterCommit.run(() -> write(() -> removeLocked(userId)));
+    }
+
+    // ---------- Helpers ----------
+
+    // applies a write under the lock, and keeps it for replay if a reload is in progress
+    private void write(Runnable op) {
+        lock.writeLock().lock();
+        try {
+            op.run();
+            if (replay != null) replay.add(op);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void startRecording() {
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void stopRecording() {
+        lock.writeLock().lock();
+        try {
+            replay = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private RankedIds scope(String region) {
+        return (region != null && !region.isEmpty()) ? byRegion.get(region) : global;
+    }
+
+    private void removeLocked(Long userId) {
+        Entry old = entries.remove(userId);
+        if (old == null) return;
+        long key = RankedIds.key(old.trophies(), userId);
+        global.remove(key);
+        if (old.region() != null) {
+            RankedIds ids = byRegion.get(old.region());
+            if (ids != null) ids.remove(key);
+        }
+    }
+
+    private LeaderboardUserDTO toDto(long key) {
+        long userId = RankedIds.userId(key);
+        Entry e = entries.get(userId);
+        return new LeaderboardUserDTO(userId, e.username(), e.region(), e.trophies());
+    }
+
+    private RankedUserDTO toRanked(long key, int rank) {
+        LeaderboardUserDTO u = toDto(key);
+        return new RankedUserDTO(rank, u.getUserId(), u.getUsername(), u.getRegion(), u.getTrophies());
+    }
+}
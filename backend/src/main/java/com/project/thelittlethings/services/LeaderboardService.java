@@ -1,12 +1,21 @@
 package com.project.thelittlethings.services;
 
+import com.project.thelittlethings.dto.leaderboard.FriendsLeaderboardPage;
+import com.project.thelittlethings.dto.leaderboard.LeaderboardPage;
+import com.project.thelittlethings.dto.leaderboard.LeaderboardRankResponse;
 import com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO;
+import com.project.thelittlethings.dto.leaderboard.RankedUserDTO;
 import com.project.thelittlethings.entities.User;
 import com.project.thelittlethings.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -14,9 +23,24 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class LeaderboardService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_RADIUS = 25;
+
     private final UserRepository userRepository;
+    private final LeaderboardIndex leaderboardIndex;
+    private final FriendGraph friendGraph;
+
+    // leaderboard order: trophies DESC, then userId ASC (same as the global board)
+    private static final Comparator<LeaderboardUserDTO> RANK_ORDER = Comparator
+            .comparing((LeaderboardUserDTO u) -> u.getTrophies() == null ? 0 : u.getTrophies(), Comparator.reverseOrder())
+            .thenComparing(LeaderboardUserDTO::getUserId);
 
     public List<LeaderboardUserDTO> getLeaderboard(String region, int page, int size) {
+        // served from memory once the index has warmed up
+        if (leaderboardIndex.isReady()) {
+            return leaderboardIndex.page(region, page, size);
+        }
+
         List<User> users;
 
         if (region != null && !region.isEmpty()) {
@@ -29,4 +53,129 @@ public class LeaderboardService {
                 .map(u -> new LeaderboardUserDTO(u.getUserId(), u.getUsername(), u.getRegion(), u.getTrophies()))
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    // Cursor-based alternative to getLeaderboard: cost stays flat however deep the client pages
+    public LeaderboardPage getLeaderboardPage(String region, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        boolean regional = region != null && !region.isEmpty();
+
+        // first page starts above every possible key
+        int afterTrophies = Integer.MAX_VALUE;
+        Long afterUserId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            long[] decoded = decodeCursor(cursor);
+            afterTrophies = (int) decoded[0];
+            afterUserId = decoded[1];
+        }
+
+        List<LeaderboardUserDTO> users;
+        if (leaderboardIndex.isReady()) {
+            users = leaderboardIndex.pageAfter(region, afterTrophies, afterUserId, limit);
+        } else {
+            long seekUserId = afterUserId == null ? 0L : afterUserId;
+            PageRequest firstPage = PageRequest.of(0, limit);
+            users = regional
+                    ? userRepository.findRegionLeaderboardAfter(region, afterTrophies, seekUserId, firstPage)
+                    : userRepository.findLeaderboardAfter(afterTrophies, seekUserId, firstPage);
+        }
+
+        String next = null;
+        if (users.size() == limit) {
+            LeaderboardUserDTO last = users.get(users.size() - 1);
+            next = encodeCursor(last.getTrophies() == null ? 0 : last.getTrophies(), last.getUserId());
+        }
+        return new LeaderboardPage(users, next);
+    }
+
+    // A user's global/regional rank plus the `radius` users above and below them, in one call
+    public LeaderboardRankResponse getRankAround(Long userId, int radius) {
+        int r = Math.max(0, Math.min(radius, MAX_RADIUS));
+        if (leaderboardIndex.isReady()) {
+            return leaderboardIndex.rankAround(userId, r)
+                    .orElseThrow(() -> new IllegalArgumentException("user not found"));
+        }
+
+        LeaderboardUserDTO me = userRepository.findLeaderboardEntry(userId)
+                .orElseThrow(() -> new IllegalArgumentException("user not found"));
+        int trophies = me.getTrophies() == null ? 0 : me.getTrophies();
+        int globalRank = (int) userRepository.countRankedAbove(trophies, userId) + 1;
+        Integer regionalRank = me.getRegion() == null ? null
+                : (int) userRepository.countRegionRankedAbove(me.getRegion(), trophies, userId) + 1;
+
+        List<RankedUserDTO> above = new ArrayList<>();
+        List<RankedUserDTO> below = new ArrayList<>();
+        if (r > 0) {
+            // nearest-first from the repository, flipped back into leaderboard order
+            List<LeaderboardUserDTO> before = userRepository.findLeaderboardBefore(trophies, userId, PageRequest.of(0, r));
+            for (int i = 0; i < before.size(); i++) above.add(ranked(before.get(i), globalRank - 1 - i));
+            Collections.reverse(above);
+
+            List<LeaderboardUserDTO> after = userRepository.findLeaderboardAfter(trophies, userId, PageRequest.of(0, r));
+            for (int i = 0; i < after.size(); i++) below.add(ranked(after.get(i), globalRank + 1 + i));
+        }
+        return new LeaderboardRankResponse(userId, me.getUsername(), me.getRegion(), trophies,
+                globalRank, regionalRank, above, below);
+    }
+
+    // The caller and their accepted friends, ranked against each other. Friend ids come from the
+    // in-memory graph and trophies from the leaderboard index, so no friendship or user rows are
+    // read; until both are warm a single join query does the same work.
+    public FriendsLeaderboardPage getFriendsLeaderboard(Long userId, int page, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int from = Math.max(0, page) * limit;
+
+        List<LeaderboardUserDTO> rows;
+        if (friendGraph.isReady() && leaderboardIndex.isReady()) {
+            LeaderboardUserDTO self = leaderboardIndex.entryOf(userId);
+            if (self == null) throw new IllegalArgumentException("user not found");
+            rows = new ArrayList<>();
+            rows.add(self);
+            for (long friendId : friendGraph.friendsOf(userId)) {
+                LeaderboardUserDTO friend = leaderboardIndex.entryOf(friendId);
+                if (friend != null) rows.add(friend);
+            }
+            rows.sort(RANK_ORDER);
+        } else {
+            rows = userRepository.findFriendsLeaderboard(userId);
+        }
+
+        RankedUserDTO me = null;
+        List<RankedUserDTO> users = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            LeaderboardUserDTO u = rows.get(i);
+            boolean onPage = i >= from && i < from + limit;
+            boolean isMe = u.getUserId().equals(userId);
+            if (!onPage && !isMe) continue;
+            RankedUserDTO r = ranked(u, i + 1);
+            if (onPage) users.add(r);
+            if (isMe) me = r;
+        }
+        if (me == null) throw new IllegalArgumentException("user not found");
+        return new FriendsLeaderboardPage(me, rows.size(), Math.max(0, page), limit, users);
+    }
+
+    private static RankedUserDTO ranked(LeaderboardUserDTO u, int rank) {
+        return new RankedUserDTO(rank, u.getUserId(), u.getUsername(), u.getRegion(), u.getTrophies());
+    }
+
+    // opaque to clients: base64url("trophies:userId")
+    static String encodeCursor(int trophies, long userId) {
+        String raw = trophies + ":" + userId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 2) throw new IllegalArgumentException("invalid cursor");
+            long trophies = Integer.parseInt(parts[0]);
+            long userId = Long.parseLong(parts[1]);
+            if (trophies < 0 || userId < 0) throw new IllegalArgumentException("invalid cursor");
+            return new long[]{trophies, userId};
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and bad base64 both land here
+            throw new IllegalArgumentException("invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.MaterialisedView.CategoryNeglectedView;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Bounded LRU cache of neglected-category results per (userId, days), kept as one slot per user.
+// An entry lives until the instant its result can next change (supplied by the loader) or until
+// the user records a win / changes a category. Invalidation drops the user's slot after commit and
+// marks it dead, so a load that raced the mutation is never stored and no per-user state outlives it.
+// Hits, misses, evictions and size are also published to Micrometer as cache.* meters.
+@Component
+public class NeglectedCategoryCache {
+
+    private static final Logger log = LoggerFactory.getLogger(NeglectedCategoryCache.class);
+    static final String CACHE_NAME = "neglectedCategories";
+
+    // snapshot of the counters, for logs or an admin view
+    public record Stats(long hits, long misses, long evictions, int size) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    // a freshly loaded result and when it stops being valid
+    public record Loaded(List<CategoryNeglectedView> rows, Instant expiresAt) {}
+
+    private record Entry(List<CategoryNeglectedView> rows, Instant expiresAt) {}
+
+    // one user's cached results, guarded by `users`
+    private static final class Slot {
+        private final Map<Integer, Entry> byDays = new HashMap<>();
+        private boolean invalidated;
+    }
+
+    private final boolean enabled;
+    private final Map<Long, Slot> users;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile long lastLoggedLookups;
+
+    public NeglectedCategoryCache(@Value("${categories.neglected.cache.enabled:true}") boolean enabled,
+                                  @Value("${categories.neglected.cache.max-entries:10000}") int maxEntries,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        int max = Math.max(1, maxEntries);
+        this.users = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Slot> eldest) {
+                if (size() <= max) return false;
+                evictions.addAndGet(Math.max(1, eldest.getValue().byDays.size()));
+                return true;
+            }
+        };
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tag("cache", CACHE_NAME).tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tag("cache", CACHE_NAME).tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tag("cache", CACHE_NAME).register(meterRegistry);
+        Gauge.builder("cache.size", this, c -> c.stats().size())
+                .tag("cache", CACHE_NAME).register(meterRegistry);
+    }
+
+    public List<CategoryNeglectedView> get(Long userId, int days, Supplier<Loaded> loader) {
+        if (!enabled) return loader.get().rows();
+        Instant now = Instant.now();
+        // taken before loading: an invalidation that lands during the load kills it, and the result is dropped
+        Slot slot;
+        synchronized (users) {
+            slot = users.computeIfAbsent(userId, id -> new Slot());
+            Entry e = slot.byDays.get(days);
+            if (e != null && now.isBefore(e.expiresAt())) {
+                hits.incrementAndGet();
+                return e.rows();
+            }
+        }
+        misses.incrementAndGet();
+        Loaded loaded = loader.get();
+        List<CategoryNeglectedView> rows = List.copyOf(loaded.rows());
+        synchronized (users) {
+            if (!slot.invalidated) slot.byDays.put(days, new Entry(rows, loaded.expiresAt()));
+        }
+        return rows;
+    }
+
+    // drops the user's cached results once the surrounding transaction commits
+    public void invalidate(Long userId) {
+        if (userId == null) return;
+        AfterCommit.run(() -> {
+            synchronized (users) {
+                Slot slot = users.remove(userId);
+                if (slot != null) slot.invalidated = true;
+            }
+        });
+    }
+
+    public Stats stats() {
+        synchronized (users) {
+            int size = 0;
+            for (Slot slot : users.values()) size += slot.byDays.size();
+            return new Stats(hits.get(), misses.get(), evictions.get(), size);
+        }
+    }
+    // periodic hit-rate line so the cache can be tuned; quiet while nothing is being looked up
+    @Scheduled(fixedDelayString = "${categories.neglected.cache.stats-log-ms:300000}")
+    public void logStats() {
+        if (!enabled) return;
+        Stats s = stats();
+        long lookups = s.hits() + s.misses();
+        if (lookups == lastLoggedLookups) return;
+        lastLoggedLookups = lookups;
+        log.info("Neglected-category cache: {} hits, {} misses ({}% hit rate), {} evictions, {} entries",
+                s.hits(), s.misses(), Math.round(s.hitRate() * 100), s.evictions(), s.size());
+    }
+}
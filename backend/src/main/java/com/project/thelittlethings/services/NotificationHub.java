@@ -0,0 +1,170 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.dto.friends.FriendNotification;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-process per-user pub/sub behind GET /api/friends/stream (server-sent events).
+// An open stream is an async SseEmitter, so it holds no request thread. Publishing only
+// enqueues into the connection's bounded buffer (oldest dropped when a client lags);
+// a small pool drains buffers, so a slow client never blocks the request that published.
+// A heartbeat comment keeps proxies from closing idle streams and weeds out dead ones.
+@Component
+public class NotificationHub {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationHub.class);
+
+    private final Map<Long, Set<Connection>> byUser = new ConcurrentHashMap<>();
+    private final ExecutorService senders;
+    private final AtomicLong eventIds = new AtomicLong();
+    private final long timeoutMs;
+    private final int bufferSize;
+    private final int maxPerUser;
+
+    public NotificationHub(@Value("${notifications.timeout-ms:1800000}") long timeoutMs,
+                           @Value("${notifications.buffer-size:32}") int bufferSize,
+                           @Value("${notifications.max-per-user:5}") int maxPerUser,
+                           @Value("${notifications.sender-threads:2}") int senderThreads) {
+        this.timeoutMs = timeoutMs;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.maxPerUser = Math.max(1, maxPerUser);
+        this.senders = Executors.newFixedThreadPool(Math.max(1, senderThreads));
+    }
+
+    // opens a stream for the user; the oldest stream is closed once they exceed the per-user limit
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection conn = new Connection(userId, emitter);
+        // added inside compute, so it can't land in a set that a concurrent drop() just unmapped
+        Connection[] oldest = new Connection[1];
+        byUser.compute(userId, (id, conns) -> {
+            Set<Connection> set = conns == null ? new CopyOnWriteArraySet<>() : conns;
+            set.add(conn);
+            if (set.size() > maxPerUser) {
+                oldest[0] = set.stream().min((a, b) -> Long.compare(a.openedAt, b.openedAt)).orElseThrow();
+                set.remove(oldest[0]);
+            }
+            return set;
+        });
+        if (oldest[0] != null) close(oldest[0]);
+        emitter.onCompletion(() -> drop(conn));
+        emitter.onTimeout(() -> drop(conn));
+        emitter.onError(e -> drop(conn));
+        conn.offer(SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+
+    // pushes to every open stream of the user once the surrounding transaction commits
+    public void publish(Long userId, FriendNotification notification) {
+        if (userId == null) return;
+        AfterCommit.run(() -> {
+            Set<Connection> conns = byUser.get(userId);
+            if (conns == null) return;
+            for (Connection conn : conns) {
+                conn.offer(SseEmitter.event()
+                        .id(Long.toString(eventIds.incrementAndGet()))
+                        .name(notification.getType())
+                        .data(notification));
+            }
+        });
+    }
+
+    public int connectionCount() {
+        return byUser.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Set<Connection> conns : byUser.values()) {
+            for (Connection conn : conns) conn.offer(SseEmitter.event().comment("ping"));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        byUser.values().forEach(conns -> conns.forEach(this::close));
+        senders.shutdownNow();
+    }
+
+    private void close(Connection conn) {
+        drop(conn);
+        try {
+            conn.emitter.complete();
+        } catch (RuntimeException ignored) {
+            // already closed by the container
+        }
+    }
+
+    private void drop(Connection conn) {
+        byUser.computeIfPresent(conn.userId, (id, conns) -> {
+            conns.remove(conn);
+            return conns.isEmpty() ? null : conns;
+        });
+    }
+
+    // One open stream: a bounded outbox plus a flag so at most one sender drains it at a time.
+    private final class Connection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final long openedAt = System.nanoTime();
+        private final ArrayDeque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private boolean draining;
+
+        Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            synchronized (this) {
+                if (pending.size() >= bufferSize) pending.pollFirst(); // client is lagging, drop the oldest
+                pending.addLast(event);
+                if (draining) return;
+                draining = true;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RuntimeException e) {
+                synchronized (this) { draining = false; } // pool shut down
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder next;
+                synchronized (this) {
+                    next = pending.pollFirst();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(next);
+                } catch (Exception e) {
+                    log.debug("Dropping notification stream for user {}: {}", userId, e.getMessage());
+                    close(this);
+                    synchronized (this) {
+                        pending.clear();
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.project.thelittlethings.services;
+
+import java.util.Arrays;
+
+// Sorted array of packed (trophies DESC, userId ASC) keys.
+// Rank lookups are a binary search; a page is a straight slice of the array.
+// Not thread-safe on its own, LeaderboardIndex guards it with a read/write lock.
+final class RankedIds {
+
+    private static final long LOW_MASK = 0xffffffffL;
+
+    private long[] keys = new long[16];
+    private int size;
+
+    // users.user_id is a SERIAL (int4) and trophies are clamped to >= 0,
+    // so both halves fit in 32 bits and ascending key order == leaderboard order
+    static long key(int trophies, long userId) {
+        long inverted = (long) Integer.MAX_VALUE - Math.max(0, trophies);
+        return (inverted << 32) | (userId & LOW_MASK);
+    }
+
+    static long userId(long key) {
+        return key & LOW_MASK;
+    }
+
+    static int trophies(long key) {
+        return (int) (Integer.MAX_VALUE - (key >>> 32));
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        return keys[index];
+    }
+
+    // 0-based position of the key, or -1 when absent
+    int indexOf(long key) {
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        return i >= 0 ? i : -1;
+    }
+
+    // 0-based position of the first key strictly after the given one
+    int indexAfter(long key) {
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        return i >= 0 ? i + 1 : -(i + 1);
+    }
+
+    void add(long key) {
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        if (i >= 0) return;
+        int at = -(i + 1);
+        if (size == keys.length) keys = Arrays.copyOf(keys, size * 2);
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        keys[at] = key;
+        size++;
+    }
+
+    void remove(long key) {
+        int at = Arrays.binarySearch(keys, 0, size, key);
+        if (at < 0) return;
+        System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+        size--;
+    }
+
+    // bulk load: sorts once instead of inserting one by one
+    void load(long[] unsorted, int count) {
+        keys = Arrays.copyOf(unsorted, Math.max(16, count));
+        Arrays.sort(keys, 0, count);
+        size = count;
+    }
+}
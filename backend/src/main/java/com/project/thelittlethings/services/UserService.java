@@ -5,12 +5,16 @@ import java.time.LocalDate;
 import com.project.thelittlethings.entities.User;
 import com.project.thelittlethings.dto.users.CreateUserRequest;
 import com.project.thelittlethings.dto.users.LoginRequest;
+import com.project.thelittlethings.dto.users.UserSearchResult;
 import com.project.thelittlethings.repositories.UserRepository;
+import com.project.thelittlethings.security.AuthPrincipal;
 import com.project.thelittlethings.security.HMACtokens;
+import com.project.thelittlethings.security.TokenRevocationStore;
 
 import java.util.*;
 import java.security.MessageDigest;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,10 +22,28 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class UserService {
 	private final UserRepository userRepository;
-	private final Set<String> blacklistedTokens = Collections.synchronizedSet(new HashSet<>());
-
-	public UserService(UserRepository userRepository) {
+	private final LeaderboardIndex leaderboardIndex;
+	private final TokenRevocationStore revokedTokens;
+	private final FriendGraph friendGraph;
+	private final UsernameIndex usernameIndex;
+	private static final int MAX_SEARCH_RESULTS = 25;
+	// username -> principal for AuthFilter; evicted on rename/delete, and least recently used first when full
+	static final int MAX_PRINCIPALS = 10_000;
+	private final Map<String, AuthPrincipal> principals = Collections.synchronizedMap(
+			new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, AuthPrincipal> eldest) {
+					return size() > MAX_PRINCIPALS;
+				}
+			});
+
+	public UserService(UserRepository userRepository, LeaderboardIndex leaderboardIndex,
+			TokenRevocationStore revokedTokens, FriendGraph friendGraph, UsernameIndex usernameIndex) {
 		this.userRepository = userRepository;
+		this.leaderboardIndex = leaderboardIndex;
+		this.revokedTokens = revokedTokens;
+		this.friendGraph = friendGraph;
+		this.usernameIndex = usernameIndex;
 	}
 
 	// hashes passwords using SHA-256
@@ -58,7 +80,10 @@ public class UserService {
 		u.setAge(calcAge(req.getDob()));
 		u.setLastLogin(java.time.OffsetDateTime.now(java.time.ZoneOffset.UTC));
 
-		return userRepository.save(u);
+		User saved = userRepository.save(u);
+		leaderboardIndex.upsert(saved.getUserId(), saved.getUsername(), saved.getRegion(), saved.getTrophies());
+		usernameIndex.put(saved.getUserId(), saved.getUsername());
+		return saved;
 	}
 
 	private String normalizeGender(String raw) {
@@ -113,16 +138,29 @@ public class UserService {
 		return userRepository.findByUsername(username).orElse(null);
 	}
 
+	// resolves an authenticated username to its principal, hitting the database only on a cache miss
+	public AuthPrincipal resolvePrincipal(String username) {
+		if (username == null)
+			return null;
+		AuthPrincipal cached = principals.get(username);
+		if (cached != null)
+			return cached;
+		AuthPrincipal loaded = userRepository.findPrincipalByUsername(username).orElse(null);
+		if (loaded != null)
+			principals.put(username, loaded);
+		return loaded;
+	}
+
 	public User findById(Long id) {
 		return userRepository.findById(id).orElse(null);
 	}
 
 	public void logout(String token) {
-		blacklistedTokens.add(token);
+		revokedTokens.revoke(token);
 	}
 
 	public boolean isTokenBlacklisted(String token) {
-		return blacklistedTokens.contains(token);
+		return revokedTokens.isRevoked(token);
 	}
 
 	// changes user password
@@ -153,12 +191,18 @@ public class UserService {
 	}
 
 	// changes username and issues new token
+	@Transactional
 	public String changeUsername(Long userId, String newUsername) {
 		if (userRepository.existsByUsername(newUsername))
 			throw new IllegalArgumentException("Username already taken");
 		User u = userRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
+		String oldUsername = u.getUsername();
 		u.setUsername(newUsername);
 		userRepository.save(u);
+		// evicted once the rename is visible, so a concurrent lookup can't re-cache the old row
+		AfterCommit.run(() -> principals.remove(oldUsername));
+		leaderboardIndex.upsert(u.getUserId(), u.getUsername(), u.getRegion(), u.getTrophies());
+		usernameIndex.put(u.getUserId(), u.getUsername());
 		return HMACtokens.issueToken(u.getUsername(), 60 * 60 * 24);
 	}
 
@@ -167,9 +211,41 @@ public class UserService {
 		if (!userRepository.existsById(userId))
 			return false;
 		userRepository.deleteById(userId);
+		AfterCommit.run(() -> {
+			synchronized (principals) {
+				principals.values().removeIf(p -> p.userId().equals(userId));
+			}
+		});
+		leaderboardIndex.remove(userId);
+		friendGraph.removeUser(userId);
+		usernameIndex.remove(userId);
 		return true;
 	}
 
+	// username typeahead: case-insensitive prefix match, excluding the caller
+	public List<UserSearchResult> searchUsernames(String prefix, int limit, Long excludeUserId) {
+		String p = prefix == null ? "" : prefix.trim();
+		if (p.isEmpty())
+			return List.of();
+		int n = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+		// fetch one extra so dropping the caller still fills the page
+		List<UserSearchResult> hits = usernameIndex.isReady()
+				? usernameIndex.search(p, n + 1)
+				: userRepository.searchByUsernamePrefix(escapeLike(p.toUpperCase(Locale.ROOT)), PageRequest.of(0, n + 1));
+		List<UserSearchResult> out = new ArrayList<>(n);
+		for (UserSearchResult r : hits) {
+			if (out.size() == n)
+				break;
+			if (!r.getUserId().equals(excludeUserId))
+				out.add(r);
+		}
+		return out;
+	}
+
+	private static String escapeLike(String s) {
+		return s.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+	}
+
 	public User save(User user) {
 		return userRepository.save(user);
 	}
@@ -0,0 +1,182 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.dto.users.UserSearchResult;
+import com.project.thelittlethings.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-process username autocomplete: parallel arrays sorted by (lowercased username, userId).
+// A prefix lookup is one binary search plus a slice, so typeahead never scans the users table.
+// Loaded once at startup and kept current by UserService after each commit.
+@Component
+public class UsernameIndex {
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private String[] keys = new String[16];    // lowercased, the sort key
+    private String[] names = new String[16];   // as registered
+    private long[] ids = new long[16];
+    private int size;
+    private final Map<Long, String> nameById = new HashMap<>();
+    private volatile boolean ready;
+
+    public UsernameIndex(UserRepository userRepository,
+                         @Value("${users.search.index.enabled:true}") boolean enabled) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) return;
+        load(userRepository.findAllUsernames());
+    }
+
+    // replaces the whole index with the given rows
+    public void load(List<UserSearchResult> rows) {
+        UserSearchResult[] sorted = rows.stream()
+                .filter(r -> r.getUserId() != null && r.getUsername() != null)
+                .sorted((a, b) -> compare(normalize(a.getUsername()), a.getUserId(), normalize(b.getUsername()), b.getUserId()))
+                .toArray(UserSearchResult[]::new);
+        int n = sorted.length;
+        String[] k = new String[Math.max(16, n)];
+        String[] nm = new String[k.length];
+        long[] id = new long[k.length];
+        Map<Long, String> byId = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            k[i] = normalize(sorted[i].getUsername());
+            nm[i] = sorted[i].getUsername();
+            id[i] = sorted[i].getUserId();
+            byId.put(sorted[i].getUserId(), sorted[i].getUsername());
+        }
+
+        lock.writeLock().lock();
+        try {
+            keys = k;
+            names = nm;
+            ids = id;
+            size = n;
+            nameById.clear();
+            nameById.putAll(byId);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    // ---------- Reads ----------
+
+    // up to `limit` users whose username starts with the prefix (case-insensitive), alphabetical
+    public List<UserSearchResult> search(String prefix, int limit) {
+        List<UserSearchResult> out = new ArrayList<>();
+        String p = normalize(prefix);
+        if (p.isEmpty() || limit <= 0) return out;
+        lock.readLock().lock();
+        try {
+            // first slot at or after (prefix, smallest id)
+            for (int i = lowerBound(p, Long.MIN_VALUE); i < size && out.size() < limit; i++) {
+                if (!keys[i].startsWith(p)) break;
+                out.add(new UserSearchResult(ids[i], names[i]));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------- Writes (applied after the surrounding transaction commits) ----------
+
+    public void put(Long userId, String username) {
+        if (userId == null || username == null) return;
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                removeLocked(userId);
+                insertLocked(userId, username);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Long userId) {
+        if (userId == null) return;
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                removeLocked(userId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // ---------- Helpers ----------
+
+    static String normalize(String s) {
+        return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int compare(String k1, long id1, String k2, long id2) {
+        int c = k1.compareTo(k2);
+        return c != 0 ? c : Long.compare(id1, id2);
+    }
+
+    // index of the first entry >= (key, userId)
+    private int lowerBound(String key, long userId) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(keys[mid], ids[mid], key, userId) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private void insertLocked(long userId, String username) {
+        String key = normalize(username);
+        int at = lowerBound(key, userId);
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            names = Arrays.copyOf(names, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        System.arraycopy(names, at, names, at + 1, size - at);
+        System.arraycopy(ids, at, ids, at + 1, size - at);
+        keys[at] = key;
+        names[at] = username;
+        ids[at] = userId;
+        size++;
+        nameById.put(userId, username);
+    }
+
+    private void removeLocked(long userId) {
+        String old = nameById.remove(userId);
+        if (old == null) return;
+        int at = lowerBound(normalize(old), userId);
+        if (at >= size || ids[at] != userId) return;
+        System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+        System.arraycopy(names, at + 1, names, at, size - at - 1);
+        System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+        size--;
+        keys[size] = null;
+        names[size] = null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.project.thelittlethings.services;
+
+import java.time.OffsetDateTime;
+
+// Published whenever a win is stored (createWin, createWins, completeGoal).
+// Listeners that touch in-memory state should run after commit.
+public record WinRecordedEvent(Long winId, Long userId, Long goalId, String title,
+                               Integer numTrophies, OffsetDateTime completionDate) {}
@@ -1,5 +1,7 @@
 package com.project.thelittlethings.services;
 
+import com.project.thelittlethings.dto.wins.BatchWinResponse;
+import com.project.thelittlethings.dto.wins.BatchWinResult;
 import com.project.thelittlethings.dto.wins.CreateWinRequest;
 import com.project.thelittlethings.dto.wins.UpdateWinRequest;
 import com.project.thelittlethings.dto.wins.WinResponse;
@@ -8,11 +10,16 @@ import com.project.thelittlethings.entities.User;
 import com.project.thelittlethings.entities.Win;
 import com.project.thelittlethings.repositories.GoalRepository;
 import com.project.thelittlethings.repositories.UserRepository;
+import com.project.thelittlethings.repositories.WinBatchRepository;
 import com.project.thelittlethings.repositories.WinRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class WinService {
@@ -20,11 +27,25 @@ public class WinService {
     private final WinRepository winRepo;
     private final UserRepository userRepo;
     private final GoalRepository goalRepo;
-
-    public WinService(WinRepository winRepo, UserRepository userRepo, GoalRepository goalRepo) {
+    private final WinBatchRepository winBatchRepo;
+    private final LeaderboardIndex leaderboardIndex;
+    private final ApplicationEventPublisher events;
+    private final CategoryActivityTracker categoryActivity;
+
+    static final int MAX_BATCH = 500;
+    // keeps a full batch's summed trophies (MAX_BATCH * this) well inside an int
+    static final int MAX_TROPHIES_PER_WIN = 1_000_000;
+
+    public WinService(WinRepository winRepo, UserRepository userRepo, GoalRepository goalRepo,
+                      WinBatchRepository winBatchRepo, LeaderboardIndex leaderboardIndex,
+                      ApplicationEventPublisher events, CategoryActivityTracker categoryActivity) {
         this.winRepo = winRepo;
         this.userRepo = userRepo;
         this.goalRepo = goalRepo;
+        this.winBatchRepo = winBatchRepo;
+        this.leaderboardIndex = leaderboardIndex;
+        this.events = events;
+        this.categoryActivity = categoryActivity;
     }
 
     private WinResponse toResponse(Win win) {
@@ -53,8 +74,9 @@ public class WinService {
             throw new IllegalArgumentException("numTrophies is required");
 
         // Fetch related entities
-        User user = userRepo.findById(req.getUserId())
-                .orElseThrow(() -> new IllegalArgumentException("user not found"));
+        if (!userRepo.existsById(req.getUserId()))
+            throw new IllegalArgumentException("user not found");
+        User user = userRepo.getReferenceById(req.getUserId());
 
         Goal goal = goalRepo.findById(req.getGoalId())
                 .orElseThrow(() -> new IllegalArgumentException("goal not found"));
@@ -72,14 +94,81 @@ public class WinService {
         Win saved = winRepo.save(win);
 
         // Add trophies to user
-        int toAdd = saved.getNumTrophies() == null ? 0 : saved.getNumTrophies();
-        int current = user.getTrophies() == null ? 0 : user.getTrophies();
-        user.setTrophies(current + toAdd);
-        userRepo.save(user);
+        applyTrophies(req.getUserId(), saved.getNumTrophies() == null ? 0 : saved.getNumTrophies());
+        publishRecorded(req.getUserId(), saved);
 
         return toResponse(saved);
     }
 
+    // Creates many wins for one user in a single transaction: goal ownership is checked with one
+    // query, valid wins go in as one JDBC batch and the user's trophies get one aggregated update.
+    // Invalid items are reported per index and do not fail the rest of the batch.
+    @Transactional
+    public BatchWinResponse createWins(Long userId, List<CreateWinRequest> reqs) {
+        if (reqs == null || reqs.isEmpty()) throw new IllegalArgumentException("at least one win is required");
+        if (reqs.size() > MAX_BATCH) throw new IllegalArgumentException("batch exceeds " + MAX_BATCH + " wins");
+        if (!userRepo.existsById(userId)) throw new IllegalArgumentException("user not found");
+
+        BatchWinResult[] results = new BatchWinResult[reqs.size()];
+        Set<Long> goalIds = new HashSet<>();
+        for (int i = 0; i < reqs.size(); i++) {
+            String error = validateBatchItem(reqs.get(i));
+            if (error != null) results[i] = new BatchWinResult(i, null, error);
+            else goalIds.add(reqs.get(i).getGoalId());
+        }
+
+        Set<Long> owned = goalIds.isEmpty() ? Set.of() : new HashSet<>(goalRepo.findOwnedGoalIds(userId, goalIds));
+
+        List<Win> toInsert = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        int delta = 0;
+        for (int i = 0; i < reqs.size(); i++) {
+            if (results[i] != null) continue;
+            CreateWinRequest req = reqs.get(i);
+            if (!owned.contains(req.getGoalId())) {
+                results[i] = new BatchWinResult(i, null, "goal not found");
+                continue;
+            }
+            Goal goal = new Goal();
+            goal.setGoalId(req.getGoalId());
+            Win win = new Win();
+            win.setGoal(goal);
+            win.setTitle(req.getTitle().trim());
+            win.setNumTrophies(Math.max(0, req.getNumTrophies())); // clamp to non-negative
+            win.setCompletionDate(req.getCompletionDate());
+            win.setDescription(req.getDescription());
+            win.setJournalId(req.getJournalId());
+            toInsert.add(win);
+            positions.add(i);
+            delta += win.getNumTrophies();
+        }
+
+        List<Long> ids = winBatchRepo.insertAll(userId, toInsert);
+        // every row needs its id to be reported and published; without them the batch is rolled back
+        if (ids.size() != toInsert.size())
+            throw new IllegalStateException("expected " + toInsert.size() + " generated win ids, got " + ids.size());
+        for (int k = 0; k < positions.size(); k++) {
+            int i = positions.get(k);
+            results[i] = new BatchWinResult(i, ids.get(k), null);
+            toInsert.get(k).setWinId(ids.get(k));
+            publishRecorded(userId, toInsert.get(k));
+        }
+
+        Integer total = applyTrophies(userId, delta);
+        return new BatchWinResponse(List.of(results), toInsert.size(), delta, total);
+    }
+
+    // same rules as createWin, returned as a message instead of thrown
+    private static String validateBatchItem(CreateWinRequest req) {
+        if (req == null) return "win is required";
+        if (req.getGoalId() == null) return "goalId is required";
+        if (req.getTitle() == null || req.getTitle().trim().isEmpty()) return "title is required";
+        if (req.getCompletionDate() == null) return "completionDate is required";
+        if (req.getNumTrophies() == null) return "numTrophies is required";
+        if (req.getNumTrophies() > MAX_TROPHIES_PER_WIN) return "numTrophies exceeds " + MAX_TROPHIES_PER_WIN;
+        return null;
+    }
+
     @Transactional
     public WinResponse updateWin(Long winId, Long userId, UpdateWinRequest req) {
         Win win = winRepo.findByWinIdAndUser_UserId(winId, userId)
@@ -97,14 +186,9 @@ public class WinService {
             int newVal = Math.max(0, req.getNumTrophies());
             int delta = newVal - oldVal;
 
-            if (delta != 0) {
-                User user = win.getUser(); // already associated
-                int current = user.getTrophies() == null ? 0 : user.getTrophies();
-                int updated = current + delta;
-                user.setTrophies(Math.max(0, updated)); // keep non-negative total
-                userRepo.save(user);
-            }
+            applyTrophies(win.getUser().getUserId(), delta); // ledger keeps the total non-negative
             win.setNumTrophies(newVal);
+            if (delta != 0) categoryActivity.statsChanged(userId);
         }
 
         Win updatedWin = winRepo.save(win);
@@ -114,10 +198,7 @@ public class WinService {
     public List<WinResponse> listWinsByUser(Long userId) {
         if (!userRepo.existsById(userId))
             throw new IllegalArgumentException("user not found");
-        return winRepo.findByUser_UserId(userId)
-                .stream()
-                .map(this::toResponse)
-                .toList();
+        return winRepo.findResponsesByUserId(userId);
     }
 
     public WinResponse getWinById(Long winId, Long userId) {
@@ -132,12 +213,29 @@ public class WinService {
                 .orElseThrow(() -> new IllegalArgumentException("win not found"));
 
         // Subtract trophies from user to keep totals consistent
-        User user = win.getUser();
-        int current = user.getTrophies() == null ? 0 : user.getTrophies();
         int toSubtract = win.getNumTrophies() == null ? 0 : win.getNumTrophies();
-        user.setTrophies(Math.max(0, current - toSubtract));
-        userRepo.save(user);
+        applyTrophies(win.getUser().getUserId(), -toSubtract);
 
         winRepo.delete(win);
+        events.publishEvent(new WinsDeletedEvent(userId, List.of(winId)));
+        // the deleted win may have been the category's latest
+        if (win.getGoal().getCategory() != null) {
+            categoryActivity.refresh(userId, List.of(win.getGoal().getCategory().getCategoryId()));
+        }
+    }
+
+    // picked up after commit (activity feed etc.)
+    private void publishRecorded(Long userId, Win win) {
+        events.publishEvent(new WinRecordedEvent(win.getWinId(), userId, win.getGoal().getGoalId(),
+                win.getTitle(), win.getNumTrophies(), win.getCompletionDate()));
+    }
+
+    // one atomic UPDATE ... RETURNING via the trophy ledger; the leaderboard index follows the returned total
+    private Integer applyTrophies(Long userId, int delta) {
+        if (delta == 0) return null;
+        Integer total = userRepo.addTrophies(userId, delta)
+                .orElseThrow(() -> new IllegalArgumentException("user not found"));
+        leaderboardIndex.updateTrophies(userId, total);
+        return total;
     }
 }
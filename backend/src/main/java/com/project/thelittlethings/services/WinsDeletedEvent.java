@@ -0,0 +1,7 @@
+package com.project.thelittlethings.services;
+
+import java.util.List;
+
+// Published when wins are removed (deleteWin, or a goal delete cascading to its wins).
+// Listeners that touch in-memory state should run after commit.
+public record WinsDeletedEvent(Long userId, List<Long> winIds) {}
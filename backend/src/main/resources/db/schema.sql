@@ -1,6 +1,7 @@
 -- Contributor: @Naseem Win
 
 -- Reset existing tables (order matters due to FKs)
+DROP TABLE IF EXISTS category_activity CASCADE;
 DROP TABLE IF EXISTS challenges CASCADE;
 DROP TABLE IF EXISTS wins CASCADE;
 DROP TABLE IF EXISTS journaling CASCADE;
@@ -25,9 +26,16 @@ CREATE TABLE users (
     region      VARCHAR(100),
     created_at  TIMESTAMP DEFAULT NOW(),
     last_login  TIMESTAMPTZ,
-    trophies    INT DEFAULT 0
+    trophies    INT NOT NULL DEFAULT 0
 );
 
+-- Leaderboard keyset pagination (ORDER BY trophies DESC, user_id)
+CREATE INDEX idx_users_trophies_user ON users (trophies DESC, user_id);
+CREATE INDEX idx_users_region_trophies_user ON users (region, trophies DESC, user_id);
+-- Case-insensitive username lookups and prefix search (upper(username) = / LIKE 'ABC%')
+-- (not expressible on the entity; also created at startup by config/DatabaseIndexes)
+CREATE INDEX idx_users_username_upper ON users (upper(username) text_pattern_ops);
+
 -- Category taxonomy scoped per user
 CREATE TABLE categories (
     category_id   SERIAL PRIMARY KEY,
@@ -57,6 +65,8 @@ CREATE TABLE goals (
     CONSTRAINT fk_goals_category FOREIGN KEY (category_id)
         REFERENCES categories(category_id) ON DELETE SET NULL
 );
+CREATE INDEX idx_goals_user_priority_created ON goals (user_id, priority, created_at DESC);
+CREATE INDEX idx_goals_category ON goals (category_id);
 
 -- Maintain goal.updated_at automatically
 CREATE OR REPLACE FUNCTION set_updated_at()
@@ -101,6 +111,18 @@ CREATE TABLE wins (
     CONSTRAINT fk_wins_journal FOREIGN KEY (journal_id)
         REFERENCES journaling(journal_id) ON DELETE SET NULL
 );
+CREATE INDEX idx_wins_user_win ON wins (user_id, win_id DESC);
+CREATE INDEX idx_wins_goal_completion ON wins (goal_id, completion_date);
+
+-- Per-category activity summary, kept current on win insert/delete (replaces the neglected-categories aggregate)
+CREATE TABLE category_activity (
+    category_id    INT PRIMARY KEY REFERENCES categories(category_id) ON DELETE CASCADE,
+    user_id        INT NOT NULL,
+    last_activity  TIMESTAMPTZ NOT NULL,   -- latest win, or the category's creation if it has none
+    win_count      BIGINT NOT NULL DEFAULT 0,
+    recent_wins    INT NOT NULL DEFAULT 0   -- wins in the last 30 days, recounted nightly
+);
+CREATE INDEX idx_category_activity_user_last ON category_activity (user_id, last_activity);
 
 -- Solo challenges for personal goal bundles
 CREATE TABLE challenges (
@@ -128,6 +150,8 @@ CREATE TABLE IF NOT EXISTS friendships (
     CONSTRAINT uq_friend_pair UNIQUE (userA_id, userB_id),
     CONSTRAINT chk_not_self CHECK (userA_id <> userB_id)
 );
+CREATE INDEX idx_friendships_usera_status ON friendships (userA_id, status);
+CREATE INDEX idx_friendships_userb_status ON friendships (userB_id, status);
 
 -- Competitive friend challenges with escrow mechanics
 CREATE TABLE IF NOT EXISTS friend_challenges (
@@ -149,6 +173,16 @@ CREATE TABLE IF NOT EXISTS friend_challenges (
     updated_at     TIMESTAMPTZ NOT NULL DEFAULT NOW(),
     CONSTRAINT chk_fc_not_self CHECK (challenger_id <> opponent_id)
 );
+CREATE INDEX idx_fc_status_end_id ON friend_challenges (status, end_date, id);
+CREATE INDEX idx_fc_challenger_status ON friend_challenges (challenger_id, status);
+CREATE INDEX idx_fc_opponent_status ON friend_challenges (opponent_id, status);
+
+-- Logged-out tokens, kept until the token's own expiry (epoch seconds)
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    token      VARCHAR(512) PRIMARY KEY,
+    expires_at BIGINT NOT NULL
+);
+CREATE INDEX idx_revoked_tokens_expires ON revoked_tokens (expires_at);
 
 -- Seed demo accounts (password hashes are placeholders)
 INSERT INTO users (username, email, password, first_name, last_name, dob, age, gender, streaks, region, trophies, created_at)
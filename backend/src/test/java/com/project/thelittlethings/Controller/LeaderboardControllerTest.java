@@ -1,8 +1,10 @@
 package com.project.thelittlethings.Controller;
 
 import com.project.thelittlethings.controller.LeaderboardController;
+import com.project.thelittlethings.dto.leaderboard.LeaderboardPage;
 import com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO;
 import com.project.thelittlethings.services.LeaderboardService;
+import com.project.thelittlethings.services.UserService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +26,10 @@ class LeaderboardControllerTest {
     @MockBean
     private LeaderboardService leaderboardService;
 
+    // required by AuthFilter
+    @MockBean
+    private UserService userService;
+
     @Test
     void testGetLeaderboard_withRegion() throws Exception {
         List<LeaderboardUserDTO> mockResponse = List.of(
@@ -58,4 +64,21 @@ class LeaderboardControllerTest {
                 .andExpect(jsonPath("$[0].region").value("Asia"))
                 .andExpect(jsonPath("$[0].trophies").value(80));
     }
+
+    @Test
+    void testGetLeaderboardPage_withCursor() throws Exception {
+        LeaderboardPage mockResponse = new LeaderboardPage(
+                List.of(new LeaderboardUserDTO(3L, "user3", "Europe", 70)), "next-cursor");
+
+        Mockito.when(leaderboardService.getLeaderboardPage("Europe", "abc", 1))
+                .thenReturn(mockResponse);
+
+        mockMvc.perform(get("/api/leaderboard/cursor")
+                .param("region", "Europe")
+                .param("cursor", "abc")
+                .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].username").value("user3"))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"));
+    }
 }
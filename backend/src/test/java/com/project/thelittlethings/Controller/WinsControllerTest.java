@@ -26,7 +26,9 @@ import jakarta.persistence.EntityNotFoundException;
 
 import com.project.thelittlethings.controller.GoalController;
 import com.project.thelittlethings.entities.User;
+import com.project.thelittlethings.security.AuthPrincipal;
 import com.project.thelittlethings.security.HMACtokens;
+import com.project.thelittlethings.security.VerifiedToken;
 import com.project.thelittlethings.services.GoalService;
 import com.project.thelittlethings.services.UserService;
 
@@ -67,13 +69,14 @@ class WinsControllerTest {
         testUser.setTrophies(2);
         testUser.setLastLogin(OffsetDateTime.now());
 
-        // Mock UserService to return the testUser when finding by username
-        when(userService.findByUsername(username)).thenReturn(testUser);
+        // Mock UserService to resolve the testUser's principal for the auth filter
+        when(userService.resolvePrincipal(username))
+                .thenReturn(new AuthPrincipal(testUser.getUserId(), testUser.getUsername(), testUser.getRegion()));
 
         // Mock static methods in HMACtokens
         try (MockedStatic<HMACtokens> mockedTokens = Mockito.mockStatic(HMACtokens.class)) {
-            mockedTokens.when(() -> HMACtokens.validateToken(token)).thenReturn(true);
-            mockedTokens.when(() -> HMACtokens.extractUsername(token)).thenReturn(username);
+            mockedTokens.when(() -> HMACtokens.verify(token))
+                    .thenReturn(new VerifiedToken(username, System.currentTimeMillis() + 60_000));
 
             // Mock goalService behavior
             doNothing().when(goalService).completeGoal(goalId);
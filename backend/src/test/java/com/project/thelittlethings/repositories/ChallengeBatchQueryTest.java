@@ -0,0 +1,107 @@
+package com.project.thelittlethings.repositories;
+
+import com.project.thelittlethings.dto.challenges.ChallengeStatus;
+import com.project.thelittlethings.entities.Category;
+import com.project.thelittlethings.entities.Challenge;
+import com.project.thelittlethings.entities.Goal;
+import com.project.thelittlethings.entities.User;
+import com.project.thelittlethings.entities.Win;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Nightly generation: one grouped candidate read, and batched inserts that skip users who already have one
+@DataJpaTest
+@Import(ChallengeBatchRepository.class)
+class ChallengeBatchQueryTest {
+
+    @Autowired EntityManager em;
+    @Autowired ChallengeBatchRepository batchRepo;
+    @Autowired ChallengeRepository challengeRepo;
+
+    User alice, bob, carol;
+
+    private User user(String name) {
+        return TestUsers.persist(em, name);
+    }
+
+    private void wins(User u, int n, int daysAgo) {
+        Category cat = new Category();
+        cat.setUser(u);
+        cat.setName("cat-" + u.getUsername() + daysAgo);
+        em.persist(cat);
+        Goal goal = new Goal();
+        goal.setUser(u);
+        goal.setCategory(cat);
+        goal.setTitle("goal");
+        goal.setPriority("LOW");
+        em.persist(goal);
+        for (int i = 0; i < n; i++) {
+            Win w = new Win();
+            w.setUser(u);
+            w.setGoal(goal);
+            w.setTitle("win" + i);
+            w.setCompletionDate(OffsetDateTime.now().minusDays(daysAgo));
+            em.persist(w);
+        }
+    }
+
+    private void challenge(User u, ChallengeStatus status) {
+        Challenge ch = new Challenge();
+        ch.setUser(u);
+        ch.setTitle("existing");
+        ch.setReward(5);
+        ch.setProgressTotal(3);
+        ch.setStatus(status);
+        ch.setCreatedAt(Instant.now());
+        em.persist(ch);
+    }
+
+    @BeforeEach
+    void seed() {
+        alice = user("alice");
+        bob = user("bob");
+        carol = user("carol");
+        wins(alice, 4, 2);
+        wins(alice, 3, 60);                         // outside the window
+        challenge(bob, ChallengeStatus.ACTIVE);     // already has an open one
+        challenge(carol, ChallengeStatus.DECLINED); // closed, still a candidate
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void candidates_countRecentWins_andSkipOpenChallenges() {
+        List<ChallengeBatchRepository.Candidate> out = batchRepo.findCandidates(OffsetDateTime.now().minusDays(30));
+
+        assertEquals(List.of(
+                new ChallengeBatchRepository.Candidate(alice.getUserId(), 4),
+                new ChallengeBatchRepository.Candidate(carol.getUserId(), 0)), out);
+    }
+
+    @Test
+    void insertSuggested_skipsUsersWithAnOpenChallenge() {
+        List<ChallengeBatchRepository.Suggestion> rows = List.of(
+                new ChallengeBatchRepository.Suggestion(alice.getUserId(), "t", "d", 6, 6, "SYSTEM_FROM_WINS"),
+                new ChallengeBatchRepository.Suggestion(bob.getUserId(), "t", "d", 5, 3, "SYSTEM_FROM_WINS"));
+
+        assertEquals(1, batchRepo.insertSuggested(rows, Instant.now()));
+        // a rerun finds alice's new suggestion and adds nothing
+        assertEquals(0, batchRepo.insertSuggested(rows, Instant.now()));
+
+        List<Challenge> mine = challengeRepo.findAllByUser_UserIdAndStatusIn(alice.getUserId(),
+                List.of(ChallengeStatus.SUGGESTED));
+        assertEquals(1, mine.size());
+        assertEquals(6, mine.get(0).getProgressTotal());
+        assertEquals(0, mine.get(0).getProgressCurrent());
+    }
+}
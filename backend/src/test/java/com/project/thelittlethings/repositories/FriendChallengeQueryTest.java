@@ -0,0 +1,100 @@
+package com.project.thelittlethings.repositories;
+
+import com.project.thelittlethings.dto.friends.ChallengeResponse;
+import com.project.thelittlethings.entities.FriendChallenge;
+import com.project.thelittlethings.entities.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Challenge listings: only my open challenges, newest first, rendered without lazy loads
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class FriendChallengeQueryTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired FriendChallengeRepository challengeRepo;
+
+    User alice, bob, carol;
+
+    private static final List<FriendChallenge.Status> OPEN = List.of(
+            FriendChallenge.Status.PROPOSED, FriendChallenge.Status.ACCEPTED,
+            FriendChallenge.Status.ACTIVE, FriendChallenge.Status.COMPLETION_REQUESTED);
+
+    private User user(String name) {
+        return TestUsers.persist(em, name);
+    }
+
+    private void challenge(User challenger, User opponent, FriendChallenge.Status status, String goals, int minutesAgo) {
+        OffsetDateTime at = OffsetDateTime.now().minusMinutes(minutesAgo);
+        FriendChallenge fc = FriendChallenge.builder().challenger(challenger).opponent(opponent)
+                .goalList(goals).status(status).createdAt(at).updatedAt(at).build();
+        em.persist(fc);
+    }
+
+    @BeforeEach
+    void seed() {
+        alice = user("alice");
+        bob = user("bob");
+        carol = user("carol");
+        challenge(alice, bob, FriendChallenge.Status.ACCEPTED, "a-vs-b", 30);
+        challenge(carol, alice, FriendChallenge.Status.PROPOSED, "c-vs-a", 20);
+        challenge(alice, carol, FriendChallenge.Status.COMPLETED, "done", 10);    // closed
+        challenge(bob, carol, FriendChallenge.Status.ACCEPTED, "not-mine", 5);    // other users
+        em.flush();
+        em.clear();
+        stats().clear();
+    }
+
+    private Statistics stats() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void participantPage_onlyMyOpenChallenges_inOneStatement() {
+        List<ChallengeResponse> page = challengeRepo
+                .findPageForParticipant(alice.getUserId(), OPEN, PageRequest.of(0, 10)).stream()
+                .map(ChallengeResponse::fromEntity).toList();
+
+        assertEquals(List.of("c-vs-a", "a-vs-b"), page.stream().map(ChallengeResponse::getGoalList).toList());
+        assertEquals("carol", page.get(0).getChallengerUsername());
+        assertEquals("bob", page.get(1).getOpponentUsername());
+        assertEquals(1, stats().getPrepareStatementCount());
+
+        assertEquals(List.of("c-vs-a"), challengeRepo.findPageForParticipant(alice.getUserId(), OPEN, PageRequest.of(0, 1))
+                .stream().map(FriendChallenge::getGoalList).toList());
+    }
+
+    @Test
+    void opponentPage_onlyProposedToMe() {
+        List<FriendChallenge> page = challengeRepo.findPageForOpponent(alice.getUserId(),
+                FriendChallenge.Status.PROPOSED, PageRequest.of(0, 10));
+
+        assertEquals(1, page.size());
+        assertEquals("carol", ChallengeResponse.fromEntity(page.get(0)).getChallengerUsername());
+        assertEquals(1, stats().getPrepareStatementCount());
+        assertTrue(challengeRepo.findPageForOpponent(bob.getUserId(), FriendChallenge.Status.PROPOSED, PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void lockedRead_returnsTheChallenge() {
+        Long id = challengeRepo.findPageForOpponent(alice.getUserId(), FriendChallenge.Status.PROPOSED,
+                PageRequest.of(0, 1)).get(0).getId();
+        em.clear();
+
+        FriendChallenge locked = challengeRepo.findByIdForUpdate(id).orElseThrow();
+        assertEquals("c-vs-a", locked.getGoalList());
+        assertTrue(challengeRepo.findByIdForUpdate(-1L).isEmpty());
+    }
+}
@@ -0,0 +1,99 @@
+package com.project.thelittlethings.repositories;
+
+import com.project.thelittlethings.View.FriendshipView;
+import com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO;
+import com.project.thelittlethings.entities.Friendship;
+import com.project.thelittlethings.entities.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Friend list / incoming requests / friends leaderboard: right rows (no OR-precedence leaks), one statement each
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class FriendshipQueryTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired FriendshipRepository friendshipRepo;
+    @Autowired UserRepository userRepo;
+
+    User alice, bob, carol, dave;
+
+    private User user(String name, int trophies) {
+        return TestUsers.persist(em, name, trophies);
+    }
+
+    private void friendship(User a, User b, Friendship.Status status, User requestedBy, int minutesAgo) {
+        em.persist(Friendship.builder().userA(a).userB(b).status(status).requestedBy(requestedBy)
+                .requestedAt(OffsetDateTime.now().minusMinutes(minutesAgo)).build());
+    }
+
+    @BeforeEach
+    void seed() {
+        alice = user("alice", 50);
+        bob = user("bob", 120);
+        carol = user("carol", 10);
+        dave = user("dave", 75);
+        friendship(alice, bob, Friendship.Status.ACCEPTED, alice, 30);
+        friendship(alice, carol, Friendship.Status.PENDING, carol, 20);   // incoming for alice
+        friendship(alice, dave, Friendship.Status.PENDING, alice, 10);    // outgoing for alice
+        friendship(bob, carol, Friendship.Status.ACCEPTED, bob, 5);       // not alice's
+        em.flush();
+        em.clear();
+        stats().clear();
+    }
+
+    private Statistics stats() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void acceptedFriends_onlyMine_withSummary() {
+        List<FriendshipView> rows = friendshipRepo.findRowsByStatus(alice.getUserId(), Friendship.Status.ACCEPTED, PageRequest.of(0, 10));
+
+        assertEquals(1, rows.size());
+        assertEquals(bob.getUserId(), rows.get(0).getFriendId());
+        assertEquals("bob", rows.get(0).getFriendUsername());
+        assertEquals(120, rows.get(0).getFriendTrophies());
+        assertEquals(alice.getUserId(), rows.get(0).getRequestedById());
+        assertEquals(1, stats().getPrepareStatementCount());
+    }
+
+    @Test
+    void incoming_excludesOutgoingAndOtherUsers() {
+        List<FriendshipView> rows = friendshipRepo.findIncomingRows(alice.getUserId(), PageRequest.of(0, 10));
+
+        assertEquals(1, rows.size());
+        assertEquals("carol", rows.get(0).getFriendUsername());
+        assertEquals(Friendship.Status.PENDING, rows.get(0).getStatus());
+        assertEquals(1, stats().getPrepareStatementCount());
+
+        // bob has two friends, newest first, paged
+        List<FriendshipView> bobs = friendshipRepo.findRowsByStatus(bob.getUserId(), Friendship.Status.ACCEPTED, PageRequest.of(0, 1));
+        assertEquals(List.of("carol"), bobs.stream().map(FriendshipView::getFriendUsername).toList());
+    }
+
+    @Test
+    void friendsLeaderboard_callerPlusAcceptedOnly_inRankOrder() {
+        List<LeaderboardUserDTO> rows = userRepo.findFriendsLeaderboard(bob.getUserId());
+
+        // bob's accepted friends are alice (as userB) and carol (as userA)
+        assertEquals(List.of("bob", "alice", "carol"), rows.stream().map(LeaderboardUserDTO::getUsername).toList());
+        assertEquals(1, stats().getPrepareStatementCount());
+
+        // alice's pending requests don't count
+        assertEquals(List.of("bob", "alice"),
+                userRepo.findFriendsLeaderboard(alice.getUserId()).stream().map(LeaderboardUserDTO::getUsername).toList());
+    }
+}
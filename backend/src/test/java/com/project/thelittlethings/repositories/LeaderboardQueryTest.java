@@ -0,0 +1,67 @@
+package com.project.thelittlethings.repositories;
+
+import com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO;
+import com.project.thelittlethings.entities.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Keyset leaderboard pages: walking page by page returns every user exactly once, including across ties
+@DataJpaTest
+class LeaderboardQueryTest {
+
+    @Autowired EntityManager em;
+    @Autowired UserRepository userRepo;
+
+    private void user(String name, String region, int trophies) {
+        User u = TestUsers.persist(em, name, trophies);
+        u.setRegion(region);
+    }
+
+    @BeforeEach
+    void seed() {
+        user("top", "EU", 90);
+        for (int i = 0; i < 5; i++) user("tie" + i, i % 2 == 0 ? "EU" : "US", 50); // a run of equal trophies
+        user("low", "EU", 10);
+        em.flush();
+        em.clear();
+    }
+
+    private List<String> walkGlobal(int size) {
+        List<String> seen = new ArrayList<>();
+        int trophies = Integer.MAX_VALUE;
+        long userId = 0;
+        while (true) {
+            List<LeaderboardUserDTO> page = userRepo.findLeaderboardAfter(trophies, userId, PageRequest.of(0, size));
+            if (page.isEmpty()) return seen;
+            page.forEach(r -> seen.add(r.getUsername()));
+            LeaderboardUserDTO last = page.get(page.size() - 1);
+            trophies = last.getTrophies();
+            userId = last.getUserId();
+        }
+    }
+
+    @Test
+    void globalPages_crossARunOfTies_withoutGapsOrRepeats() {
+        assertEquals(List.of("top", "tie0", "tie1", "tie2", "tie3", "tie4", "low"), walkGlobal(2));
+    }
+
+    @Test
+    void regionPage_continuesInsideTheTie() {
+        List<LeaderboardUserDTO> first = userRepo.findRegionLeaderboardAfter("EU", Integer.MAX_VALUE, 0, PageRequest.of(0, 2));
+        assertEquals(List.of("top", "tie0"), first.stream().map(LeaderboardUserDTO::getUsername).toList());
+
+        LeaderboardUserDTO last = first.get(1);
+        List<LeaderboardUserDTO> next = userRepo.findRegionLeaderboardAfter("EU", last.getTrophies(), last.getUserId(),
+                PageRequest.of(0, 10));
+        assertEquals(List.of("tie2", "tie4", "low"), next.stream().map(LeaderboardUserDTO::getUsername).toList());
+    }
+}
@@ -0,0 +1,144 @@
+package com.project.thelittlethings.repositories;
+
+import com.project.thelittlethings.dto.categories.CategoryResponse;
+import com.project.thelittlethings.dto.categories.CategoryStats;
+import com.project.thelittlethings.dto.goals.GoalResponse;
+import com.project.thelittlethings.dto.wins.WinResponse;
+import com.project.thelittlethings.entities.Category;
+import com.project.thelittlethings.entities.Goal;
+import com.project.thelittlethings.entities.User;
+import com.project.thelittlethings.entities.Win;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Listings must come back in exactly one statement, however many rows there are
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ListingProjectionQueryTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired GoalRepository goalRepo;
+    @Autowired WinRepository winRepo;
+    @Autowired CategoryRepository categoryRepo;
+
+    Long userId;
+    Long categoryId;
+
+    @BeforeEach
+    void seed() {
+        User u = new User();
+        u.setUsername("alice");
+        u.setEmail("alice@email");
+        u.setPassword("x");
+        u.setFirstName("Alice");
+        u.setLastName("Anderson");
+        u.setDob(LocalDate.of(2000, 5, 15));
+        em.persist(u);
+
+        for (int c = 0; c < 3; c++) {
+            Category cat = new Category();
+            cat.setUser(u);
+            cat.setName("cat" + c);
+            em.persist(cat);
+            for (int g = 0; g < 4; g++) {
+                Goal goal = new Goal();
+                goal.setUser(u);
+                goal.setCategory(cat);
+                goal.setTitle("goal" + c + g);
+                goal.setPriority(g % 2 == 0 ? "HIGH" : "LOW");
+                em.persist(goal);
+                Win w = new Win();
+                w.setUser(u);
+                w.setGoal(goal);
+                w.setTitle("win" + c + g);
+                w.setNumTrophies(1);
+                w.setCompletionDate(OffsetDateTime.now());
+                em.persist(w);
+            }
+            categoryId = cat.getCategoryId();
+        }
+        userId = u.getUserId();
+        em.flush();
+        em.clear();
+        stats().clear();
+    }
+
+    private Statistics stats() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void winListing_isOneStatement() {
+        List<WinResponse> wins = winRepo.findResponsesByUserId(userId);
+        assertEquals(12, wins.size());
+        assertEquals(userId, wins.get(0).getUserId());
+        assertNotNull(wins.get(0).getGoalId());
+        assertEquals(1, stats().getPrepareStatementCount());
+        assertEquals(0, stats().getEntityLoadCount());
+    }
+
+    @Test
+    void goalListings_areOneStatementEach() {
+        List<GoalResponse> goals = goalRepo.findResponsesByUserId(userId);
+        assertEquals(12, goals.size());
+        assertEquals(1, stats().getPrepareStatementCount());
+
+        List<GoalResponse> inCategory = goalRepo.findResponsesByUserIdAndCategoryId(userId, categoryId);
+        assertEquals(4, inCategory.size());
+        assertEquals(categoryId, inCategory.get(0).getCategoryId());
+        assertEquals(2, stats().getPrepareStatementCount());
+        assertEquals(0, stats().getEntityLoadCount());
+    }
+
+    @Test
+    void categoryListing_isOneStatement() {
+        List<CategoryResponse> categories = categoryRepo.findResponsesByUserId(userId);
+        assertEquals(3, categories.size());
+        assertEquals(userId, categories.get(0).getUserId());
+        assertEquals(1, stats().getPrepareStatementCount());
+        assertEquals(0, stats().getEntityLoadCount());
+    }
+
+    @Test
+    void groupingQueries_countAndPagePerPriority() {
+        Map<String, Long> totals = goalRepo.countByPriority(userId, null).stream()
+                .collect(Collectors.toMap(GoalRepository.PriorityCount::getPriority, GoalRepository.PriorityCount::getTotal));
+        assertEquals(Map.of("HIGH", 6L, "LOW", 6L), totals);
+
+        List<GoalResponse> high = goalRepo.findResponsesByPriority(userId, categoryId, "HIGH", PageRequest.of(0, 1));
+        assertEquals(1, high.size());
+        assertEquals(categoryId, high.get(0).getCategoryId());
+
+        assertEquals(12, goalRepo.findResponsesForGrouping(userId, null).size());
+        assertEquals(3, stats().getPrepareStatementCount());
+    }
+
+    @Test
+    void categoryStats_allCategoriesInOneStatement() {
+        List<CategoryStats> rows = categoryRepo.findStatsByUserId(userId);
+
+        assertEquals(List.of("cat0", "cat1", "cat2"), rows.stream().map(CategoryStats::getName).toList());
+        for (CategoryStats row : rows) {
+            assertEquals(4, row.getGoalCount());
+            assertEquals(4, row.getWinCount());
+            assertEquals(4, row.getTrophies());
+            assertNotNull(row.getLastActivity());
+        }
+        assertEquals(1, stats().getPrepareStatementCount());
+    }
+}
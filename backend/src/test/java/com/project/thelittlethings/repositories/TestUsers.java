@@ -0,0 +1,29 @@
+package com.project.thelittlethings.repositories;
+
+import com.project.thelittlethings.entities.User;
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDate;
+
+// Minimal valid users for the repository query tests.
+final class TestUsers {
+
+    private TestUsers() {}
+
+    static User persist(EntityManager em, String name) {
+        return persist(em, name, 0);
+    }
+
+    static User persist(EntityManager em, String name, int trophies) {
+        User u = new User();
+        u.setUsername(name);
+        u.setEmail(name + "@email");
+        u.setPassword("x");
+        u.setFirstName(name);
+        u.setLastName(name);
+        u.setDob(LocalDate.of(2000, 1, 1));
+        u.setTrophies(trophies);
+        em.persist(u);
+        return u;
+    }
+}
@@ -0,0 +1,61 @@
+package com.project.thelittlethings.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HMACtokensTest {
+
+    @Test
+    void issuedToken_verifiesAndCarriesUsername() {
+        String token = HMACtokens.issueToken("alice", 60);
+
+        VerifiedToken first = HMACtokens.verify(token);
+        assertNotNull(first);
+        assertEquals("alice", first.username());
+
+        // second lookup is served from the cache
+        assertSame(first, HMACtokens.verify(token));
+        assertTrue(HMACtokens.validateToken(token));
+        assertEquals("alice", HMACtokens.extractUsername(token));
+    }
+
+    @Test
+    void tamperedToken_isRejected() {
+        String token = HMACtokens.issueToken("bob", 60);
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("admin:9999999999".getBytes(StandardCharsets.UTF_8));
+        String forged = forgedPayload + token.substring(token.indexOf(':'));
+
+        assertNull(HMACtokens.verify(forged));
+        assertFalse(HMACtokens.validateToken(forged));
+        assertFalse(HMACtokens.validateToken(token + "x"));
+        assertFalse(HMACtokens.validateToken("garbage"));
+        assertFalse(HMACtokens.validateToken(null));
+    }
+
+    @Test
+    void expiredToken_isRejected() {
+        String token = HMACtokens.issueToken("carol", -5);
+
+        assertNull(HMACtokens.verify(token));
+        // username is still readable, matching the old extractUsername contract
+        assertEquals("carol", HMACtokens.extractUsername(token));
+    }
+
+    @Test
+    void fullCache_evictsLeastRecentlyUsedTokensOnly() {
+        String token = HMACtokens.issueToken("carol", 60);
+        VerifiedToken first = HMACtokens.verify(token);
+
+        for (int i = 0; i < HMACtokens.MAX_CACHED; i++) {
+            HMACtokens.verify(HMACtokens.issueToken("filler" + i, 60));
+            if (i == HMACtokens.MAX_CACHED / 2) HMACtokens.verify(token); // keeps it recently used
+        }
+
+        assertSame(first, HMACtokens.verify(token));
+    }
+}
@@ -0,0 +1,23 @@
+package com.project.thelittlethings.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamTicketsTest {
+
+    @Test
+    void ticket_redeemsOnceForItsUser() {
+        String ticket = StreamTickets.issue("alice");
+
+        assertEquals("alice", StreamTickets.redeem(ticket));
+        assertNull(StreamTickets.redeem(ticket)); // already used
+    }
+
+    @Test
+    void unknownTickets_areRejected() {
+        assertNull(StreamTickets.redeem("made-up"));
+        assertNull(StreamTickets.redeem(null));
+        assertNotEquals(StreamTickets.issue("bob"), StreamTickets.issue("bob"));
+    }
+}
@@ -0,0 +1,54 @@
+package com.project.thelittlethings.security;
+
+import com.project.thelittlethings.entities.RevokedToken;
+import com.project.thelittlethings.repositories.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationStoreTest {
+
+    @Test
+    void revokedToken_isRejectedUntilSwept() {
+        RevokedTokenRepository repo = mock(RevokedTokenRepository.class);
+        TokenRevocationStore store = new TokenRevocationStore(repo, false);
+        String token = HMACtokens.issueToken("alice", 60);
+
+        assertFalse(store.isRevoked(token));
+        store.revoke(token);
+        assertTrue(store.isRevoked(token));
+
+        // still within its lifetime, so the sweep keeps it
+        store.sweep();
+        assertTrue(store.isRevoked(token));
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void invalidToken_isNotStored() {
+        TokenRevocationStore store = new TokenRevocationStore(mock(RevokedTokenRepository.class), false);
+        store.revoke("not-a-token");
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void persistentMode_writesThroughAndLoadsOnStartup() {
+        RevokedTokenRepository repo = mock(RevokedTokenRepository.class);
+        String token = HMACtokens.issueToken("bob", 60);
+        long expiresAt = java.time.Instant.now().getEpochSecond() + 60;
+        when(repo.findByExpiresAtGreaterThan(anyLong())).thenReturn(List.of(new RevokedToken(token, expiresAt)));
+
+        TokenRevocationStore restarted = new TokenRevocationStore(repo, true);
+        restarted.load();
+        assertTrue(restarted.isRevoked(token));
+
+        String other = HMACtokens.issueToken("carol", 60);
+        restarted.revoke(other);
+        verify(repo).save(any(RevokedToken.class));
+    }
+}
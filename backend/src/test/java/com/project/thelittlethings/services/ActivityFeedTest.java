@@ -0,0 +1,151 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.dto.friends.FeedItem;
+import com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO;
+import com.project.thelittlethings.repositories.FriendshipRepository;
+import com.project.thelittlethings.repositories.WinRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ActivityFeedTest {
+
+    private WinRepository winRepo;
+    private FriendGraph graph;
+    private LeaderboardIndex leaderboardIndex;
+
+    private static FriendshipRepository.FriendPair pair(long a, long b) {
+        return new FriendshipRepository.FriendPair() {
+            public Long getUserAId() { return a; }
+            public Long getUserBId() { return b; }
+        };
+    }
+
+    private static WinRecordedEvent win(long winId, long userId) {
+        return new WinRecordedEvent(winId, userId, 1L, "win " + winId, 1, OffsetDateTime.now());
+    }
+
+    private static List<Long> ids(List<FeedItem> items) {
+        return items.stream().map(FeedItem::getWinId).toList();
+    }
+
+    @BeforeEach
+    void setup() {
+        winRepo = mock(WinRepository.class);
+        leaderboardIndex = mock(LeaderboardIndex.class);
+        when(leaderboardIndex.entryOf(anyLong())).thenReturn(new LeaderboardUserDTO(0L, "someone", null, 0));
+        graph = new FriendGraph(mock(FriendshipRepository.class), true);
+        // 1 - 2, 1 - 3, 3 - 4
+        graph.load(List.of(pair(1, 2), pair(1, 3), pair(3, 4)));
+    }
+
+    @Test
+    void fanOut_appendsToFriendsInboxes_afterOneSeedQuery() {
+        ActivityFeed feed = new ActivityFeed(winRepo, graph, leaderboardIndex, true, 5, 1000);
+        when(winRepo.findFriendFeed(eq(1L), anyLong(), any()))
+                .thenReturn(List.of(new FeedItem(5L, 2L, "bob", "old", 1, null)));
+
+        assertEquals(List.of(5L), ids(feed.page(1L, null, 10)));
+
+        feed.onWinRecorded(win(10L, 2L));
+        feed.onWinRecorded(win(11L, 4L));   // not a friend of 1
+        feed.onWinRecorded(win(12L, 3L));
+
+        assertEquals(List.of(12L, 10L, 5L), ids(feed.page(1L, null, 10)));
+        assertEquals(List.of(10L, 5L), ids(feed.page(1L, 12L, 10)));
+        verify(winRepo, times(1)).findFriendFeed(eq(1L), anyLong(), any());
+    }
+
+    @Test
+    void fullRing_continuesFromTheTable() {
+        ActivityFeed feed = new ActivityFeed(winRepo, graph, leaderboardIndex, true, 2, 1000);
+        when(winRepo.findFriendFeed(eq(1L), eq(Long.MAX_VALUE), any())).thenReturn(List.of());
+        when(winRepo.findFriendFeed(eq(1L), eq(40L), any()))
+                .thenReturn(List.of(new FeedItem(7L, 2L, "bob", "old", 1, null)));
+        feed.page(1L, null, 10);
+        feed.onWinRecorded(win(40L, 2L));
+        feed.onWinRecorded(win(41L, 3L));
+
+        assertEquals(List.of(41L, 40L, 7L), ids(feed.page(1L, null, 10)));
+    }
+
+    @Test
+    void highFanoutAuthor_isPulledAtReadTime() {
+        // anyone with more than one friend is treated as high-fanout here
+        ActivityFeed feed = new ActivityFeed(winRepo, graph, leaderboardIndex, true, 10, 1);
+        when(winRepo.findFriendFeed(anyLong(), anyLong(), any())).thenReturn(List.of());
+        feed.page(4L, null, 10);
+        feed.page(1L, null, 10);
+
+        feed.onWinRecorded(win(20L, 3L));   // 3 has two friends -> outbox
+        feed.onWinRecorded(win(21L, 2L));   // 2 has one friend -> fan-out
+
+        assertEquals(List.of(20L), ids(feed.page(4L, null, 10)));
+        assertEquals(List.of(21L, 20L), ids(feed.page(1L, null, 10)));
+    }
+
+    @Test
+    void removedFriend_isFilteredOnRead() {
+        ActivityFeed feed = new ActivityFeed(winRepo, graph, leaderboardIndex, true, 10, 1000);
+        when(winRepo.findFriendFeed(anyLong(), anyLong(), any())).thenReturn(List.of());
+        feed.page(1L, null, 10);
+        feed.onWinRecorded(win(30L, 2L));
+
+        graph.removeFriendship(1L, 2L);
+
+        assertTrue(feed.page(1L, null, 10).isEmpty());
+    }
+
+    @Test
+    void deletedWins_leaveInboxesAndOutboxes() {
+        ActivityFeed feed = new ActivityFeed(winRepo, graph, leaderboardIndex, true, 10, 1);
+        when(winRepo.findFriendFeed(anyLong(), anyLong(), any())).thenReturn(List.of());
+        feed.page(1L, null, 10);
+        feed.page(4L, null, 10);
+        feed.onWinRecorded(win(40L, 2L));   // fanned out to 1
+        feed.onWinRecorded(win(41L, 2L));
+        feed.onWinRecorded(win(42L, 3L));   // 3's outbox
+
+        feed.onWinsDeleted(new WinsDeletedEvent(2L, List.of(40L)));
+        feed.onWinsDeleted(new WinsDeletedEvent(3L, List.of(42L)));
+
+        assertEquals(List.of(41L), ids(feed.page(1L, null, 10)));
+        assertTrue(feed.page(4L, null, 10).isEmpty());
+    }
+
+    @Test
+    void deleteFromFullRing_stillContinuesFromTheTable() {
+        ActivityFeed feed = new ActivityFeed(winRepo, graph, leaderboardIndex, true, 2, 1000);
+        when(winRepo.findFriendFeed(eq(1L), eq(Long.MAX_VALUE), any())).thenReturn(List.of());
+        when(winRepo.findFriendFeed(eq(1L), eq(51L), any()))
+                .thenReturn(List.of(new FeedItem(7L, 2L, "bob", "old", 1, null)));
+        feed.page(1L, null, 10);
+        feed.onWinRecorded(win(50L, 2L));
+        feed.onWinRecorded(win(51L, 3L));
+
+        feed.onWinsDeleted(new WinsDeletedEvent(2L, List.of(50L)));
+
+        assertEquals(List.of(51L, 7L), ids(feed.page(1L, null, 10)));
+    }
+
+    @Test
+    void friendshipChange_rebuildsBothInboxesOnNextRead() {
+        ActivityFeed feed = new ActivityFeed(winRepo, graph, leaderboardIndex, true, 10, 1000);
+        when(winRepo.findFriendFeed(eq(2L), anyLong(), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(new FeedItem(8L, 4L, "dan", "before we met", 1, null)));
+        assertEquals(List.of(), ids(feed.page(2L, null, 10)));
+
+        graph.addFriendship(2L, 4L);
+        feed.friendshipChanged(2L, 4L);
+
+        assertEquals(List.of(8L), ids(feed.page(2L, null, 10)));
+        verify(winRepo, times(2)).findFriendFeed(eq(2L), anyLong(), any());
+    }
+}
@@ -0,0 +1,66 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.repositories.CategoryActivityRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CategoryActivityTrackerTest {
+
+    private CategoryActivityRepository activityRepo;
+    private NeglectedCategoryCache neglectedCache;
+    private CategoryStatsCache statsCache;
+    private CategoryActivityTracker tracker;
+    private final OffsetDateTime t0 = OffsetDateTime.now(ZoneOffset.UTC).minusDays(2).truncatedTo(ChronoUnit.HOURS);
+
+    @BeforeEach
+    void setup() {
+        activityRepo = mock(CategoryActivityRepository.class);
+        neglectedCache = mock(NeglectedCategoryCache.class);
+        statsCache = mock(CategoryStatsCache.class);
+        tracker = new CategoryActivityTracker(activityRepo, neglectedCache, statsCache, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void batchOfWins_isOneUpsertPerGoal_withTheLatestDate() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        tracker.onWinRecorded(new WinRecordedEvent(1L, 9L, 100L, "a", 1, t0));
+        tracker.onWinRecorded(new WinRecordedEvent(2L, 9L, 100L, "b", 1, t0.plusHours(2)));
+        tracker.onWinRecorded(new WinRecordedEvent(3L, 9L, 200L, "c", 1, t0.minusDays(1)));
+        tracker.onWinRecorded(new WinRecordedEvent(4L, 9L, 100L, "d", 1, t0.plusHours(1)));
+        tracker.onWinRecorded(new WinRecordedEvent(5L, 9L, 200L, "undated", 1, null));
+        tracker.onWinRecorded(new WinRecordedEvent(6L, 9L, 200L, "old", 1, t0.minusDays(60)));
+        verifyNoInteractions(activityRepo);
+
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) s.beforeCommit(false);
+
+        verify(activityRepo).recordWins(100L, t0.plusHours(2), 3, 3);
+        verify(activityRepo).recordWins(200L, t0.minusDays(1), 2, 1); // the old win is outside the recent window
+        verifyNoMoreInteractions(activityRepo);
+        // cached views of user 9 are dropped once for the whole batch
+        verify(neglectedCache, times(1)).invalidate(9L);
+        verify(statsCache, times(1)).invalidate(9L);
+    }
+
+    @Test
+    void outsideATransaction_appliesImmediately() {
+        tracker.onWinRecorded(new WinRecordedEvent(1L, 9L, 100L, "a", 1, t0));
+        verify(activityRepo).recordWins(eq(100L), eq(t0), eq(1), eq(1));
+        verify(neglectedCache).invalidate(9L);
+    }
+}
@@ -1,37 +1,48 @@
 package com.project.thelittlethings.services;
 
+import com.project.thelittlethings.MaterialisedView.CategoryNeglectedView;
 import com.project.thelittlethings.dto.categories.CreateCategoryRequest;
 import com.project.thelittlethings.dto.categories.UpdateCategoryRequest;
 import com.project.thelittlethings.dto.categories.CategoryResponse;
+import com.project.thelittlethings.dto.categories.CategoryStats;
 import com.project.thelittlethings.entities.Category;
 import com.project.thelittlethings.entities.User;
+import com.project.thelittlethings.repositories.CategoryActivityRepository;
 import com.project.thelittlethings.repositories.CategoryRepository;
 import com.project.thelittlethings.repositories.UserRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 class CategoryServiceTest {
 
     private CategoryRepository categoryRepo;
     private UserRepository userRepo;
+    private CategoryActivityRepository activityRepo;
+    private CategoryActivityTracker categoryActivity;
     private CategoryService service;
 
     @BeforeEach
     void setup() {
         categoryRepo = mock(CategoryRepository.class);
         userRepo = mock(UserRepository.class);
+        activityRepo = mock(CategoryActivityRepository.class);
+        categoryActivity = mock(CategoryActivityTracker.class);
         MockitoAnnotations.openMocks(this);
-        service = new CategoryService(categoryRepo, userRepo);
+        service = new CategoryService(categoryRepo, userRepo, activityRepo, categoryActivity,
+                new NeglectedCategoryCache(true, 100, new SimpleMeterRegistry()), new CategoryStatsCache(60_000));
     }
 
     private User mockUser(long id) {
@@ -69,6 +80,7 @@ class CategoryServiceTest {
         assertEquals(1L, res.getCategoryId());
         assertEquals("Fitness", res.getName());
         verify(categoryRepo).save(any(Category.class));
+        verify(categoryActivity).refresh(10L, List.of(1L));
     }
 
 
@@ -127,11 +139,55 @@ class CategoryServiceTest {
 
         when(userRepo.existsById(10L)).thenReturn(true);
 
-        when(categoryRepo.findByUser_UserId(10L)).thenReturn(List.of(cat1, cat2));
+        when(categoryRepo.findResponsesByUserId(10L))
+            .thenReturn(List.of(CategoryResponse.from(cat1), CategoryResponse.from(cat2)));
 
         List<CategoryResponse> list = service.listByUser(10L);
         assertEquals(2, list.size());
         assertEquals("A", list.get(0).getName());
+        verify(categoryRepo, never()).findByUser_UserId(anyLong());
+    }
+
+    @Test
+    void stats_oneQuery_reusedWithinTheTtl() {
+        when(categoryRepo.findStatsByUserId(10L)).thenReturn(List.of(
+            new CategoryStats(1L, "Fitness", 2, 5, 9, null, Instant.parse("2025-01-01T00:00:00Z"))));
+
+        List<CategoryStats> first = service.statsByUser(10L);
+        List<CategoryStats> second = service.statsByUser(10L);
+
+        assertEquals(5, first.get(0).getWinCount());
+        assertEquals(Instant.parse("2025-01-01T00:00:00Z"), first.get(0).getLastActivity()); // no wins yet
+        assertSame(first, second);
+        verify(categoryRepo, times(1)).findStatsByUserId(10L);
+    }
+
+    private CategoryNeglectedView neglected(long id, Instant lastWinAt, long neglectDays) {
+        CategoryNeglectedView v = mock(CategoryNeglectedView.class);
+        when(v.getCategoryId()).thenReturn(id);
+        when(v.getLastWinAt()).thenReturn(lastWinAt);
+        when(v.getNeglectDays()).thenReturn(neglectDays);
+        return v;
+    }
+
+    @Test
+    void neglected_servedFromCacheUntilTheResultCanChange() {
+        // ticks to 21 days in about an hour: cacheable
+        CategoryNeglectedView fresh = neglected(1L, Instant.now().minus(Duration.ofDays(21)).plusSeconds(3000), 21);
+        when(categoryRepo.findNeglectedCategories(10L, 14)).thenReturn(List.of(fresh));
+        when(activityRepo.findNextNeglectEpoch(10L, 14)).thenReturn(null); // every other category already listed
+
+        assertEquals(1, service.getNeglectedCategories(10L, 14).size());
+        assertEquals(1, service.getNeglectedCategories(10L, 14).size());
+        verify(categoryRepo, times(1)).findNeglectedCategories(10L, 14);
+        verify(activityRepo).findNextNeglectEpoch(10L, 14);
+
+        // an active category crosses the window right now: nothing to cache past that
+        when(activityRepo.findNextNeglectEpoch(10L, 7)).thenReturn(Instant.now().getEpochSecond() - 1);
+        when(categoryRepo.findNeglectedCategories(10L, 7)).thenReturn(List.of());
+        service.getNeglectedCategories(10L, 7);
+        service.getNeglectedCategories(10L, 7);
+        verify(categoryRepo, times(2)).findNeglectedCategories(10L, 7);
     }
 
 }
@@ -0,0 +1,64 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.dto.categories.CategoryStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryStatsCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Supplier<List<CategoryStats>> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            return List.of();
+        };
+    }
+
+    @Test
+    void invalidate_forcesAReloadForThatUserOnly() {
+        CategoryStatsCache cache = new CategoryStatsCache(60_000);
+
+        cache.get(1L, loader());
+        cache.get(1L, loader());
+        cache.get(2L, loader());
+        assertEquals(2, loads.get());
+
+        cache.invalidate(1L); // no transaction: applies immediately
+        cache.get(1L, loader());
+        cache.get(2L, loader());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void loadThatRacedAnInvalidation_isNotServed() {
+        CategoryStatsCache cache = new CategoryStatsCache(60_000);
+
+        // the change commits while the aggregate is still running
+        cache.get(1L, () -> {
+            loads.incrementAndGet();
+            cache.invalidate(1L);
+            return List.of();
+        });
+        cache.get(1L, loader());
+        cache.get(1L, loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_leavesNothingBehindForTheUser() {
+        CategoryStatsCache cache = new CategoryStatsCache(60_000);
+
+        cache.get(1L, loader());
+        cache.invalidate(1L);
+        cache.invalidate(2L); // never cached
+
+        assertEquals(0, cache.size());
+    }
+}
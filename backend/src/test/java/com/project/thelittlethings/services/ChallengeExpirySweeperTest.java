@@ -0,0 +1,93 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.repositories.FriendChallengeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChallengeExpirySweeperTest {
+
+    private FriendChallengeRepository challengeRepo;
+    private LeaderboardIndex leaderboardIndex;
+    private ChallengeExpirySweeper sweeper;
+    private final LocalDate today = LocalDate.of(2025, 1, 10);
+
+    private static FriendChallengeRepository.RefundedBalance balance(long userId, int trophies) {
+        return new FriendChallengeRepository.RefundedBalance() {
+            public Long getUserId() { return userId; }
+            public Integer getTrophies() { return trophies; }
+        };
+    }
+
+    @BeforeEach
+    void setup() {
+        challengeRepo = mock(FriendChallengeRepository.class);
+        leaderboardIndex = mock(LeaderboardIndex.class);
+        sweeper = new ChallengeExpirySweeper(challengeRepo, leaderboardIndex, mock(PlatformTransactionManager.class),
+                true, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sweeper.shutdown();
+    }
+
+    @Test
+    void expire_walksChunksByIdAndRefundsEach() {
+        when(challengeRepo.findExpiredIds(eq(ChallengeExpirySweeper.OPEN), eq(today), eq(0L), any())).thenReturn(List.of(3L, 5L));
+        when(challengeRepo.findExpiredIds(eq(ChallengeExpirySweeper.OPEN), eq(today), eq(5L), any())).thenReturn(List.of(9L));
+        when(challengeRepo.expireAndRefund(List.of(3L, 5L), today)).thenReturn(List.of(balance(1L, 60), balance(2L, 40)));
+        when(challengeRepo.expireAndRefund(List.of(9L), today)).thenReturn(List.of());
+
+        assertEquals(2, sweeper.expire(today));
+
+        verify(challengeRepo).expireAndRefund(List.of(3L, 5L), today);
+        verify(challengeRepo).expireAndRefund(List.of(9L), today);
+        // short last chunk ends the walk without another lookup
+        verify(challengeRepo, times(2)).findExpiredIds(any(), any(), anyLong(), any());
+        verify(leaderboardIndex).updateTrophies(1L, 60);
+        verify(leaderboardIndex).updateTrophies(2L, 40);
+    }
+
+    @Test
+    void expire_failedChunkDoesNotStopTheOthers() {
+        when(challengeRepo.findExpiredIds(any(), eq(today), eq(0L), any())).thenReturn(List.of(1L, 2L));
+        when(challengeRepo.findExpiredIds(any(), eq(today), eq(2L), any())).thenReturn(List.of(4L));
+        when(challengeRepo.expireAndRefund(List.of(1L, 2L), today)).thenThrow(new RuntimeException("deadlock detected"));
+        when(challengeRepo.expireAndRefund(List.of(4L), today)).thenReturn(List.of(balance(7L, 10)));
+
+        assertEquals(1, sweeper.expire(today));
+        verify(leaderboardIndex).updateTrophies(7L, 10);
+    }
+
+    @Test
+    void expire_escrowedChallengeRefundsBothStakes() {
+        // an accept committed just before the sweep: both sides are in escrow for 30
+        when(challengeRepo.findExpiredIds(any(), eq(today), eq(0L), any())).thenReturn(List.of(11L));
+        when(challengeRepo.expireAndRefund(List.of(11L), today)).thenReturn(List.of(balance(1L, 130), balance(2L, 80)));
+
+        assertEquals(2, sweeper.expire(today));
+        verify(leaderboardIndex).updateTrophies(1L, 130);
+        verify(leaderboardIndex).updateTrophies(2L, 80);
+    }
+
+    @Test
+    void expireAndRefund_readsEscrowFromLockedRows() throws Exception {
+        // H2 can't run the writable CTE, so pin its shape: escrow must come from the FOR UPDATE snapshot,
+        // never from an unlocked self-join that would miss a concurrent accept
+        String sql = FriendChallengeRepository.class
+                .getMethod("expireAndRefund", java.util.Collection.class, LocalDate.class)
+                .getAnnotation(org.springframework.data.jpa.repository.Query.class).value();
+        String locked = sql.substring(0, sql.indexOf("), expired AS"));
+        assertTrue(locked.contains("escrowed") && locked.endsWith("FOR UPDATE"), locked);
+        assertTrue(sql.contains("FROM locked l") && sql.contains("l.escrowed AS was_escrowed"), sql);
+    }
+}
@@ -0,0 +1,67 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.repositories.ChallengeBatchRepository;
+import com.project.thelittlethings.repositories.ChallengeBatchRepository.Candidate;
+import com.project.thelittlethings.repositories.ChallengeBatchRepository.Suggestion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChallengeGenerationJobTest {
+
+    private ChallengeBatchRepository batchRepo;
+    private ChallengeGenerationJob job;
+    private final Instant now = Instant.parse("2025-01-10T03:30:00Z");
+
+    @BeforeEach
+    void setup() {
+        batchRepo = mock(ChallengeBatchRepository.class);
+        job = new ChallengeGenerationJob(batchRepo, mock(PlatformTransactionManager.class), true, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        job.shutdown();
+    }
+
+    @Test
+    void generate_sizesLikeOnDemand_andInsertsInChunks() {
+        when(batchRepo.findCandidates(any())).thenReturn(List.of(
+                new Candidate(1L, 0), new Candidate(2L, 5), new Candidate(3L, 20)));
+        when(batchRepo.insertSuggested(anyList(), eq(now))).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        ChallengeGenerationJob.Report report = job.generate(now);
+
+        assertEquals(3, report.usersScanned());
+        assertEquals(3, report.created());
+        assertEquals(2, report.chunks());
+        assertSame(report, job.lastReport());
+        verify(batchRepo).insertSuggested(argThat(rows -> rows.size() == 2
+                && rows.get(0).equals(new Suggestion(1L, ChallengeService.GENERATED_TITLE,
+                        ChallengeService.GENERATED_DESCRIPTION, 5, 3, ChallengeService.GENERATED_SOURCE))
+                && rows.get(1).target() == 7 && rows.get(1).reward() == 7), eq(now));
+        verify(batchRepo).insertSuggested(argThat(rows -> rows.size() == 1 && rows.get(0).target() == 10), eq(now));
+    }
+
+    @Test
+    void generate_failedChunkIsCountedAndOthersStillInsert() {
+        when(batchRepo.findCandidates(any())).thenReturn(List.of(
+                new Candidate(1L, 1), new Candidate(2L, 1), new Candidate(3L, 1)));
+        when(batchRepo.insertSuggested(argThat(rows -> rows != null && rows.size() == 2), any()))
+                .thenThrow(new RuntimeException("deadlock detected"));
+        when(batchRepo.insertSuggested(argThat(rows -> rows != null && rows.size() == 1), any())).thenReturn(1);
+
+        ChallengeGenerationJob.Report report = job.generate(now);
+
+        assertEquals(1, report.created());
+        assertEquals(1, report.failedChunks());
+    }
+}
@@ -0,0 +1,126 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.dto.challenges.ChallengeResponse;
+import com.project.thelittlethings.dto.challenges.ChallengeStatus;
+import com.project.thelittlethings.repositories.ChallengeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChallengeProgressBufferTest {
+
+    private ChallengeRepository challengeRepo;
+    private LeaderboardIndex leaderboardIndex;
+    private ChallengeProgressBuffer buffer;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Supplier<ChallengeResponse> loader(int current, int total, ChallengeStatus status) {
+        return () -> {
+            loads.incrementAndGet();
+            ChallengeResponse dto = new ChallengeResponse();
+            dto.setId(7L);
+            dto.setProgressCurrent(current);
+            dto.setProgressTotal(total);
+            dto.setReward(10);
+            dto.setStatus(status);
+            return dto;
+        };
+    }
+
+    @BeforeEach
+    void setup() {
+        challengeRepo = mock(ChallengeRepository.class);
+        leaderboardIndex = mock(LeaderboardIndex.class);
+        buffer = new ChallengeProgressBuffer(challengeRepo, leaderboardIndex, mock(PlatformTransactionManager.class), true, 20);
+    }
+
+    @Test
+    void deltas_areSummedInMemory_andWrittenOnceOnFlush() {
+        Supplier<ChallengeResponse> load = loader(2, 10, ChallengeStatus.ACTIVE);
+
+        buffer.add(7L, 1L, 1, load);
+        buffer.add(7L, 1L, -5, load);   // not clamped here: the row may have moved since it was loaded
+        ChallengeResponse view = buffer.add(7L, 1L, 3, load);
+
+        assertEquals(1, view.getProgressCurrent());
+        assertEquals(ChallengeStatus.ACTIVE, view.getStatus());
+        assertEquals(1, loads.get());
+        verifyNoInteractions(challengeRepo);
+
+        buffer.flushAll();
+        verify(challengeRepo).applyProgressDelta(7L, 1L, -1); // the raw sum, clamped by the UPDATE
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void reachingTheTotal_flushesImmediately_andPaysThroughTheLedger() {
+        when(challengeRepo.applyProgressDelta(7L, 1L, 5)).thenReturn(Optional.of(60));
+        Supplier<ChallengeResponse> load = loader(3, 5, ChallengeStatus.ACTIVE);
+
+        buffer.add(7L, 1L, 1, load);
+        ChallengeResponse view = buffer.add(7L, 1L, 4, load); // projection capped at the total
+
+        assertEquals(5, view.getProgressCurrent());
+        assertEquals(ChallengeStatus.ACTIVE, view.getStatus()); // completion is the UPDATE's call
+        verify(challengeRepo).applyProgressDelta(7L, 1L, 5);
+        verify(leaderboardIndex).updateTrophies(1L, 60);
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void inactiveChallenge_isRejectedWithoutBuffering() {
+        assertThrows(IllegalStateException.class,
+                () -> buffer.add(7L, 1L, 1, loader(0, 5, ChallengeStatus.SUGGESTED)));
+        assertEquals(0, buffer.pendingCount());
+        verify(challengeRepo, never()).applyProgressDelta(any(), any(), anyInt());
+    }
+
+    @Test
+    void failedFlush_keepsTheDelta_forTheNextFlush() {
+        when(challengeRepo.applyProgressDelta(7L, 1L, 3))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(Optional.empty());
+        Supplier<ChallengeResponse> load = loader(0, 10, ChallengeStatus.ACTIVE);
+
+        buffer.add(7L, 1L, 3, load);
+        buffer.flushAll();
+        assertEquals(1, buffer.pendingCount());
+
+        buffer.flushAll();
+        verify(challengeRepo, times(2)).applyProgressDelta(7L, 1L, 3);
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void failedFlush_mergesWithDeltasBufferedSince() {
+        when(challengeRepo.applyProgressDelta(7L, 1L, 2)).thenThrow(new IllegalStateException("db down"));
+        Supplier<ChallengeResponse> load = loader(0, 10, ChallengeStatus.ACTIVE);
+
+        buffer.add(7L, 1L, 2, load);
+        buffer.flushAll();
+        buffer.add(7L, 1L, 1, load);
+        buffer.flushAll();
+
+        verify(challengeRepo).applyProgressDelta(7L, 1L, 3);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void flushThatKeepsFailing_isEventuallyDropped() {
+        when(challengeRepo.applyProgressDelta(7L, 1L, 1)).thenThrow(new IllegalStateException("db down"));
+        buffer.add(7L, 1L, 1, loader(0, 10, ChallengeStatus.ACTIVE));
+
+        for (int i = 0; i < ChallengeProgressBuffer.MAX_ATTEMPTS; i++) buffer.flushAll();
+
+        verify(challengeRepo, times(ChallengeProgressBuffer.MAX_ATTEMPTS)).applyProgressDelta(7L, 1L, 1);
+        assertEquals(0, buffer.pendingCount());
+    }
+}
@@ -0,0 +1,75 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.repositories.ChallengeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChallengeProgressTrackerTest {
+
+    private ChallengeRepository challengeRepo;
+    private LeaderboardIndex leaderboardIndex;
+    private ChallengeProgressTracker tracker;
+
+    private static WinRecordedEvent win(long winId, long userId) {
+        return new WinRecordedEvent(winId, userId, 1L, "w", 1, OffsetDateTime.now());
+    }
+
+    @BeforeEach
+    void setup() {
+        challengeRepo = mock(ChallengeRepository.class);
+        leaderboardIndex = mock(LeaderboardIndex.class);
+        tracker = new ChallengeProgressTracker(challengeRepo, leaderboardIndex, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void winsInOneTransaction_areAppliedOncePerUserBeforeCommit() {
+        when(challengeRepo.advanceActiveAndPay(1L, 3)).thenReturn(Optional.of(25)); // a challenge completed
+        when(challengeRepo.advanceActiveAndPay(2L, 1)).thenReturn(Optional.empty());
+        TransactionSynchronizationManager.initSynchronization();
+
+        tracker.onWinRecorded(win(10L, 1L));
+        tracker.onWinRecorded(win(11L, 2L));
+        tracker.onWinRecorded(win(12L, 1L));
+        tracker.onWinRecorded(win(13L, 1L));
+        verifyNoInteractions(challengeRepo);
+
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) s.beforeCommit(false);
+
+        verify(challengeRepo).advanceActiveAndPay(1L, 3);
+        verify(challengeRepo).advanceActiveAndPay(2L, 1);
+        verify(leaderboardIndex).updateTrophies(1L, 25);
+        verify(leaderboardIndex, never()).updateTrophies(eq(2L), any());
+    }
+
+    @Test
+    void rolledBackTransaction_appliesNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+        tracker.onWinRecorded(win(10L, 1L));
+
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+            s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        verifyNoInteractions(challengeRepo);
+        // the next transaction starts a fresh tally
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        tracker.onWinRecorded(win(11L, 1L));
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) s.beforeCommit(false);
+        verify(challengeRepo).advanceActiveAndPay(1L, 1);
+    }
+}
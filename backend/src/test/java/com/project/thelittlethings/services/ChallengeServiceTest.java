@@ -0,0 +1,117 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.dto.challenges.ChallengeResponse;
+import com.project.thelittlethings.dto.challenges.ChallengeStatus;
+import com.project.thelittlethings.dto.challenges.UpdateChallengeRequest;
+import com.project.thelittlethings.entities.Challenge;
+import com.project.thelittlethings.repositories.ChallengeBatchRepository;
+import com.project.thelittlethings.repositories.ChallengeRepository;
+import com.project.thelittlethings.repositories.UserRepository;
+import com.project.thelittlethings.repositories.WinRepository;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChallengeServiceTest {
+
+    @Mock ChallengeRepository challengeRepo;
+    @Mock UserRepository userRepo;
+    @Mock WinRepository winRepo;
+    @Mock ChallengeProgressBuffer progressBuffer;
+    @Mock LeaderboardIndex leaderboardIndex;
+    @Mock ChallengeBatchRepository batchRepo;
+
+    ChallengeService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new ChallengeService(challengeRepo, userRepo, winRepo, progressBuffer, leaderboardIndex, batchRepo);
+    }
+
+    private Challenge challenge(int current, int total, ChallengeStatus status) {
+        Challenge ch = new Challenge();
+        ch.setId(7L);
+        ch.setReward(10);
+        ch.setProgressCurrent(current);
+        ch.setProgressTotal(total);
+        ch.setStatus(status);
+        when(challengeRepo.findByIdAndUser_UserId(7L, 1L)).thenReturn(Optional.of(ch));
+        return ch;
+    }
+
+    private UpdateChallengeRequest req(Integer current, Integer delta) {
+        UpdateChallengeRequest r = new UpdateChallengeRequest();
+        r.setCurrent(current);
+        r.setDelta(delta);
+        return r;
+    }
+
+    @Test
+    void absoluteCurrent_reachingTotal_paysThroughTheGuardedStatement() {
+        challenge(2, 5, ChallengeStatus.ACTIVE);
+        when(challengeRepo.applyProgressDelta(7L, 1L, 3)).thenReturn(Optional.of(40));
+
+        ChallengeResponse res = service.updateProgress(7L, 1L, req(9, null)); // capped at the total
+
+        assertEquals(5, res.getProgressCurrent());
+        assertEquals(ChallengeStatus.COMPLETED, res.getStatus());
+        verify(progressBuffer).flush(7L);
+        verify(leaderboardIndex).updateTrophies(1L, 40);
+        verify(challengeRepo, never()).save(any());
+    }
+
+    @Test
+    void delta_withBufferDisabled_usesTheSameStatement() {
+        challenge(1, 5, ChallengeStatus.ACTIVE);
+        when(progressBuffer.isEnabled()).thenReturn(false);
+        when(challengeRepo.applyProgressDelta(7L, 1L, 2)).thenReturn(Optional.empty());
+
+        ChallengeResponse res = service.updateProgress(7L, 1L, req(null, 2));
+
+        assertEquals(3, res.getProgressCurrent());
+        assertEquals(ChallengeStatus.ACTIVE, res.getStatus());
+        verify(challengeRepo).applyProgressDelta(7L, 1L, 2);
+        verifyNoInteractions(leaderboardIndex);
+    }
+
+    @Test
+    void complete_paysOnceThroughTheLedger() {
+        challenge(1, 5, ChallengeStatus.SUGGESTED);
+        when(challengeRepo.completeAndPay(7L, 1L)).thenReturn(Optional.of(25));
+
+        ChallengeResponse res = service.complete(7L, 1L);
+
+        assertEquals(5, res.getProgressCurrent());
+        assertEquals(ChallengeStatus.COMPLETED, res.getStatus());
+        verify(leaderboardIndex).updateTrophies(1L, 25);
+        verify(challengeRepo, never()).save(any());
+    }
+
+    @Test
+    void complete_alreadyCompleted_doesNotPayAgain() {
+        challenge(5, 5, ChallengeStatus.COMPLETED);
+
+        service.complete(7L, 1L);
+
+        verify(challengeRepo, never()).completeAndPay(any(), any());
+        verifyNoInteractions(leaderboardIndex);
+    }
+
+    @Test
+    void generateFromWins_usesTheGuardedInsert() {
+        when(userRepo.existsById(1L)).thenReturn(true);
+        when(winRepo.countByUser_UserIdAndCompletionDateAfter(eq(1L), any())).thenReturn(4L);
+
+        service.generateFromWins(1L);
+
+        verify(batchRepo).insertSuggested(eq(List.of(ChallengeService.suggestionFor(1L, 4L))), any());
+        verify(challengeRepo, never()).save(any());
+    }
+}
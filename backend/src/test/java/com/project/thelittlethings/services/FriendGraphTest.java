@@ -0,0 +1,96 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.repositories.FriendshipRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FriendGraphTest {
+
+    private FriendGraph graph;
+
+    private static FriendshipRepository.FriendPair pair(long a, long b) {
+        return new FriendshipRepository.FriendPair() {
+            public Long getUserAId() { return a; }
+            public Long getUserBId() { return b; }
+        };
+    }
+
+    @BeforeEach
+    void setup() {
+        graph = new FriendGraph(mock(FriendshipRepository.class), true);
+        graph.load(List.of(pair(1, 2), pair(1, 3), pair(2, 3), pair(3, 7)));
+    }
+
+    @Test
+    void load_buildsSymmetricAdjacency() {
+        assertTrue(graph.isReady());
+        assertTrue(graph.areFriends(1L, 2L));
+        assertTrue(graph.areFriends(2L, 1L));
+        assertFalse(graph.areFriends(1L, 7L));
+        assertEquals(3, graph.friendCount(3L));
+        assertArrayEquals(new long[] {1, 2, 7}, graph.friendsOf(3L));
+        assertArrayEquals(new long[0], graph.friendsOf(99L));
+    }
+
+    @Test
+    void addAndRemove_keepBothSidesInSync() {
+        graph.addFriendship(7L, 1L);
+        assertTrue(graph.areFriends(1L, 7L));
+        assertArrayEquals(new long[] {2, 3, 7}, graph.friendsOf(1L));
+
+        graph.removeFriendship(3L, 7L);
+        assertFalse(graph.areFriends(7L, 3L));
+        assertArrayEquals(new long[] {1}, graph.friendsOf(7L));
+    }
+
+    @Test
+    void removeUser_dropsEveryEdge() {
+        graph.removeUser(3L);
+        assertEquals(0, graph.friendCount(3L));
+        assertFalse(graph.areFriends(7L, 3L));
+        assertEquals(0, graph.friendCount(7L));
+        assertArrayEquals(new long[] {2}, graph.friendsOf(1L));
+    }
+
+    @Test
+    void mutualCounts_skipsSelfAndExistingFriends() {
+        // 1's friends are 2 and 3; 7 is reachable through 3 only
+        assertEquals(Map.of(7L, 1), graph.mutualCounts(1L, 1000));
+
+        graph.addFriendship(2L, 7L);
+        assertEquals(Map.of(7L, 2), graph.mutualCounts(1L, 1000));
+
+        // scan budget is respected
+        assertTrue(graph.mutualCounts(1L, 1).size() <= 1);
+    }
+
+    @Test
+    void reload_replaysEdgeChangesThatLandWhileReadingTheSnapshot() {
+        FriendshipRepository repo = mock(FriendshipRepository.class);
+        FriendGraph fresh = new FriendGraph(repo, true);
+        when(repo.findPairsByStatus(any())).thenAnswer(inv -> {
+            // committed after the snapshot was taken, before the swap
+            fresh.addFriendship(4L, 5L);
+            fresh.removeFriendship(1L, 2L);
+            return List.of(pair(1, 2), pair(1, 3));
+        });
+
+        fresh.load();
+
+        assertTrue(fresh.areFriends(5L, 4L));
+        assertFalse(fresh.areFriends(1L, 2L));
+        assertArrayEquals(new long[] {3}, fresh.friendsOf(1L));
+
+        // recording stops with the swap
+        fresh.removeFriendship(1L, 3L);
+        assertEquals(0, fresh.friendCount(1L));
+    }
+}
@@ -1,5 +1,8 @@
 package com.project.thelittlethings.services;
 
+import com.project.thelittlethings.dto.friends.FriendNotification;
+import com.project.thelittlethings.dto.friends.FriendSuggestion;
+import com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO;
 import com.project.thelittlethings.entities.FriendChallenge;
 import com.project.thelittlethings.entities.Friendship;
 import com.project.thelittlethings.entities.User;
@@ -10,23 +13,34 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.OffsetDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
  * Tests cover:
  * 1) sending a friend request (PENDING)
  * 2) challenge staking flow: accept -> escrow -> request completion -> confirm -> winner gets pool
+ * 3) escrow floor guard rejecting an opponent who can't cover the stake
+ * 4) friend suggestions ranked by mutual friends, then region, minus pending requests
+ * 1-2 also check the live notifications pushed to the other side
  */
 class FriendServiceTest {
 
     private FriendshipRepository friendshipRepo;
     private UserRepository userRepo;
     private FriendChallengeRepository challengeRepo;
+    private FriendGraph friendGraph;
+    private LeaderboardIndex leaderboardIndex;
+    private NotificationHub notifications;
+    private ActivityFeed activityFeed;
     private FriendService service;
 
     @BeforeEach
@@ -34,7 +48,12 @@ class FriendServiceTest {
         friendshipRepo = mock(FriendshipRepository.class);
         userRepo = mock(UserRepository.class);
         challengeRepo = mock(FriendChallengeRepository.class);
-        service = new FriendService(friendshipRepo, userRepo, challengeRepo);
+        friendGraph = mock(FriendGraph.class);
+        leaderboardIndex = mock(LeaderboardIndex.class);
+        notifications = mock(NotificationHub.class);
+        activityFeed = mock(ActivityFeed.class);
+        service = new FriendService(friendshipRepo, userRepo, challengeRepo, leaderboardIndex, friendGraph, notifications,
+                activityFeed);
     }
 
     private User user(long id, String username, int trophies) {
@@ -81,6 +100,25 @@ class FriendServiceTest {
         assertNotNull(created.getUpdatedAt());
 
         verify(friendshipRepo).save(any(Friendship.class));
+        // bob's open streams hear about it
+        verify(notifications).publish(eq(2L), argThat(n ->
+            FriendNotification.FRIEND_REQUEST.equals(n.getType()) && n.getRefId() == 99L && n.getFromUserId() == 1L));
+    }
+
+    @Test
+    void remove_dropsBothFeedInboxes() {
+        User alice = user(1L, "alice", 0);
+        User bob   = user(2L, "bob",   0);
+        when(userRepo.findById(1L)).thenReturn(Optional.of(alice));
+        when(userRepo.findById(2L)).thenReturn(Optional.of(bob));
+        Friendship f = new Friendship();
+        f.setStatus(Friendship.Status.ACCEPTED);
+        when(friendshipRepo.findByUserAAndUserB(alice, bob)).thenReturn(Optional.of(f));
+
+        service.remove(1L, 2L);
+
+        verify(friendGraph).removeFriendship(1L, 2L);
+        verify(activityFeed).friendshipChanged(1L, 2L);
     }
 
     /* ---------------------------------------------------------------------- */
@@ -106,7 +144,7 @@ class FriendServiceTest {
             .escrowed(false)
             .build();
 
-        when(challengeRepo.findById(7L)).thenReturn(Optional.of(fc));
+        when(challengeRepo.findByIdForUpdate(7L)).thenReturn(Optional.of(fc));
 
         // user lookups used by service
         when(userRepo.findById(10L)).thenReturn(Optional.of(challenger));
@@ -114,15 +152,19 @@ class FriendServiceTest {
 
         // pass-through saves
         when(challengeRepo.save(any(FriendChallenge.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(userRepo.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // trophy ledger: guarded escrow withdrawals and the payout
+        when(userRepo.withdrawTrophies(10L, 50)).thenReturn(Optional.of(150)); // 200 - 50
+        when(userRepo.withdrawTrophies(20L, 50)).thenReturn(Optional.of(100)); // 150 - 50
+        when(userRepo.addTrophies(20L, 100)).thenReturn(Optional.of(200));
 
         /* 1) Opponent accepts -> both pay 50, escrowed=true, status=ACCEPTED */
         FriendChallenge afterAccept = service.acceptChallenge(20L, 7L);
 
         assertEquals(FriendChallenge.Status.ACCEPTED, afterAccept.getStatus());
         assertTrue(afterAccept.isEscrowed());
-        assertEquals(150, challenger.getTrophies()); // 200 - 50
-        assertEquals(100, opponent.getTrophies());   // 150 - 50
+        verify(userRepo).withdrawTrophies(10L, 50);
+        verify(userRepo).withdrawTrophies(20L, 50);
 
         /* 2) Challenger requests completion -> status=COMPLETION_REQUESTED */
         FriendChallenge afterReq = service.requestCompletion(10L, 7L);
@@ -137,12 +179,95 @@ class FriendServiceTest {
         assertEquals(20L, afterConfirm.getWinner().getUserId());
         assertFalse(afterConfirm.isEscrowed(), "escrow should be consumed");
 
-        // Challenger stayed at 150; Opponent had 100, receives +100 pool => 200
-        assertEquals(150, challenger.getTrophies());
-        assertEquals(200, opponent.getTrophies());
+        // Challenger stays at 150; Opponent had 100, receives +100 pool => 200
+        verify(userRepo).addTrophies(20L, 100);
+        verify(userRepo, never()).addTrophies(eq(10L), anyInt());
 
-        // repo interactions
+        // repo interactions: trophies never go through a full-entity save
         verify(challengeRepo, atLeastOnce()).save(any(FriendChallenge.class));
-        verify(userRepo, atLeast(2)).save(any(User.class)); // once on accept (two saves), once on confirm (winner)
+        verify(userRepo, never()).save(any(User.class));
+
+        // each step pushes to the other participant
+        verify(notifications).publish(eq(10L), argThat(n -> FriendNotification.CHALLENGE_ACCEPTED.equals(n.getType())));
+        verify(notifications).publish(eq(20L), argThat(n -> FriendNotification.CHALLENGE_COMPLETION_REQUESTED.equals(n.getType())));
+        verify(notifications).publish(eq(10L), argThat(n -> FriendNotification.CHALLENGE_COMPLETED.equals(n.getType())));
+    }
+
+    @Test
+    void acceptChallenge_insufficientTrophies_isRejected() {
+        User challenger = user(10L, "alice", 200);
+        User opponent   = user(20L, "bob",   10);
+        FriendChallenge fc = FriendChallenge.builder()
+            .id(8L).challenger(challenger).opponent(opponent)
+            .goalList("Test goal").trophiesStake(50)
+            .status(FriendChallenge.Status.PROPOSED).escrowed(false)
+            .build();
+        when(challengeRepo.findByIdForUpdate(8L)).thenReturn(Optional.of(fc));
+        when(userRepo.withdrawTrophies(10L, 50)).thenReturn(Optional.of(150));
+        when(userRepo.withdrawTrophies(20L, 50)).thenReturn(Optional.empty()); // floor guard failed
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+            () -> service.acceptChallenge(20L, 8L));
+        assertEquals("You have insufficient trophies to accept", ex.getMessage());
+        assertEquals(FriendChallenge.Status.PROPOSED, fc.getStatus());
+        verify(challengeRepo, never()).save(any(FriendChallenge.class));
+    }
+
+    @Test
+    void confirmCompletion_afterExpirySweep_isRejectedWithoutPaying() {
+        User challenger = user(10L, "alice", 150);
+        User opponent   = user(20L, "bob",   150);
+        // what the locked read returns once the sweep has refunded both stakes
+        FriendChallenge fc = FriendChallenge.builder()
+            .id(9L).challenger(challenger).opponent(opponent)
+            .goalList("Test goal").trophiesStake(50)
+            .status(FriendChallenge.Status.EXPIRED).escrowed(false)
+            .completionRequestedBy(challenger)
+            .build();
+        when(challengeRepo.findByIdForUpdate(9L)).thenReturn(Optional.of(fc));
+
+        assertThrows(IllegalArgumentException.class, () -> service.confirmCompletion(20L, 9L));
+        verify(userRepo, never()).addTrophies(any(), anyInt());
+        verify(challengeRepo, never()).findById(any());
+        verify(challengeRepo, never()).save(any(FriendChallenge.class));
+    }
+
+    @Test
+    void secondConfirmOrComplete_seesCompletedAndDoesNotPayAgain() {
+        User challenger = user(10L, "alice", 150);
+        User opponent   = user(20L, "bob",   150);
+        // what the locked read returns to the request that lost the race
+        FriendChallenge fc = FriendChallenge.builder()
+            .id(11L).challenger(challenger).opponent(opponent)
+            .goalList("Test goal").trophiesStake(50)
+            .status(FriendChallenge.Status.COMPLETED).escrowed(false)
+            .completionRequestedBy(challenger)
+            .build();
+        when(challengeRepo.findByIdForUpdate(11L)).thenReturn(Optional.of(fc));
+
+        assertThrows(IllegalArgumentException.class, () -> service.confirmCompletion(20L, 11L));
+        assertThrows(IllegalArgumentException.class, () -> service.completeChallenge(20L, 11L));
+        verify(userRepo, never()).addTrophies(any(), anyInt());
+        verify(challengeRepo, never()).findById(any());
+    }
+
+    @Test
+    void suggestFriends_ranksByMutualThenRegion_andSkipsPending() {
+        when(friendGraph.isReady()).thenReturn(true);
+        when(friendGraph.mutualCounts(eq(1L), anyInt())).thenReturn(new HashMap<>(Map.of(
+            5L, 1, 6L, 3, 7L, 1, 8L, 2)));
+        when(friendshipRepo.findPendingPartnerIds(1L)).thenReturn(List.of(8L));
+        when(leaderboardIndex.isReady()).thenReturn(true);
+        when(leaderboardIndex.entryOf(1L)).thenReturn(new LeaderboardUserDTO(1L, "me", "EU", 10));
+        when(leaderboardIndex.entryOf(5L)).thenReturn(new LeaderboardUserDTO(5L, "far", "US", 900));
+        when(leaderboardIndex.entryOf(6L)).thenReturn(new LeaderboardUserDTO(6L, "close", "US", 0));
+        when(leaderboardIndex.entryOf(7L)).thenReturn(new LeaderboardUserDTO(7L, "local", "EU", 5));
+
+        List<FriendSuggestion> out = service.suggestFriends(1L, 10);
+
+        assertEquals(List.of("close", "local", "far"), out.stream().map(FriendSuggestion::getUsername).toList());
+        assertEquals(3, out.get(0).getMutualFriends());
+        assertTrue(out.get(1).isSameRegion());
+        verify(userRepo, never()).findAllById(any());
     }
 }
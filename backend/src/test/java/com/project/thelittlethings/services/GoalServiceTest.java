@@ -2,6 +2,7 @@ package com.project.thelittlethings.services;
 
 
 import com.project.thelittlethings.dto.goals.CreateGoalRequest;
+import com.project.thelittlethings.dto.goals.GoalGroupPage;
 import com.project.thelittlethings.dto.goals.GoalResponse;
 import com.project.thelittlethings.dto.goals.UpdateGoalRequest;
 import com.project.thelittlethings.entities.Category;
@@ -13,7 +14,12 @@ import com.project.thelittlethings.repositories.UserRepository;
 import com.project.thelittlethings.repositories.WinRepository;
 import org.junit.jupiter.api.*;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,6 +32,8 @@ class GoalServiceTest {
   @Mock UserRepository userRepo;
   @Mock CategoryRepository categoryRepo;
   @Mock WinRepository winRepo;
+  @Mock CategoryActivityTracker categoryActivity;
+  @Mock ApplicationEventPublisher events;
 
 
   GoalService service;
@@ -33,7 +41,7 @@ class GoalServiceTest {
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
-    service = new GoalService(goalRepo, userRepo, categoryRepo, winRepo);
+    service = new GoalService(goalRepo, userRepo, categoryRepo, winRepo, events, categoryActivity);
   }
 
 
@@ -122,8 +130,109 @@ class GoalServiceTest {
     goal.setCategory(cat);
 
     when(goalRepo.findByGoalIdAndUser_UserId(7L, 31L)).thenReturn(Optional.of(goal));
+    when(winRepo.findIdsByGoalId(7L)).thenReturn(List.of(70L, 71L));
 
     service.delete(7L, 31L);
     verify(goalRepo).delete(goal);
+    verify(events).publishEvent(new WinsDeletedEvent(31L, List.of(70L, 71L)));
+    verify(categoryActivity).refresh(31L, List.of(4L));
+  }
+
+  @Test
+  void update_movingCategory_refreshesBothActivities() {
+    var user = CreateUserforGoal(31L);
+    var from = CreateCategoryForGoal(4L, user);
+    var to = CreateCategoryForGoal(9L, user);
+
+    var goal = new Goal();
+    goal.setGoalId(5L);
+    goal.setUser(user);
+    goal.setCategory(from);
+    goal.setTitle("Old");
+    goal.setPriority("LOW");
+
+    when(goalRepo.findByGoalIdAndUser_UserId(5L, 31L)).thenReturn(Optional.of(goal));
+    when(categoryRepo.findById(9L)).thenReturn(Optional.of(to));
+    when(goalRepo.save(any(Goal.class))).thenAnswer(inv -> inv.getArgument(0));
+
+    service.updateGoal(5L, 31L, new UpdateGoalRequest(null, null, null, 9L));
+
+    verify(categoryActivity).refresh(31L, List.of(4L, 9L));
+  }
+
+  @Test
+  void update_sameCategory_doesNotRefresh() {
+    var user = CreateUserforGoal(31L);
+    var cat = CreateCategoryForGoal(9L, user);
+
+    var goal = new Goal();
+    goal.setGoalId(5L);
+    goal.setUser(user);
+    goal.setCategory(cat);
+    goal.setTitle("Old");
+    goal.setPriority("LOW");
+
+    when(goalRepo.findByGoalIdAndUser_UserId(5L, 31L)).thenReturn(Optional.of(goal));
+    when(categoryRepo.findById(9L)).thenReturn(Optional.of(cat));
+    when(goalRepo.save(any(Goal.class))).thenAnswer(inv -> inv.getArgument(0));
+
+    service.updateGoal(5L, 31L, new UpdateGoalRequest(null, null, null, 9L));
+
+    verify(categoryActivity, never()).refresh(any(), any());
+  }
+
+  private GoalResponse goalRow(long id, String priority) {
+    return new GoalResponse(id, 31L, 4L, "g" + id, null, priority, null, null);
+  }
+
+  private GoalRepository.PriorityCount count(String priority, long total) {
+    return new GoalRepository.PriorityCount() {
+      public String getPriority() { return priority; }
+      public long getTotal() { return total; }
+    };
+  }
+
+  @Test
+  void listGrouped_splitsOneReadIntoGroups() {
+    when(userRepo.existsById(31L)).thenReturn(true);
+    when(goalRepo.findResponsesForGrouping(31L, null))
+        .thenReturn(List.of(goalRow(3, "LOW"), goalRow(2, "HIGH"), goalRow(1, "HIGH")));
+
+    Map<String, List<GoalResponse>> grouped = service.listGrouped(31L, null, null);
+
+    assertEquals(2, grouped.get("HIGH").size());
+    assertEquals(0, grouped.get("MEDIUM").size());
+    assertEquals(1, grouped.get("LOW").size());
+    verify(goalRepo, never()).findByUser_UserId(anyLong());
+  }
+
+  @Test
+  void listGrouped_priorityFilterIsPushedDown() {
+    when(userRepo.existsById(31L)).thenReturn(true);
+    when(goalRepo.findResponsesByPriority(31L, null, "HIGH", Pageable.unpaged()))
+        .thenReturn(List.of(goalRow(2, "HIGH")));
+
+    Map<String, List<GoalResponse>> grouped = service.listGrouped(31L, null, "high");
+
+    assertEquals(Map.of("HIGH", List.of(goalRow(2, "HIGH"))), grouped);
+    verify(goalRepo, never()).findResponsesForGrouping(anyLong(), any());
+  }
+
+  @Test
+  void listGroupedPage_pagesEachGroupWithTotals() {
+    when(userRepo.existsById(31L)).thenReturn(true);
+    when(goalRepo.countByPriority(31L, null)).thenReturn(List.of(count("HIGH", 3), count("LOW", 1)));
+    when(goalRepo.findResponsesByPriority(31L, null, "HIGH", PageRequest.of(1, 2)))
+        .thenReturn(List.of(goalRow(1, "HIGH")));
+
+    Map<String, GoalGroupPage> page = service.listGroupedPage(31L, null, null, 1, 2);
+
+    assertEquals(List.of("HIGH", "MEDIUM", "LOW"), List.copyOf(page.keySet()));
+    assertEquals(3, page.get("HIGH").getTotal());
+    assertEquals(1, page.get("HIGH").getGoals().size());
+    // MEDIUM is empty and LOW has nothing on page 1, so neither is queried
+    assertEquals(0, page.get("MEDIUM").getTotal());
+    assertTrue(page.get("LOW").getGoals().isEmpty());
+    verify(goalRepo, times(1)).findResponsesByPriority(anyLong(), any(), anyString(), any(Pageable.class));
   }
 }
@@ -0,0 +1,163 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.dto.leaderboard.LeaderboardRankResponse;
+import com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO;
+import com.project.thelittlethings.dto.leaderboard.RankedUserDTO;
+import com.project.thelittlethings.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LeaderboardIndexTest {
+
+    private LeaderboardIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new LeaderboardIndex(mock(UserRepository.class), true);
+        index.load(List.of(
+                new LeaderboardUserDTO(1L, "alice", "EU", 50),
+                new LeaderboardUserDTO(2L, "bob", "EU", 120),
+                new LeaderboardUserDTO(3L, "charlie", "US", 10),
+                new LeaderboardUserDTO(4L, "diana", "US", 75),
+                new LeaderboardUserDTO(5L, "eve", "AU", null)));
+    }
+
+    @Test
+    void page_ordersByTrophiesDesc() {
+        assertTrue(index.isReady());
+
+        List<LeaderboardUserDTO> first = index.page(null, 0, 2);
+        assertEquals(List.of("bob", "diana"), first.stream().map(LeaderboardUserDTO::getUsername).toList());
+
+        List<LeaderboardUserDTO> last = index.page(null, 2, 2);
+        assertEquals(1, last.size());
+        assertEquals("eve", last.get(0).getUsername());
+        assertEquals(0, last.get(0).getTrophies());
+
+        List<LeaderboardUserDTO> us = index.page("US", 0, 10);
+        assertEquals(List.of("diana", "charlie"), us.stream().map(LeaderboardUserDTO::getUsername).toList());
+        assertTrue(index.page("NOWHERE", 0, 10).isEmpty());
+    }
+
+    @Test
+    void updateTrophies_movesUserInBothRankings() {
+        assertEquals(4, index.rankOf(3L));
+        assertEquals(2, index.regionalRankOf(3L));
+
+        index.updateTrophies(3L, 200);
+
+        assertEquals(1, index.rankOf(3L));
+        assertEquals(1, index.regionalRankOf(3L));
+        assertEquals(2, index.rankOf(2L));
+        assertEquals(200, index.page("US", 0, 1).get(0).getTrophies());
+    }
+
+    @Test
+    void tiesBreakOnUserId_andRemoveDropsUser() {
+        index.upsert(6L, "frank", "EU", 50);
+        assertEquals(3, index.rankOf(1L));
+        assertEquals(4, index.rankOf(6L));
+
+        index.remove(1L);
+        assertEquals(-1, index.rankOf(1L));
+        assertEquals(3, index.rankOf(6L));
+        assertEquals(2, index.regionalRankOf(6L));
+    }
+
+    @Test
+    void pageAfter_seeksPastCursor() {
+        List<LeaderboardUserDTO> first = index.pageAfter(null, Integer.MAX_VALUE, null, 2);
+        assertEquals(List.of("bob", "diana"), first.stream().map(LeaderboardUserDTO::getUsername).toList());
+
+        List<LeaderboardUserDTO> next = index.pageAfter(null, 75, 4L, 2);
+        assertEquals(List.of("alice", "charlie"), next.stream().map(LeaderboardUserDTO::getUsername).toList());
+
+        // cursor row removed in between: still continues from its position
+        index.remove(4L);
+        assertEquals("alice", index.pageAfter(null, 75, 4L, 1).get(0).getUsername());
+    }
+
+    @Test
+    void rankAround_returnsRanksAndNeighbours() {
+        LeaderboardRankResponse r = index.rankAround(1L, 1).orElseThrow();
+
+        assertEquals(3, r.getGlobalRank());
+        assertEquals(2, r.getRegionalRank());
+        assertEquals(List.of("diana"), r.getAbove().stream().map(RankedUserDTO::getUsername).toList());
+        assertEquals(2, r.getAbove().get(0).getRank());
+        assertEquals(List.of("charlie"), r.getBelow().stream().map(RankedUserDTO::getUsername).toList());
+        assertEquals(4, r.getBelow().get(0).getRank());
+
+        LeaderboardRankResponse top = index.rankAround(2L, 3).orElseThrow();
+        assertTrue(top.getAbove().isEmpty());
+        assertEquals(3, top.getBelow().size());
+
+        assertTrue(index.rankAround(99L, 3).isEmpty());
+    }
+
+    @Test
+    void reload_replaysWritesThatLandWhileReadingTheSnapshot() {
+        UserRepository repo = mock(UserRepository.class);
+        LeaderboardIndex fresh = new LeaderboardIndex(repo, true);
+        when(repo.findAllLeaderboardEntries()).thenAnswer(inv -> {
+            // committed after the snapshot was taken, before the swap
+            fresh.upsert(9L, "zed", "EU", 300);
+            fresh.updateTrophies(9L, 310);
+            fresh.remove(2L);
+            return List.of(
+                    new LeaderboardUserDTO(1L, "alice", "EU", 50),
+                    new LeaderboardUserDTO(2L, "bob", "EU", 120));
+        });
+
+        fresh.load();
+
+        assertEquals(1, fresh.rankOf(9L));
+        assertEquals(310, fresh.page(null, 0, 1).get(0).getTrophies());
+        assertEquals(List.of("zed", "alice"),
+                fresh.page("EU", 0, 10).stream().map(LeaderboardUserDTO::getUsername).toList());
+
+        // recording stops with the swap
+        fresh.updateTrophies(1L, 400);
+        assertEquals(1, fresh.rankOf(1L));
+    }
+
+    @Test
+    void updateTrophies_ignoresAnOlderTotalWhoseCallbackRunsLast() {
+        List<TransactionSynchronization> first = inTransaction(() -> index.updateTrophies(3L, 100));
+        List<TransactionSynchronization> second = inTransaction(() -> index.updateTrophies(3L, 150));
+
+        second.forEach(TransactionSynchronization::afterCommit);
+        first.forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(150, index.entryOf(3L).getTrophies());
+        assertEquals(1, index.rankOf(3L));
+    }
+
+    @Test
+    void upsert_keepsTheLedgerTotal() {
+        index.updateTrophies(1L, 500);
+        index.upsert(1L, "alice2", "US", 50); // stale entity value from a rename
+
+        assertEquals(500, index.entryOf(1L).getTrophies());
+        assertEquals("alice2", index.entryOf(1L).getUsername());
+        assertEquals(1, index.regionalRankOf(1L));
+    }
+
+    private static List<TransactionSynchronization> inTransaction(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
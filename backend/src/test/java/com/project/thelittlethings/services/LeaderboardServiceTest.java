@@ -1,5 +1,8 @@
 package com.project.thelittlethings.services;
 
+import com.project.thelittlethings.dto.leaderboard.FriendsLeaderboardPage;
+import com.project.thelittlethings.dto.leaderboard.LeaderboardPage;
+import com.project.thelittlethings.dto.leaderboard.LeaderboardRankResponse;
 import com.project.thelittlethings.dto.leaderboard.LeaderboardUserDTO;
 import com.project.thelittlethings.entities.User;
 import com.project.thelittlethings.repositories.UserRepository;
@@ -11,9 +14,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
@@ -26,6 +34,12 @@ class LeaderboardServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private LeaderboardIndex leaderboardIndex;
+
+    @Mock
+    private FriendGraph friendGraph;
+
     @InjectMocks
     private LeaderboardService leaderboardService;
 
@@ -92,4 +106,109 @@ class LeaderboardServiceTest {
         verify(userRepository).findAllByOrderByTrophiesDesc(any(PageRequest.class));
         verify(userRepository, never()).findByRegionOrderByTrophiesDesc(anyString(), any(PageRequest.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetLeaderboard_servedFromIndexWhenReady() {
+        List<LeaderboardUserDTO> indexed = List.of(new LeaderboardUserDTO(5L, "user5", "Europe", 60));
+
+        when(leaderboardIndex.isReady()).thenReturn(true);
+        when(leaderboardIndex.page("Europe", 1, 5)).thenReturn(indexed);
+
+        List<LeaderboardUserDTO> result = leaderboardService.getLeaderboard("Europe", 1, 5);
+
+        assertEquals(indexed, result);
+        verify(userRepository, never()).findByRegionOrderByTrophiesDesc(anyString(), any(PageRequest.class));
+        verify(userRepository, never()).findAllByOrderByTrophiesDesc(any(PageRequest.class));
+    }
+
+    @Test
+    void testGetLeaderboardPage_seeksFromCursorInRepository() {
+        List<LeaderboardUserDTO> rows = List.of(
+                new LeaderboardUserDTO(7L, "user7", "Europe", 40),
+                new LeaderboardUserDTO(9L, "user9", "Europe", 40));
+
+        when(userRepository.findRegionLeaderboardAfter(eq("Europe"), eq(50), eq(3L), any(PageRequest.class)))
+                .thenReturn(rows);
+
+        String cursor = LeaderboardService.encodeCursor(50, 3L);
+        LeaderboardPage page = leaderboardService.getLeaderboardPage("Europe", cursor, 2);
+
+        assertEquals(rows, page.getUsers());
+        assertEquals(LeaderboardService.encodeCursor(40, 9L), page.getNextCursor());
+        verify(userRepository, never()).findLeaderboardAfter(anyInt(), anyLong(), any(PageRequest.class));
+    }
+
+    @Test
+    void testGetLeaderboardPage_lastPageHasNoCursor() {
+        when(userRepository.findLeaderboardAfter(eq(Integer.MAX_VALUE), eq(0L), any(PageRequest.class)))
+                .thenReturn(List.of(new LeaderboardUserDTO(1L, "user1", "Asia", 10)));
+
+        LeaderboardPage page = leaderboardService.getLeaderboardPage(null, null, 5);
+
+        assertEquals(1, page.getUsers().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetLeaderboardPage_rejectsGarbageCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> leaderboardService.getLeaderboardPage(null, "not-a-cursor!", 5));
+    }
+
+    @Test
+    void testGetRankAround_fromRepositoryWhenIndexCold() {
+        when(userRepository.findLeaderboardEntry(5L))
+                .thenReturn(Optional.of(new LeaderboardUserDTO(5L, "user5", "Europe", 60)));
+        when(userRepository.countRankedAbove(60, 5L)).thenReturn(9L);
+        when(userRepository.countRegionRankedAbove("Europe", 60, 5L)).thenReturn(2L);
+        when(userRepository.findLeaderboardBefore(eq(60), eq(5L), any(PageRequest.class))).thenReturn(List.of(
+                new LeaderboardUserDTO(4L, "user4", "Asia", 61),
+                new LeaderboardUserDTO(3L, "user3", "Europe", 70)));
+        when(userRepository.findLeaderboardAfter(eq(60), eq(5L), any(PageRequest.class))).thenReturn(List.of(
+                new LeaderboardUserDTO(8L, "user8", "Asia", 60)));
+
+        LeaderboardRankResponse r = leaderboardService.getRankAround(5L, 2);
+
+        assertEquals(10, r.getGlobalRank());
+        assertEquals(3, r.getRegionalRank());
+        assertEquals("user3", r.getAbove().get(0).getUsername());
+        assertEquals(8, r.getAbove().get(0).getRank());
+        assertEquals(9, r.getAbove().get(1).getRank());
+        assertEquals(11, r.getBelow().get(0).getRank());
+        verify(userRepository, never()).findAllByOrderByTrophiesDesc(any(PageRequest.class));
+    }
+
+    @Test
+    void testGetFriendsLeaderboard_fromGraphAndIndex() {
+        when(friendGraph.isReady()).thenReturn(true);
+        when(leaderboardIndex.isReady()).thenReturn(true);
+        when(friendGraph.friendsOf(1L)).thenReturn(new long[]{2L, 3L, 4L});
+        when(leaderboardIndex.entryOf(1L)).thenReturn(new LeaderboardUserDTO(1L, "me", "Europe", 50));
+        when(leaderboardIndex.entryOf(2L)).thenReturn(new LeaderboardUserDTO(2L, "top", "Asia", 90));
+        when(leaderboardIndex.entryOf(3L)).thenReturn(new LeaderboardUserDTO(3L, "tied", "Asia", 50));
+        when(leaderboardIndex.entryOf(4L)).thenReturn(new LeaderboardUserDTO(4L, "low", "Europe", 5));
+
+        FriendsLeaderboardPage p = leaderboardService.getFriendsLeaderboard(1L, 1, 2);
+
+        assertEquals(4, p.getTotal());
+        assertEquals(List.of("tied", "low"), p.getUsers().stream().map(u -> u.getUsername()).toList());
+        assertEquals(3, p.getUsers().get(0).getRank());
+        // caller is reported even though their row is on page 0
+        assertEquals(2, p.getMe().getRank());
+        verify(userRepository, never()).findFriendsLeaderboard(anyLong());
+    }
+
+    @Test
+    void testGetFriendsLeaderboard_fromRepositoryWhenGraphCold() {
+        when(friendGraph.isReady()).thenReturn(false);
+        when(userRepository.findFriendsLeaderboard(1L)).thenReturn(List.of(
+                new LeaderboardUserDTO(2L, "top", "Asia", 90),
+                new LeaderboardUserDTO(1L, "me", "Europe", 50)));
+
+        FriendsLeaderboardPage p = leaderboardService.getFriendsLeaderboard(1L, 0, 10);
+
+        assertEquals(2, p.getUsers().size());
+        assertEquals(2, p.getMe().getRank());
+        assertEquals(1, p.getUsers().get(0).getRank());
+    }
+}
@@ -0,0 +1,89 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.MaterialisedView.CategoryNeglectedView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class NeglectedCategoryCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Supplier<NeglectedCategoryCache.Loaded> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            return new NeglectedCategoryCache.Loaded(List.of(mock(CategoryNeglectedView.class)),
+                    Instant.now().plusSeconds(3600));
+        };
+    }
+
+    @Test
+    void invalidate_forcesAReloadForThatUserOnly() {
+        NeglectedCategoryCache cache = new NeglectedCategoryCache(true, 100, new SimpleMeterRegistry());
+
+        cache.get(1L, 14, loader());
+        cache.get(1L, 14, loader());
+        cache.get(2L, 14, loader());
+        assertEquals(2, loads.get());
+
+        cache.invalidate(1L); // no transaction: applies immediately
+        cache.get(1L, 14, loader());
+        cache.get(2L, 14, loader());
+        assertEquals(3, loads.get());
+
+        NeglectedCategoryCache.Stats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(3, stats.misses());
+        assertEquals(0.4, stats.hitRate(), 1e-9);
+    }
+
+    @Test
+    void invalidate_leavesNothingBehindForTheUser() {
+        NeglectedCategoryCache cache = new NeglectedCategoryCache(true, 100, new SimpleMeterRegistry());
+
+        cache.get(1L, 14, loader());
+        cache.get(1L, 30, loader());
+        cache.invalidate(1L);
+        cache.invalidate(2L); // never cached
+
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void counters_arePublishedToTheMeterRegistry() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        NeglectedCategoryCache cache = new NeglectedCategoryCache(true, 100, registry);
+
+        cache.get(1L, 14, loader());
+        cache.get(1L, 14, loader());
+        cache.get(1L, 14, loader());
+
+        String name = NeglectedCategoryCache.CACHE_NAME;
+        assertEquals(2, registry.get("cache.gets").tags("cache", name, "result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tags("cache", name, "result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("cache.size").tag("cache", name).gauge().value());
+    }
+
+    @Test
+    void sizeLimit_evictsLeastRecentlyUsed() {
+        NeglectedCategoryCache cache = new NeglectedCategoryCache(true, 2, new SimpleMeterRegistry());
+
+        cache.get(1L, 14, loader());
+        cache.get(2L, 14, loader());
+        cache.get(1L, 14, loader());   // 1 is now the most recent
+        cache.get(3L, 14, loader());   // evicts 2
+        cache.get(1L, 14, loader());
+        cache.get(2L, 14, loader());
+
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.stats().evictions());
+        assertEquals(2, cache.stats().size());
+    }
+}
@@ -0,0 +1,48 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.dto.friends.FriendNotification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationHubTest {
+
+    private NotificationHub hub;
+
+    @BeforeEach
+    void setup() {
+        hub = new NotificationHub(60_000, 4, 2, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void subscribe_capsStreamsPerUser() {
+        SseEmitter first = hub.subscribe(1L);
+        hub.subscribe(1L);
+        hub.subscribe(1L);   // over the limit of 2: the oldest is closed
+        hub.subscribe(2L);
+
+        assertNotNull(first);
+        assertEquals(3, hub.connectionCount());
+    }
+
+    @Test
+    void publish_withoutStreamsOrBeyondBuffer_neverThrows() {
+        FriendNotification n = new FriendNotification(FriendNotification.FRIEND_REQUEST, 5L, 2L, OffsetDateTime.now());
+        hub.publish(9L, n);      // nobody listening
+        hub.subscribe(1L);
+        for (int i = 0; i < 20; i++) hub.publish(1L, n);   // more than the buffer holds
+        hub.heartbeat();
+
+        assertEquals(1, hub.connectionCount());
+    }
+}
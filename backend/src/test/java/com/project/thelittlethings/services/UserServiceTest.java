@@ -2,12 +2,18 @@ package com.project.thelittlethings.services;
 
 import com.project.thelittlethings.dto.users.CreateUserRequest;
 import com.project.thelittlethings.dto.users.LoginRequest;
+import com.project.thelittlethings.dto.users.UserSearchResult;
 import com.project.thelittlethings.entities.User;
 import com.project.thelittlethings.repositories.UserRepository;
+import com.project.thelittlethings.security.AuthPrincipal;
+import com.project.thelittlethings.security.TokenRevocationStore;
 import org.junit.jupiter.api.*;
 import org.mockito.*;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import java.security.MessageDigest;
 
@@ -18,6 +24,7 @@ import static org.mockito.Mockito.*;
 class UserServiceTest {
 
     @Mock UserRepository userRepo;
+    @Mock UsernameIndex usernameIndex;
     
     UserService userService;
     
@@ -36,7 +43,7 @@ class UserServiceTest {
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
-        userService = new UserService(userRepo);
+        userService = new UserService(userRepo, mock(LeaderboardIndex.class), mock(TokenRevocationStore.class), mock(FriendGraph.class), usernameIndex);
         
         testUser = new User();
         testUser.setUserId(1L);
@@ -122,6 +129,61 @@ class UserServiceTest {
         assertEquals("testuser", found.getUsername());
         assertEquals("test@example.com", found.getEmail());
     }
-}
 
- 
+    @Test
+    void testResolvePrincipal_cachedUntilRename() {
+        AuthPrincipal p = new AuthPrincipal(1L, "testuser", "Australia");
+        when(userRepo.findPrincipalByUsername("testuser")).thenReturn(Optional.of(p));
+
+        assertEquals(p, userService.resolvePrincipal("testuser"));
+        assertEquals(p, userService.resolvePrincipal("testuser"));
+        verify(userRepo, times(1)).findPrincipalByUsername("testuser");
+
+        when(userRepo.existsByUsername("renamed")).thenReturn(false);
+        when(userRepo.findById(1L)).thenReturn(Optional.of(testUser));
+        userService.changeUsername(1L, "renamed");
+
+        userService.resolvePrincipal("testuser");
+        verify(userRepo, times(2)).findPrincipalByUsername("testuser");
+    }
+
+    @Test
+    void testChangeUsername_evictsPrincipalOnlyAfterCommit() {
+        AuthPrincipal p = new AuthPrincipal(1L, "testuser", "Australia");
+        when(userRepo.findPrincipalByUsername("testuser")).thenReturn(Optional.of(p));
+        when(userRepo.existsByUsername("renamed")).thenReturn(false);
+        when(userRepo.findById(1L)).thenReturn(Optional.of(testUser));
+        userService.resolvePrincipal("testuser");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userService.changeUsername(1L, "renamed");
+            userService.resolvePrincipal("testuser"); // still cached before commit
+            verify(userRepo, times(1)).findPrincipalByUsername("testuser");
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        userService.resolvePrincipal("testuser");
+        verify(userRepo, times(2)).findPrincipalByUsername("testuser");
+    }
+
+    @Test
+    void testSearchUsernames_skipsCaller_andFallsBackToEscapedQuery() {
+        when(usernameIndex.isReady()).thenReturn(true);
+        when(usernameIndex.search("te", 3)).thenReturn(List.of(
+                new UserSearchResult(1L, "testuser"), new UserSearchResult(2L, "tess"), new UserSearchResult(3L, "ted")));
+
+        List<UserSearchResult> hits = userService.searchUsernames("te", 2, 1L);
+        assertEquals(List.of(2L, 3L), hits.stream().map(UserSearchResult::getUserId).toList());
+        verify(userRepo, never()).searchByUsernamePrefix(anyString(), any());
+
+        // index cold: LIKE wildcards in the input are escaped
+        when(usernameIndex.isReady()).thenReturn(false);
+        when(userRepo.searchByUsernamePrefix(eq("A!_B!%"), any())).thenReturn(List.of());
+        assertTrue(userService.searchUsernames("a_b%", 5, 1L).isEmpty());
+        verify(userRepo).searchByUsernamePrefix(eq("A!_B!%"), any());
+    }
+}
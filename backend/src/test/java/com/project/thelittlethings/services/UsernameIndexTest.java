@@ -0,0 +1,52 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.dto.users.UserSearchResult;
+import com.project.thelittlethings.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class UsernameIndexTest {
+
+    private UsernameIndex index;
+
+    private List<String> names(List<UserSearchResult> rows) {
+        return rows.stream().map(UserSearchResult::getUsername).toList();
+    }
+
+    @BeforeEach
+    void setup() {
+        index = new UsernameIndex(mock(UserRepository.class), true);
+        index.load(List.of(
+                new UserSearchResult(1L, "alice"),
+                new UserSearchResult(2L, "Alfred"),
+                new UserSearchResult(3L, "bob"),
+                new UserSearchResult(4L, "ALBERT"),
+                new UserSearchResult(5L, "al")));
+    }
+
+    @Test
+    void search_isCaseInsensitiveAndAlphabetical() {
+        assertTrue(index.isReady());
+        assertEquals(List.of("al", "ALBERT", "Alfred", "alice"), names(index.search("AL", 10)));
+        assertEquals(List.of("al", "ALBERT"), names(index.search("al", 2)));
+        assertEquals(List.of("bob"), names(index.search(" b ", 10)));
+        assertTrue(index.search("z", 10).isEmpty());
+        assertTrue(index.search("", 10).isEmpty());
+    }
+
+    @Test
+    void putAndRemove_keepOrder() {
+        index.put(6L, "Alan");
+        index.put(1L, "zara");   // rename
+        index.remove(4L);
+
+        assertEquals(List.of("al", "Alan", "Alfred"), names(index.search("al", 10)));
+        assertEquals(List.of("zara"), names(index.search("z", 10)));
+        assertEquals(6L, index.search("alan", 1).get(0).getUserId());
+    }
+}
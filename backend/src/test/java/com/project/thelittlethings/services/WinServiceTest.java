@@ -0,0 +1,162 @@
+package com.project.thelittlethings.services;
+
+import com.project.thelittlethings.dto.wins.BatchWinResponse;
+import com.project.thelittlethings.dto.wins.CreateWinRequest;
+import com.project.thelittlethings.dto.wins.UpdateWinRequest;
+import com.project.thelittlethings.entities.Category;
+import com.project.thelittlethings.entities.Goal;
+import com.project.thelittlethings.entities.User;
+import com.project.thelittlethings.entities.Win;
+import com.project.thelittlethings.repositories.GoalRepository;
+import com.project.thelittlethings.repositories.UserRepository;
+import com.project.thelittlethings.repositories.WinBatchRepository;
+import com.project.thelittlethings.repositories.WinRepository;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WinServiceTest {
+
+    @Mock WinRepository winRepo;
+    @Mock UserRepository userRepo;
+    @Mock GoalRepository goalRepo;
+    @Mock WinBatchRepository winBatchRepo;
+    @Mock LeaderboardIndex leaderboardIndex;
+    @Mock ApplicationEventPublisher events;
+    @Mock CategoryActivityTracker categoryActivity;
+
+    WinService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new WinService(winRepo, userRepo, goalRepo, winBatchRepo, leaderboardIndex, events, categoryActivity);
+    }
+
+    private CreateWinRequest win(Long goalId, String title, Integer trophies) {
+        return new CreateWinRequest(null, goalId, title, trophies, OffsetDateTime.now(), null, null);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createWins_insertsValidItemsAndAppliesOneTrophyUpdate() {
+        when(userRepo.existsById(1L)).thenReturn(true);
+        when(goalRepo.findOwnedGoalIds(eq(1L), anyCollection())).thenReturn(List.of(10L));
+        when(winBatchRepo.insertAll(eq(1L), anyList())).thenReturn(List.of(100L, 101L));
+        when(userRepo.addTrophies(1L, 7)).thenReturn(Optional.of(27));
+
+        BatchWinResponse res = service.createWins(1L, List.of(
+                win(10L, "run", 5),
+                win(99L, "not mine", 3),
+                win(10L, " ", 1),
+                win(10L, "walk", 2)));
+
+        assertEquals(2, res.getCreated());
+        assertEquals(7, res.getTrophiesAdded());
+        assertEquals(27, res.getTotalTrophies());
+        assertEquals(100L, res.getResults().get(0).getWinId());
+        assertEquals("goal not found", res.getResults().get(1).getError());
+        assertEquals("title is required", res.getResults().get(2).getError());
+        assertEquals(101L, res.getResults().get(3).getWinId());
+
+        ArgumentCaptor<List<Win>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(winBatchRepo).insertAll(eq(1L), inserted.capture());
+        assertEquals(List.of("run", "walk"), inserted.getValue().stream().map(Win::getTitle).toList());
+        verify(goalRepo, times(1)).findOwnedGoalIds(eq(1L), anyCollection());
+        verify(userRepo, times(1)).addTrophies(anyLong(), anyInt());
+        verify(leaderboardIndex).updateTrophies(1L, 27);
+        verifyNoInteractions(winRepo);
+
+        // one feed event per stored win, carrying the generated id
+        ArgumentCaptor<WinRecordedEvent> recorded = ArgumentCaptor.forClass(WinRecordedEvent.class);
+        verify(events, times(2)).publishEvent(recorded.capture());
+        assertEquals(List.of(100L, 101L), recorded.getAllValues().stream().map(WinRecordedEvent::winId).toList());
+    }
+
+    @Test
+    void createWins_rejectsEmptyBatch() {
+        assertThrows(IllegalArgumentException.class, () -> service.createWins(1L, List.of()));
+    }
+
+    @Test
+    void createWins_missingGeneratedIds_failsTheBatch() {
+        when(userRepo.existsById(1L)).thenReturn(true);
+        when(goalRepo.findOwnedGoalIds(eq(1L), anyCollection())).thenReturn(List.of(10L));
+        when(winBatchRepo.insertAll(eq(1L), anyList())).thenReturn(List.of(100L));
+
+        assertThrows(IllegalStateException.class, () -> service.createWins(1L, List.of(
+                win(10L, "run", 5), win(10L, "walk", 2))));
+        verify(userRepo, never()).addTrophies(anyLong(), anyInt());
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void createWins_rejectsOversizedTrophyCounts() {
+        when(userRepo.existsById(1L)).thenReturn(true);
+        when(goalRepo.findOwnedGoalIds(eq(1L), anyCollection())).thenReturn(List.of(10L));
+        when(winBatchRepo.insertAll(eq(1L), anyList())).thenReturn(List.of(100L));
+        when(userRepo.addTrophies(1L, 3)).thenReturn(Optional.of(3));
+
+        BatchWinResponse res = service.createWins(1L, List.of(
+                win(10L, "huge", Integer.MAX_VALUE), win(10L, "fine", 3)));
+
+        assertEquals("numTrophies exceeds " + WinService.MAX_TROPHIES_PER_WIN, res.getResults().get(0).getError());
+        assertEquals(3, res.getTrophiesAdded());
+        verify(userRepo).addTrophies(1L, 3);
+    }
+
+    @Test
+    void updateWin_trophyChange_invalidatesCategoryStats() {
+        User u = new User();
+        u.setUserId(1L);
+        Win w = new Win();
+        w.setWinId(5L);
+        w.setUser(u);
+        w.setGoal(new Goal());
+        w.setNumTrophies(4);
+        when(winRepo.findByWinIdAndUser_UserId(5L, 1L)).thenReturn(Optional.of(w));
+        when(winRepo.save(w)).thenReturn(w);
+        when(userRepo.addTrophies(1L, 2)).thenReturn(Optional.of(12));
+
+        service.updateWin(5L, 1L, new UpdateWinRequest("renamed", null, 4));
+        verify(categoryActivity, never()).statsChanged(any());
+
+        service.updateWin(5L, 1L, new UpdateWinRequest(null, null, 6));
+        verify(categoryActivity).statsChanged(1L);
+    }
+
+    @Test
+    void deleteWin_subtractsThroughLedger() {
+        User u = new User();
+        u.setUserId(1L);
+        Win w = new Win();
+        w.setWinId(5L);
+        w.setUser(u);
+        w.setNumTrophies(4);
+        Category cat = new Category();
+        cat.setCategoryId(3L);
+        Goal goal = new Goal();
+        goal.setGoalId(9L);
+        goal.setCategory(cat);
+        w.setGoal(goal);
+        when(winRepo.findByWinIdAndUser_UserId(5L, 1L)).thenReturn(Optional.of(w));
+        when(userRepo.addTrophies(1L, -4)).thenReturn(Optional.of(0));
+
+        service.deleteWin(5L, 1L);
+
+        verify(userRepo).addTrophies(1L, -4);
+        verify(userRepo, never()).save(any());
+        verify(leaderboardIndex).updateTrophies(1L, 0);
+        verify(winRepo).delete(w);
+        verify(categoryActivity).refresh(1L, List.of(3L));
+        verify(events).publishEvent(new WinsDeletedEvent(1L, List.of(5L)));
+    }
+}